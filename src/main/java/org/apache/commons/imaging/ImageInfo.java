@@ -220,8 +220,12 @@ public class ImageInfo {
      * <p>
      * Applies mostly to GIF and TIFF; reading PSD/Photoshop layers is not supported, and Jpeg/JFIF EXIF thumbnails are not included in this count.
      * </p>
+     * <p>
+     * The number is -1 when it is unknown, as for GIF files and animated WebP files read from a {@link org.apache.commons.imaging.bytesource.ByteSource#header
+     * header-only} byte source.
+     * </p>
      *
-     * @return number of images in the file.
+     * @return number of images in the file, or -1 if unknown.
      */
     public int getNumberOfImages() {
         return numberOfImages;
@@ -184,7 +184,9 @@ public final class Imaging {
      * @throws IOException      In the event of unsuccessful read or access operation.
      */
     public static List<BufferedImage> getAllBufferedImages(final InputStream is, final String fileName) throws ImagingException, IOException {
-        return getAllBufferedImages(ByteSource.inputStream(is, fileName));
+        try (ByteSource byteSource = ByteSource.inputStream(is, fileName)) {
+            return getAllBufferedImages(byteSource);
+        }
     }
 
     /**
@@ -262,7 +264,9 @@ public final class Imaging {
      * @throws IOException      in the event of an unrecoverable I/O exception.
      */
     public static BufferedImage getBufferedImage(final InputStream is, final String fileName) throws ImagingException, IOException {
-        return getBufferedImage(ByteSource.inputStream(is, fileName));
+        try (ByteSource byteSource = ByteSource.inputStream(is, fileName)) {
+            return getBufferedImage(byteSource);
+        }
     }
 
     /**
@@ -351,7 +355,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static ICC_Profile getIccProfile(final InputStream is, final String fileName) throws ImagingException, IOException {
-        return getIccProfile(ByteSource.inputStream(is, fileName));
+        try (ByteSource byteSource = ByteSource.inputStream(is, fileName)) {
+            return getIccProfile(byteSource);
+        }
     }
 
     /**
@@ -416,7 +422,26 @@ public final class Imaging {
         return getImageInfo(ByteSource.array(bytes));
     }
 
-    private static ImageInfo getImageInfo(final ByteSource byteSource) throws ImagingException, IOException {
+    /**
+     * Parses the "image info" of an image byte source.
+     *
+     * <p>
+     * "Image info" is a summary of basic information about the image such as: width, height, file format, bit depth, color type, etc.
+     * </p>
+     *
+     * <p>
+     * A {@link ByteSource#header(InputStream, String, int) header-only} byte source reads the image info from the start of a stream, up to the image
+     * data.
+     * </p>
+     *
+     * @param byteSource Byte source data.
+     * @return An instance of ImageInfo.
+     * @see ImageInfo
+     * @throws ImagingException if it fails to parse the image
+     * @throws IOException      if it fails to read the image data
+     * @since 1.0.0-alpha6
+     */
+    public static ImageInfo getImageInfo(final ByteSource byteSource) throws ImagingException, IOException {
         return ImageParserFactory.getImageParser(byteSource).getImageInfo(byteSource, null);
     }
 
@@ -460,7 +485,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static ImageInfo getImageInfo(final InputStream is, final String fileName) throws ImagingException, IOException {
-        return getImageInfo(ByteSource.inputStream(is, fileName));
+        try (ByteSource byteSource = ByteSource.inputStream(is, fileName)) {
+            return getImageInfo(byteSource);
+        }
     }
 
     /**
@@ -500,6 +527,10 @@ public final class Imaging {
     /**
      * Determines the width and height of an image byte source.
      *
+     * <p>
+     * A {@link ByteSource#header(InputStream, String, int) header-only} byte source reads the size from the start of a stream, up to the image data.
+     * </p>
+     *
      * @param byteSource Byte source data.
      * @return The width and height of the image.
      * @throws ImagingException if it fails to parse the image
@@ -532,7 +563,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static Dimension getImageSize(final InputStream is, final String fileName) throws ImagingException, IOException {
-        return getImageSize(ByteSource.inputStream(is, fileName));
+        try (ByteSource byteSource = ByteSource.inputStream(is, fileName)) {
+            return getImageSize(byteSource);
+        }
     }
 
     /**
@@ -560,7 +593,22 @@ public final class Imaging {
         return getMetadata(ByteSource.array(bytes));
     }
 
-    private static ImageMetadata getMetadata(final ByteSource byteSource) throws ImagingException, IOException {
+    /**
+     * Parses the metadata of an image byte source. This metadata depends on the format of the image.
+     *
+     * <p>
+     * A {@link ByteSource#header(InputStream, String, int) header-only} byte source reads the metadata stored at the start of a stream, before the
+     * image data, without reading further.
+     * </p>
+     *
+     * @param byteSource Byte source data.
+     * @return An instance of ImageMetadata.
+     * @see org.apache.commons.imaging.common.ImageMetadata
+     * @throws ImagingException if it fails to read the image metadata
+     * @throws IOException      if it fails to read the image data
+     * @since 1.0.0-alpha6
+     */
+    public static ImageMetadata getMetadata(final ByteSource byteSource) throws ImagingException, IOException {
         final AbstractImageParser<?> imageParser = ImageParserFactory.getImageParser(byteSource);
         return imageParser.getMetadata(byteSource, null);
     }
@@ -613,7 +661,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static ImageMetadata getMetadata(final InputStream is, final String fileName) throws ImagingException, IOException {
-        return getMetadata(ByteSource.inputStream(is, fileName));
+        try (ByteSource byteSource = ByteSource.inputStream(is, fileName)) {
+            return getMetadata(byteSource);
+        }
     }
 
     /**
@@ -666,7 +716,9 @@ public final class Imaging {
      * @throws IOException      if it fails to read the image data
      */
     public static String getXmpXml(final InputStream is, final String fileName) throws ImagingException, IOException {
-        return getXmpXml(ByteSource.inputStream(is, fileName));
+        try (ByteSource byteSource = ByteSource.inputStream(is, fileName)) {
+            return getXmpXml(byteSource);
+        }
     }
 
     /**
@@ -16,9 +16,12 @@
  */
 package org.apache.commons.imaging.bytesource;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.Objects;
 
@@ -29,7 +32,7 @@ import org.apache.commons.io.build.AbstractOrigin.ByteArrayOrigin;
 import org.apache.commons.io.build.AbstractOrigin.FileOrigin;
 import org.apache.commons.io.build.AbstractOrigin.PathOrigin;
 
-public class ByteSource {
+public class ByteSource implements Closeable {
 
     public static ByteSource array(final byte[] array) {
         return new ByteSource(new ByteArrayOrigin(array), null);
@@ -39,6 +42,19 @@ public class ByteSource {
         return new ByteSource(new ByteArrayOrigin(array), name);
     }
 
+    /**
+     * Creates a byte source that serves positional reads from a caller-owned file channel. The channel is never repositioned or closed by the byte
+     * source, so it may be shared with other readers; the caller must keep it open for as long as the byte source is in use.
+     *
+     * @param channel the channel to read from.
+     * @param name    the file name, may be null.
+     * @return a new byte source.
+     * @since 1.0.0-alpha6
+     */
+    public static ByteSource channel(final FileChannel channel, final String name) {
+        return new FileChannelByteSource(channel, name);
+    }
+
     public static ByteSource file(final File file) {
         return new ByteSource(new FileOrigin(file), file.getName());
     }
@@ -58,8 +74,73 @@ public class ByteSource {
         return is;
     }
 
+    /**
+     * Creates a header-only byte source, that reads no more than the first bytes of an input stream, for reading the image info, size or metadata of
+     * images without reading their pixel data.
+     * <p>
+     * At most {@code readLimit} bytes are ever read from the stream, and the byte source ends there, as if the file were truncated. Image parsers stop
+     * reading a header-only byte source where the data of the first image starts, so information that a format stores after it is not reported: PNG
+     * text chunks that follow the image data, the frames of animated GIF and WebP files after the first, and WebP EXIF and XMP chunks. The number of
+     * images of GIF files and animated WebP files is reported as -1, for unknown. TIFF fields and directories beyond the limit are treated as lying
+     * outside the file.
+     * </p>
+     *
+     * @param is        the stream to read from.
+     * @param name      the file name, may be null.
+     * @param readLimit the maximum number of bytes to read from the stream.
+     * @return a new byte source.
+     * @see #isHeaderOnly()
+     * @since 1.0.0-alpha6
+     */
+    public static ByteSource header(final InputStream is, final String name, final int readLimit) {
+        if (readLimit < 0) {
+            throw new IllegalArgumentException("Invalid read limit: " + readLimit);
+        }
+        return new InputStreamByteSource(is, name, readLimit, Long.MAX_VALUE);
+    }
+
     public static ByteSource inputStream(final InputStream is, final String name) {
-        return new InputStreamByteSource(is, name);
+        return inputStream(is, name, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a byte source that reads an input stream once and keeps what it has read, with a bound on the memory it uses for that.
+     * <p>
+     * The first {@code maxHeapSize} bytes of the stream are kept on the heap, and the rest in a temporary file. Reading from any position, once the stream
+     * has been read up to it, costs the same as reading from the start, so large streamed images can be parsed within a fixed memory budget.
+     * </p>
+     * <p>
+     * The temporary file is deleted when the byte source is {@linkplain #close() closed}, which must not happen before the image data and metadata read
+     * from it are no longer needed, as they may be read lazily.
+     * </p>
+     *
+     * @param is          the stream to read from.
+     * @param name        the file name, may be null.
+     * @param maxHeapSize the maximum number of bytes of the stream to keep on the heap.
+     * @return a new byte source.
+     * @since 1.0.0-alpha6
+     */
+    public static ByteSource inputStream(final InputStream is, final String name, final long maxHeapSize) {
+        if (maxHeapSize < 0) {
+            throw new IllegalArgumentException("Invalid maximum heap size: " + maxHeapSize);
+        }
+        return new InputStreamByteSource(is, name, Long.MAX_VALUE, maxHeapSize);
+    }
+
+    /**
+     * Creates a byte source that maps the given file into memory. Positional reads and input streams are served from the mapping without reopening the
+     * file, and {@link #slice(long, int)} returns views of the mapping instead of copies. Files larger than 2 GB are mapped in several regions.
+     * <p>
+     * Closing the byte source makes it unreadable, but the mapping is only released by the garbage collector, since Java cannot unmap a file explicitly.
+     * </p>
+     *
+     * @param file the file to map.
+     * @return a new byte source.
+     * @throws IOException if the file cannot be opened or mapped.
+     * @since 1.0.0-alpha6
+     */
+    public static ByteSource mapped(final Path file) throws IOException {
+        return new MappedByteSource(file);
     }
 
     public static ByteSource path(final Path file) {
@@ -74,6 +155,26 @@ public class ByteSource {
         this.fileName = fileName; // may be null
     }
 
+    /**
+     * Constructs a byte source that has no origin; subclasses using this constructor must override every read operation.
+     */
+    ByteSource(final String fileName) {
+        this.origin = null;
+        this.fileName = fileName; // may be null
+    }
+
+    /**
+     * Releases the resources held by this byte source, such as the temporary file of a stream byte source that keeps part of the stream on disk. Streams,
+     * channels and files supplied by the caller are not closed. Data read lazily from this byte source can no longer be read once it is closed.
+     *
+     * @throws IOException if the resources cannot be released.
+     * @since 1.0.0-alpha6
+     */
+    @Override
+    public void close() throws IOException {
+        // nothing to release
+    }
+
     public byte[] getByteArray(final long position, final int length) throws IOException {
         return origin.getByteArray(position, length);
     }
@@ -86,6 +187,30 @@ public class ByteSource {
         return origin.getInputStream();
     }
 
+    /**
+     * Tests whether this byte source only holds the header of a file, in which case image parsers stop reading before the pixel data.
+     *
+     * @return true for byte sources created by {@link #header(InputStream, String, int)}.
+     * @since 1.0.0-alpha6
+     */
+    public boolean isHeaderOnly() {
+        return false;
+    }
+
+    /**
+     * Gets a read-only buffer holding the given range of this byte source. Byte sources backed by memory, such as {@link #mapped(Path)}, return a view
+     * without copying; others return a buffer wrapping a copy of the range.
+     *
+     * @param position the start of the range.
+     * @param length   the length of the range.
+     * @return a read-only buffer positioned at zero whose limit is {@code length}.
+     * @throws IOException if it fails to read the byte source data
+     * @since 1.0.0-alpha6
+     */
+    public ByteBuffer slice(final long position, final int length) throws IOException {
+        return ByteBuffer.wrap(getByteArray(position, length)).asReadOnlyBuffer();
+    }
+
     /**
      * This operation can be VERY expensive; for InputStream byte sources, the entire stream must be drained to determine its length.
      *
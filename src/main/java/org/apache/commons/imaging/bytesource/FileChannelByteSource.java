@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.bytesource;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A byte source that reads from a shared {@link FileChannel} using positional reads only, so the channel's own position is never used and the file is
+ * never reopened. This works for files of any size.
+ */
+final class FileChannelByteSource extends ByteSource {
+
+    private final class ChannelInputStream extends InputStream {
+        private long position;
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) < 1 ? -1 : 0xff & single[0];
+        }
+
+        @Override
+        public int read(final byte[] array, final int off, final int len) throws IOException {
+            Objects.requireNonNull(array, "array");
+            if (off < 0 || len < 0 || off + len > array.length || off + len < 0) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            final int read = channel.read(ByteBuffer.wrap(array, off, len), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            final long skipped = Math.max(0, Math.min(n, channel.size() - position));
+            position += skipped;
+            return skipped;
+        }
+    }
+
+    private final FileChannel channel;
+
+    FileChannelByteSource(final FileChannel channel, final String fileName) {
+        super(fileName);
+        this.channel = Objects.requireNonNull(channel, "channel");
+    }
+
+    @Override
+    public byte[] getByteArray(final long position, final int length) throws IOException {
+        final long size = size();
+        // We include a separate check for long overflow.
+        if (position < 0 || length < 0 || position + length < 0 || position + length > size) {
+            throw new ImagingException("Could not read block (block start: " + position + ", block length: " + length + ", data length: " + size + ").");
+        }
+        final byte[] bytes = Allocator.byteArray(length);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long next = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, next);
+            if (read < 0) {
+                throw new ImagingException("Could not read block.");
+            }
+            next += read;
+        }
+        return bytes;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        // closing the returned stream leaves the shared channel open
+        return new BufferedInputStream(new ChannelInputStream(), IOUtils.DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+}
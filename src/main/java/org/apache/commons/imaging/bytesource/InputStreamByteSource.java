@@ -16,69 +16,42 @@
  */
 package org.apache.commons.imaging.bytesource;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.Allocator;
-import org.apache.commons.imaging.common.BinaryFunctions;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.build.AbstractOrigin.InputStreamOrigin;
 
+/**
+ * A byte source that caches what it reads from an input stream, so that the stream can be read again from any position.
+ * <p>
+ * The stream is read in blocks of a fixed size, kept in a table indexed by block number, so seeking to a position costs no more than reading the stream up
+ * to it once. The first blocks, up to the heap limit, are kept in memory; the rest are written to a temporary file, which is deleted when the byte source
+ * is closed.
+ * </p>
+ */
 final class InputStreamByteSource extends ByteSource {
 
-    private final class Block {
-
-        final byte[] bytes;
-        private Block next;
-        private boolean triedNext;
-
-        Block(final byte[] bytes) {
-            this.bytes = bytes;
-        }
-
-        Block getNext() throws IOException {
-            if (null != next) {
-                return next;
-            }
-            if (triedNext) {
-                return null;
-            }
-            triedNext = true;
-            next = readBlock();
-            return next;
-        }
-
-    }
-
     private final class BlockInputStream extends InputStream {
-        private Block block;
-        private boolean readFirst;
-        private int blockIndex;
+        private long position;
 
         @Override
         public int read() throws IOException {
-            if (null == block) {
-                if (readFirst) {
-                    return -1;
-                }
-                block = getFirstBlock();
-                readFirst = true;
-            }
-            if (block != null && blockIndex >= block.bytes.length) {
-                block = block.getNext();
-                blockIndex = 0;
-            }
-            if (null == block) {
-                return -1;
+            final int b = readAt(position);
+            if (b >= 0) {
+                position++;
             }
-            if (blockIndex >= block.bytes.length) {
-                return -1;
-            }
-            return 0xff & block.bytes[blockIndex++];
+            return b;
         }
 
         @Override
@@ -91,105 +64,83 @@ final class InputStreamByteSource extends ByteSource {
             if (len == 0) {
                 return 0;
             }
-            // optimized block read
-            if (null == block) {
-                if (readFirst) {
-                    return -1;
-                }
-                block = getFirstBlock();
-                readFirst = true;
-            }
-            if (block != null && blockIndex >= block.bytes.length) {
-                block = block.getNext();
-                blockIndex = 0;
-            }
-            if (null == block) {
-                return -1;
+            final int read = readAt(position, array, off, len);
+            if (read > 0) {
+                position += read;
             }
-            if (blockIndex >= block.bytes.length) {
-                return -1;
-            }
-            final int readSize = Math.min(len, block.bytes.length - blockIndex);
-            System.arraycopy(block.bytes, blockIndex, array, off, readSize);
-            blockIndex += readSize;
-            return readSize;
+            return read;
         }
 
         @Override
         public long skip(final long n) throws IOException {
-            long remaining = n;
             if (n <= 0) {
                 return 0;
             }
-            while (remaining > 0) {
-                // read the first block
-                if (null == block) {
-                    if (readFirst) {
-                        return -1;
-                    }
-                    block = getFirstBlock();
-                    readFirst = true;
-                }
-                // get next block
-                if (block != null && blockIndex >= block.bytes.length) {
-                    block = block.getNext();
-                    blockIndex = 0;
-                }
-                if (null == block) {
-                    break;
-                }
-                if (blockIndex >= block.bytes.length) {
-                    break;
-                }
-                final int readSize = Math.min((int) Math.min(BLOCK_SIZE, remaining), block.bytes.length - blockIndex);
-                blockIndex += readSize;
-                remaining -= readSize;
-            }
-            return n - remaining;
+            final long skipped = Math.max(0, Math.min(n, readAhead(position, n)));
+            position += skipped;
+            return skipped;
         }
 
     }
 
     private static final int BLOCK_SIZE = IOUtils.DEFAULT_BUFFER_SIZE;
     private final InputStream inputStream;
-    private Block headBlock;
-    private byte[] readBuffer;
-    private long streamLength = -1;
-
-    InputStreamByteSource(final InputStream inputStream, final String fileName) {
+    // the number of bytes that may still be read from the stream
+    private long remaining;
+    private final boolean headerOnly;
+    // blocks below this position are kept in memory, the others in the spill file
+    private final long heapLimit;
+    private final List<byte[]> heapBlocks = new ArrayList<>();
+    private FileChannel spillChannel;
+    // the last block read back from the spill file
+    private byte[] spillBlock;
+    private long spillBlockStart = -1;
+    // the number of bytes read from the stream so far
+    private long length;
+    private boolean endOfStream;
+
+    InputStreamByteSource(final InputStream inputStream, final String fileName, final long readLimit, final long maxHeapSize) {
         super(new InputStreamOrigin(inputStream), fileName);
-        this.inputStream = new BufferedInputStream(inputStream);
+        this.inputStream = inputStream;
+        this.remaining = readLimit;
+        this.headerOnly = readLimit != Long.MAX_VALUE;
+        this.heapLimit = maxHeapSize / BLOCK_SIZE * BLOCK_SIZE;
+    }
+
+    /**
+     * Reads the stream up to the given position, if it is that long.
+     *
+     * @param position the position.
+     * @param n        the number of bytes wanted from the position.
+     * @return the number of bytes available from the position, at most n.
+     */
+    private synchronized long readAhead(final long position, final long n) throws IOException {
+        final long end = position + n < 0 ? Long.MAX_VALUE : position + n;
+        while (length < end && !endOfStream) {
+            readBlock();
+        }
+        return Math.min(n, length - position);
     }
 
-    @SuppressWarnings("resource") // accesses input stream more than once, don't close here.
     @Override
     public byte[] getByteArray(final long position, final int length) throws IOException {
         // We include a separate check for int overflow.
-        if (position < 0 || length < 0 || position + length < 0 || position + length > size()) {
+        // a range past the read limit of a header-only source fails without reading up to the limit
+        if (position < 0 || length < 0 || position + length < 0 || headerOnly && position + length > this.length + remaining
+                || readAhead(position, length) < length) {
             throw new ImagingException(
-                    "Could not read block (block start: " + position + ", block length: " + length + ", data length: " + streamLength + ").");
+                    "Could not read block (block start: " + position + ", block length: " + length + ", data length: " + this.length + ").");
         }
-        final InputStream cis = getInputStream();
-        BinaryFunctions.skipBytes(cis, position);
         final byte[] bytes = Allocator.byteArray(length);
         int total = 0;
-        while (true) {
-            final int read = cis.read(bytes, total, bytes.length - total);
+        while (total < length) {
+            final int read = readAt(position + total, bytes, total, length - total);
             if (read < 1) {
                 throw new ImagingException("Could not read block.");
             }
             total += read;
-            if (total >= length) {
-                return bytes;
-            }
-        }
-    }
-
-    private Block getFirstBlock() throws IOException {
-        if (null == headBlock) {
-            headBlock = readBlock();
         }
-        return headBlock;
+        return bytes;
     }
 
     @Override
@@ -197,33 +148,100 @@ final class InputStreamByteSource extends ByteSource {
         return new BlockInputStream();
     }
 
-    private Block readBlock() throws IOException {
-        if (null == readBuffer) {
-            readBuffer = new byte[BLOCK_SIZE];
+    @Override
+    public boolean isHeaderOnly() {
+        return headerOnly;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        spillBlock = null;
+        spillBlockStart = -1;
+        if (null != spillChannel) {
+            spillChannel.close();
         }
+    }
 
-        final int read = inputStream.read(readBuffer);
-        if (read < 1) {
-            return null;
+    /**
+     * Gets the block that starts at the given position, which must have been read from the stream already.
+     */
+    private byte[] getBlock(final long blockStart) throws IOException {
+        if (blockStart < heapLimit) {
+            return heapBlocks.get((int) (blockStart / BLOCK_SIZE));
+        }
+        if (spillBlockStart != blockStart) {
+            if (null == spillBlock) {
+                spillBlock = new byte[BLOCK_SIZE];
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(spillBlock, 0, (int) Math.min(BLOCK_SIZE, length - blockStart));
+            while (buffer.hasRemaining()) {
+                if (spillChannel.read(buffer, blockStart - heapLimit + buffer.position()) < 0) {
+                    throw new ImagingException("Could not read block.");
+                }
+            }
+            spillBlockStart = blockStart;
+        }
+        return spillBlock;
+    }
+
+    private synchronized int readAt(final long position) throws IOException {
+        if (position >= length && readAhead(position, 1) < 1) {
+            return -1;
+        }
+        final long blockStart = position / BLOCK_SIZE * BLOCK_SIZE;
+        return 0xff & getBlock(blockStart)[(int) (position - blockStart)];
+    }
+
+    /**
+     * Reads bytes of the stream from the given position, within a single block.
+     *
+     * @return the number of bytes read, or -1 at the end of the stream.
+     */
+    private synchronized int readAt(final long position, final byte[] array, final int off, final int len) throws IOException {
+        final long blockStart = position / BLOCK_SIZE * BLOCK_SIZE;
+        final int blockOffset = (int) (position - blockStart);
+        final int count = (int) readAhead(position, Math.min(len, BLOCK_SIZE - blockOffset));
+        if (count <= 0) {
+            return -1;
+        }
+        System.arraycopy(getBlock(blockStart), blockOffset, array, off, count);
+        return count;
+    }
+
+    private void readBlock() throws IOException {
+        if (remaining <= 0) {
+            endOfStream = true;
+            return;
         }
+        final byte[] block = new byte[BLOCK_SIZE];
+        // blocks are filled completely, so that a position maps directly to its block
+        final int read = IOUtils.read(inputStream, block, 0, (int) Math.min(BLOCK_SIZE, remaining));
         if (read < BLOCK_SIZE) {
-            // return a copy.
-            return new Block(Arrays.copyOf(readBuffer, read));
+            endOfStream = true;
+        }
+        if (read < 1) {
+            return;
         }
-        // return current buffer.
-        final byte[] result = readBuffer;
-        readBuffer = null;
-        return new Block(result);
+        remaining -= read;
+        if (length < heapLimit) {
+            heapBlocks.add(read < BLOCK_SIZE ? Arrays.copyOf(block, read) : block);
+        } else {
+            if (null == spillChannel) {
+                spillChannel = FileChannel.open(Files.createTempFile("commons-imaging-", ".tmp"), StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(block, 0, read);
+            while (buffer.hasRemaining()) {
+                spillChannel.write(buffer, length - heapLimit + buffer.position());
+            }
+        }
+        length += read;
     }
 
     @Override
     public long size() throws IOException {
-        if (streamLength >= 0) {
-            return streamLength;
-        }
-        try (InputStream cis = getInputStream()) {
-            return streamLength = IOUtils.consume(cis);
-        }
+        readAhead(0, Long.MAX_VALUE);
+        return length;
     }
 
 }
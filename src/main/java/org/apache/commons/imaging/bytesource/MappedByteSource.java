@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.bytesource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
+
+/**
+ * A byte source over a memory-mapped file. The file is mapped in regions of at most {@link #REGION_SIZE} bytes so that files larger than 2 GB can be
+ * served; the channel is closed as soon as the regions are mapped.
+ * <p>
+ * Closing the byte source drops its references to the regions, after which it can no longer be read. Java offers no way to unmap a file explicitly, so
+ * the mapping itself is released by the garbage collector once neither the byte source nor any slice of it is reachable.
+ * </p>
+ */
+final class MappedByteSource extends ByteSource {
+
+    private final class MappedInputStream extends InputStream {
+        private long position;
+        private long mark;
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, size - position);
+        }
+
+        @Override
+        public synchronized void mark(final int readLimit) {
+            mark = position;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position >= size) {
+                return -1;
+            }
+            return 0xff & getRegion(position).get((int) (position++ & REGION_MASK));
+        }
+
+        @Override
+        public int read(final byte[] array, final int off, final int len) throws IOException {
+            Objects.requireNonNull(array, "array");
+            if (off < 0 || len < 0 || off + len > array.length || off + len < 0) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= size) {
+                return -1;
+            }
+            final int count = (int) Math.min(len, size - position);
+            copy(position, array, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public synchronized void reset() {
+            position = mark;
+        }
+
+        @Override
+        public long skip(final long n) {
+            if (n <= 0) {
+                return 0;
+            }
+            final long skipped = Math.min(n, size - position);
+            position += skipped;
+            return skipped;
+        }
+    }
+
+    private static final int REGION_SHIFT = 30;
+    static final int REGION_SIZE = 1 << REGION_SHIFT;
+    private static final long REGION_MASK = REGION_SIZE - 1;
+
+    // null once closed
+    private volatile MappedByteBuffer[] regions;
+    private final long size;
+
+    MappedByteSource(final Path file) throws IOException {
+        super(Objects.toString(file.getFileName(), null));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            final int regionCount = (int) ((size + REGION_MASK) >>> REGION_SHIFT);
+            final MappedByteBuffer[] mapped = new MappedByteBuffer[regionCount];
+            for (int i = 0; i < regionCount; i++) {
+                final long start = (long) i << REGION_SHIFT;
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, size - start));
+            }
+            regions = mapped;
+        }
+    }
+
+    private void checkRange(final long position, final int length) throws ImagingException {
+        // We include a separate check for long overflow.
+        if (position < 0 || length < 0 || position + length < 0 || position + length > size) {
+            throw new ImagingException("Could not read block (block start: " + position + ", block length: " + length + ", data length: " + size + ").");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        regions = null;
+    }
+
+    private void copy(final long position, final byte[] array, final int off, final int len) throws IOException {
+        long src = position;
+        int dst = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final ByteBuffer region = getRegion(src).duplicate();
+            final int regionOffset = (int) (src & REGION_MASK);
+            final int count = Math.min(remaining, region.capacity() - regionOffset);
+            ((Buffer) region).position(regionOffset);
+            region.get(array, dst, count);
+            src += count;
+            dst += count;
+            remaining -= count;
+        }
+    }
+
+    @Override
+    public byte[] getByteArray(final long position, final int length) throws IOException {
+        checkRange(position, length);
+        final byte[] bytes = Allocator.byteArray(length);
+        copy(position, bytes, 0, length);
+        return bytes;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new MappedInputStream();
+    }
+
+    private MappedByteBuffer getRegion(final long position) throws IOException {
+        final MappedByteBuffer[] mapped = regions;
+        if (mapped == null) {
+            throw new ImagingException("Byte source is closed.");
+        }
+        return mapped[(int) (position >>> REGION_SHIFT)];
+    }
+
+    @Override
+    public long size() throws IOException {
+        return size;
+    }
+
+    @Override
+    public ByteBuffer slice(final long position, final int length) throws IOException {
+        checkRange(position, length);
+        final int regionOffset = (int) (position & REGION_MASK);
+        if (length > 0 && regionOffset + length > REGION_SIZE) {
+            // the range spans two regions, so it cannot be a view
+            return super.slice(position, length);
+        }
+        if (length == 0) {
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+        final ByteBuffer region = getRegion(position).duplicate();
+        ((Buffer) region).position(regionOffset);
+        ((Buffer) region).limit(regionOffset + length);
+        return region.slice().asReadOnlyBuffer();
+    }
+
+}
@@ -252,7 +252,7 @@ public final class BinaryFunctions {
         try {
             return IOUtils.toByteArray(is, Allocator.check(length));
         } catch (final IOException e) {
-            throw new IOException(exception + ", name: " + name + ", length: " + length);
+            throw new IOException(exception + ", name: " + name + ", length: " + length, e);
         }
     }
 
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.common;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.commons.imaging.ImagingException;
+
+/**
+ * Helpers for parsers that decode or encode parts of an image on a caller-supplied executor.
+ *
+ * @since 1.0.0-alpha6
+ */
+public final class ParallelTasks {
+
+    /**
+     * The maximum number of tasks submitted ahead of the one being consumed, which bounds the memory held by results that are waiting to be consumed.
+     */
+    public static final int MAX_PENDING = 64;
+
+    /**
+     * Waits for a task and gets its result. An {@link IOException}, runtime exception or error thrown by the task is rethrown as is.
+     *
+     * @param <T>    the type of the result.
+     * @param future the task.
+     * @param action what the task does, such as "decoding TIFF image data", for the messages of the exceptions.
+     * @return the result of the task.
+     * @throws ImagingException if the thread is interrupted, or the task throws another checked exception.
+     * @throws IOException      if the task throws one.
+     */
+    public static <T> T await(final Future<T> future, final String action) throws ImagingException, IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImagingException("Interrupted while " + action, e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ImagingException("Failed while " + action, cause);
+        }
+    }
+
+    private ParallelTasks() {
+    }
+}
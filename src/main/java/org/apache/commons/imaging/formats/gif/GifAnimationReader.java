@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.gif;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
+
+/**
+ * Reads the frames of an animated GIF one at a time, rendered as they are displayed.
+ * <p>
+ * Each frame is drawn at its offset onto a canvas the size of the logical screen, after the previous frame was disposed of according to its disposal
+ * method: {@link DisposalMethod#RESTORE_TO_BACKGROUND} clears its area to transparent, as browsers do, {@link DisposalMethod#RESTORE_TO_PREVIOUS}
+ * restores its area to what it was before the frame was drawn, and the other methods leave it in place. Transparent pixels of a frame let the canvas
+ * show through.
+ * </p>
+ * <p>
+ * Frames are read from the file as they are requested, and the same canvas image is returned for every frame, so that the memory used does not grow
+ * with the number of frames. Callers that keep a frame must copy it before reading the next one.
+ * </p>
+ *
+ * <pre>{@code
+ * try (GifAnimationReader reader = new GifImageParser().getAnimationReader(ByteSource.file(file))) {
+ *     BufferedImage frame;
+ *     while ((frame = reader.readNextFrame()) != null) {
+ *         display(frame, reader.getFrameMetadata().getDelay());
+ *     }
+ * }
+ * }</pre>
+ *
+ * @see GifImageParser#getAnimationReader(org.apache.commons.imaging.bytesource.ByteSource)
+ * @since 1.0.0-alpha6
+ */
+public final class GifAnimationReader implements Closeable {
+
+    private final GifImageParser parser;
+    private final InputStream is;
+    private final GifHeaderInfo gifHeaderInfo;
+    private final int[] globalColorTable;
+    private final int width;
+    private final int height;
+    private final BufferedImage canvas;
+    private final int[] pixels;
+    private boolean finished;
+    private int frameCount;
+    private GifImageMetadataItem frameMetadata;
+    // the area of the previous frame, clipped to the canvas, and how to dispose of it
+    private int disposeX;
+    private int disposeY;
+    private int disposeWidth;
+    private int disposeHeight;
+    private DisposalMethod disposalMethod;
+    // RESTORE_TO_PREVIOUS only: the area of the canvas under the previous frame, before it was drawn
+    private int[] savedPixels;
+
+    GifAnimationReader(final GifImageParser parser, final InputStream is) throws ImagingException, IOException {
+        this.parser = parser;
+        this.is = is;
+        gifHeaderInfo = parser.readHeader(is, null);
+        if (gifHeaderInfo.globalColorTableFlag) {
+            globalColorTable = parser.getColorTable(parser.readColorTable(is, gifHeaderInfo.sizeOfGlobalColorTable));
+        } else {
+            globalColorTable = null;
+        }
+        width = gifHeaderInfo.logicalScreenWidth;
+        height = gifHeaderInfo.logicalScreenHeight;
+        Allocator.check((long) width * height, 4);
+        canvas = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_ARGB);
+        pixels = ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+    }
+
+    @Override
+    public void close() throws IOException {
+        is.close();
+    }
+
+    private void dispose() {
+        if (disposalMethod == DisposalMethod.RESTORE_TO_BACKGROUND) {
+            for (int y = disposeY; y < disposeY + disposeHeight; y++) {
+                Arrays.fill(pixels, y * width + disposeX, y * width + disposeX + disposeWidth, 0);
+            }
+        } else if (disposalMethod == DisposalMethod.RESTORE_TO_PREVIOUS) {
+            for (int y = 0; y < disposeHeight; y++) {
+                System.arraycopy(savedPixels, y * disposeWidth, pixels, (disposeY + y) * width + disposeX, disposeWidth);
+            }
+        }
+        disposalMethod = null;
+    }
+
+    private void draw(final ImageDescriptor id, final GraphicControlExtension gce) throws ImagingException {
+        final int[] colorTable;
+        if (id.localColorTable != null) {
+            colorTable = parser.getColorTable(id.localColorTable);
+        } else if (globalColorTable != null) {
+            colorTable = globalColorTable;
+        } else {
+            throw new ImagingException("Gif: No Color Table");
+        }
+        final int transparentIndex = gce != null && gce.transparency ? gce.transparentColorIndex : -1;
+        final int frameWidth = id.imageWidth;
+        final int frameHeight = id.imageHeight;
+        if (id.imageData.length < frameWidth * frameHeight) {
+            throw new ImagingException(String.format("Invalid GIF image data length [%d], smaller than the image size [%d]", id.imageData.length,
+                    frameWidth * frameHeight));
+        }
+
+        int counter = 0;
+        for (int row = 0; row < frameHeight; row++) {
+            final int y = id.imageTopPosition + (id.interlaceFlag ? parser.getInterlacedRow(row, frameHeight) : row);
+            for (int x = id.imageLeftPosition; x < id.imageLeftPosition + frameWidth; x++) {
+                final int index = 0xff & id.imageData[counter++];
+                if (index >= colorTable.length) {
+                    throw new ImagingException(
+                            String.format("Invalid GIF color table index [%d], greater than the color table length [%d]", index, colorTable.length));
+                }
+                if (index != transparentIndex && x < width && y < height) {
+                    pixels[y * width + x] = colorTable[index];
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of frames read so far.
+     *
+     * @return the number of frames.
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Gets the delay, offset and disposal method of the last frame read.
+     *
+     * @return the metadata of the frame, or null before the first frame.
+     */
+    public GifImageMetadataItem getFrameMetadata() {
+        return frameMetadata;
+    }
+
+    /**
+     * Gets the height of the frames, the height of the logical screen.
+     *
+     * @return the height.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the width of the frames, the width of the logical screen.
+     *
+     * @return the width.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Reads the next frame and renders it onto the canvas.
+     *
+     * @return the canvas with the frame rendered, the same image for every frame; or null after the last frame.
+     * @throws ImagingException if the file is not a valid GIF.
+     * @throws IOException      if an I/O error occurs.
+     */
+    public BufferedImage readNextFrame() throws ImagingException, IOException {
+        if (finished) {
+            return null;
+        }
+        GraphicControlExtension gce = null;
+        GifBlock block;
+        while ((block = parser.readBlock(gifHeaderInfo, is, false, null)) != null) {
+            if (block instanceof GraphicControlExtension) {
+                gce = (GraphicControlExtension) block;
+            } else if (block instanceof ImageDescriptor) {
+                final ImageDescriptor id = (ImageDescriptor) block;
+                dispose();
+
+                final DisposalMethod frameDisposalMethod = gce == null ? DisposalMethod.UNSPECIFIED : GifImageParser.createDisposalMethodFromIntValue(gce.dispose);
+                disposeX = Math.min(id.imageLeftPosition, width);
+                disposeY = Math.min(id.imageTopPosition, height);
+                disposeWidth = Math.min(id.imageLeftPosition + id.imageWidth, width) - disposeX;
+                disposeHeight = Math.min(id.imageTopPosition + id.imageHeight, height) - disposeY;
+                if (frameDisposalMethod == DisposalMethod.RESTORE_TO_PREVIOUS) {
+                    if (savedPixels == null || savedPixels.length < disposeWidth * disposeHeight) {
+                        savedPixels = Allocator.intArray(disposeWidth * disposeHeight);
+                    }
+                    for (int y = 0; y < disposeHeight; y++) {
+                        System.arraycopy(pixels, (disposeY + y) * width + disposeX, savedPixels, y * disposeWidth, disposeWidth);
+                    }
+                }
+
+                draw(id, gce);
+                disposalMethod = frameDisposalMethod;
+                frameMetadata = new GifImageMetadataItem(gce == null ? 0 : gce.delay, id.imageLeftPosition, id.imageTopPosition, frameDisposalMethod);
+                frameCount++;
+                return canvas;
+            }
+        }
+        finished = true;
+        return null;
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.gif;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
+import org.apache.commons.imaging.common.BinaryOutputStream;
+import org.apache.commons.imaging.mylzw.MyLzwCompressor;
+import org.apache.commons.imaging.palette.Palette;
+import org.apache.commons.imaging.palette.PaletteFactory;
+
+/**
+ * Writes the frames of an animated GIF, each one reduced to what changed since the previous one.
+ * <p>
+ * A frame is cropped to the bounding box of the pixels that differ from the canvas it is drawn onto, and the pixels inside the box that did not change
+ * are written with the transparent color index, which leaves longer runs for the LZW compressor. Frames that do not change anything are merged into
+ * the previous frame by adding up their delays. When a frame makes pixels transparent that the previous one left opaque, the previous frame is
+ * disposed of with {@link DisposalMethod#RESTORE_TO_BACKGROUND}, after its area was grown to cover those pixels. Frames are written one behind, once
+ * the next frame tells how they must be disposed of.
+ * </p>
+ * <p>
+ * When all the frames use at most 255 colors, they share a global color table; otherwise each frame has a local color table, exact when the pixels
+ * it changes use at most 255 colors and quantized if not. The last index of every table is the transparent color.
+ * </p>
+ */
+final class GifAnimationWriter {
+
+    // one palette entry is kept for the transparent color
+    private static final int MAX_COLORS = 255;
+
+    /**
+     * Collects the colors of all the frames.
+     *
+     * @return the sorted colors, or null if there are more than {@link #MAX_COLORS}.
+     */
+    private static int[] makeGlobalColors(final List<BufferedImage> frames, final int width, final int height) {
+        final Set<Integer> rgbs = new HashSet<>();
+        final int[] row = Allocator.intArray(width);
+        for (final BufferedImage frame : frames) {
+            for (int y = 0; y < height; y++) {
+                frame.getRGB(0, y, width, 1, row, 0, width);
+                for (final int argb : row) {
+                    if (argb >>> 24 == 0xff && rgbs.add(0xffffff & argb) && rgbs.size() > MAX_COLORS) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return toSortedArray(rgbs);
+    }
+
+    private static int tableSizeBits(final int paletteSize) {
+        int bits = 1;
+        while (1 << bits < paletteSize) {
+            bits++;
+        }
+        return bits;
+    }
+
+    private static int[] toSortedArray(final Set<Integer> rgbs) {
+        final int[] result = Allocator.intArray(rgbs.size());
+        int next = 0;
+        for (final int rgb : rgbs) {
+            result[next++] = rgb;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private final GifImageParser parser;
+    private final BinaryOutputStream bos;
+    private final int width;
+    private final int height;
+    // the colors of the global color table, sorted; null when the frames have local color tables
+    private int[] globalColors;
+    // the frame waiting to be written: its pixels as displayed, the canvas it is drawn onto, its area (right and bottom exclusive) and delay
+    private int[] pendingPixels;
+    private int[] pendingBase;
+    private int pendingLeft;
+    private int pendingTop;
+    private int pendingRight;
+    private int pendingBottom;
+    private int pendingDelay;
+
+    GifAnimationWriter(final GifImageParser parser, final BinaryOutputStream bos, final int width, final int height) {
+        this.parser = parser;
+        this.bos = bos;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Writes a frame, drawn onto the canvas it was compared with.
+     */
+    private void flush(final DisposalMethod disposalMethod) throws ImagingException, IOException {
+        final int frameWidth = pendingRight - pendingLeft;
+        final int frameHeight = pendingBottom - pendingTop;
+        final int[] rgbs = Allocator.intArray(frameWidth * frameHeight);
+        int changedCount = 0;
+        for (int y = pendingTop; y < pendingBottom; y++) {
+            for (int x = pendingLeft; x < pendingRight; x++) {
+                final int i = y * width + x;
+                if (pendingPixels[i] != pendingBase[i]) {
+                    // an opaque color; pixels that turn transparent were cleared from the base by disposing of the previous frame
+                    rgbs[changedCount++] = 0xffffff & pendingPixels[i];
+                }
+            }
+        }
+
+        int[] colors = globalColors;
+        Palette quantized = null;
+        if (colors == null) {
+            final Set<Integer> distinct = new HashSet<>();
+            for (int i = 0; i < changedCount && distinct.size() <= MAX_COLORS; i++) {
+                distinct.add(rgbs[i]);
+            }
+            if (distinct.size() <= MAX_COLORS) {
+                colors = toSortedArray(distinct);
+            } else {
+                final BufferedImage changed = new BufferedImage(changedCount, 1, BufferedImage.TYPE_INT_RGB);
+                changed.setRGB(0, 0, changedCount, 1, rgbs, 0, changedCount);
+                quantized = new PaletteFactory().makeQuantizedRgbPalette(changed, MAX_COLORS);
+            }
+        }
+        final int paletteLength = quantized != null ? quantized.length() : colors.length;
+        final int transparentIndex = paletteLength;
+        final int sizeBits = tableSizeBits(paletteLength + 1);
+
+        final byte[] imageData = Allocator.byteArray(frameWidth * frameHeight);
+        boolean transparency = false;
+        int next = 0;
+        for (int y = pendingTop; y < pendingBottom; y++) {
+            for (int x = pendingLeft; x < pendingRight; x++) {
+                final int i = y * width + x;
+                final int index;
+                if (pendingPixels[i] == pendingBase[i]) {
+                    index = transparentIndex;
+                    transparency = true;
+                } else if (quantized != null) {
+                    index = quantized.getPaletteIndex(0xffffff & pendingPixels[i]);
+                } else {
+                    index = Arrays.binarySearch(colors, 0xffffff & pendingPixels[i]);
+                }
+                imageData[next++] = (byte) index;
+            }
+        }
+
+        // Graphic Control Extension
+        bos.write(GifImageParser.EXTENSION_CODE);
+        bos.write(0xf9);
+        bos.write(4); // block size
+        bos.write(disposalMethod.ordinal() << 2 | (transparency ? 1 : 0)); // the ordinal of a disposal method is its value
+        bos.write2Bytes(pendingDelay);
+        bos.write(transparency ? transparentIndex : 0);
+        bos.write(0); // terminator
+
+        // Image Descriptor
+        bos.write(GifImageParser.IMAGE_SEPARATOR);
+        bos.write2Bytes(pendingLeft);
+        bos.write2Bytes(pendingTop);
+        bos.write2Bytes(frameWidth);
+        bos.write2Bytes(frameHeight);
+        if (globalColors != null) {
+            bos.write(0);
+        } else {
+            bos.write(GifImageParser.LOCAL_COLOR_TABLE_FLAG_MASK | sizeBits - 1);
+            final int[] table = Allocator.intArray(1 << sizeBits);
+            for (int i = 0; i < paletteLength; i++) {
+                table[i] = quantized != null ? quantized.getEntry(i) : colors[i];
+            }
+            writeColorTable(table);
+        }
+
+        final int lzwMinimumCodeSize = Math.max(2, sizeBits);
+        bos.write(lzwMinimumCodeSize);
+        final MyLzwCompressor compressor = new MyLzwCompressor(lzwMinimumCodeSize, ByteOrder.LITTLE_ENDIAN, false);
+        parser.writeAsSubBlocks(bos, compressor.compress(imageData));
+    }
+
+    private int[] readPixels(final BufferedImage frame) {
+        final int[] pixels = Allocator.intArray(width * height);
+        frame.getRGB(0, 0, width, height, pixels, 0, width);
+        for (int i = 0; i < pixels.length; i++) {
+            // as in writeImage, only fully opaque pixels are kept
+            pixels[i] = pixels[i] >>> 24 == 0xff ? pixels[i] : 0;
+        }
+        return pixels;
+    }
+
+    /**
+     * Compares a frame with the canvas it is drawn onto and holds it back as the pending frame.
+     */
+    private void setPending(final int[] pixels, final int[] base, final int delay) {
+        int left = width;
+        int top = height;
+        int right = 0;
+        int bottom = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (pixels[y * width + x] != base[y * width + x]) {
+                    left = Math.min(left, x);
+                    top = Math.min(top, y);
+                    right = Math.max(right, x + 1);
+                    bottom = Math.max(bottom, y + 1);
+                }
+            }
+        }
+        pendingPixels = pixels;
+        pendingBase = base;
+        pendingDelay = delay;
+        if (right == 0) {
+            // an empty image is not allowed, so one transparent pixel is written instead
+            pendingLeft = 0;
+            pendingTop = 0;
+            pendingRight = 1;
+            pendingBottom = 1;
+            return;
+        }
+        pendingLeft = left;
+        pendingTop = top;
+        pendingRight = right;
+        pendingBottom = bottom;
+    }
+
+    /**
+     * Writes the whole file.
+     *
+     * @param frames    the frames, all the size of the logical screen.
+     * @param delays    the delay of each frame, in hundredths of a second, or null for none.
+     * @param loopCount the number of times the animation is repeated, 0 for ever, or -1 to play it once without a loop extension.
+     * @param xmpXml    the XMP XML to embed, or null.
+     */
+    void write(final List<BufferedImage> frames, final int[] delays, final int loopCount, final String xmpXml) throws ImagingException, IOException {
+        globalColors = makeGlobalColors(frames, width, height);
+
+        // Header
+        bos.write(new byte[] { 0x47, 0x49, 0x46, 0x38, 0x39, 0x61 }); // GIF89a
+
+        // Logical Screen Descriptor
+        bos.write2Bytes(width);
+        bos.write2Bytes(height);
+        if (globalColors != null) {
+            final int sizeBits = tableSizeBits(globalColors.length + 1);
+            bos.write(0x80 | (sizeBits - 1) << 4 | sizeBits - 1); // global color table flag, color resolution and size
+            bos.write(0); // background color index
+            bos.write(0); // pixel aspect ratio
+            writeColorTable(Arrays.copyOf(globalColors, 1 << sizeBits));
+        } else {
+            bos.write(7 << 4); // color resolution
+            bos.write(0); // background color index
+            bos.write(0); // pixel aspect ratio
+        }
+
+        if (loopCount >= 0) {
+            // NETSCAPE2.0 Application Extension
+            bos.write(GifImageParser.EXTENSION_CODE);
+            bos.write(GifImageParser.APPLICATION_EXTENSION_LABEL);
+            final byte[] applicationId = "NETSCAPE2.0".getBytes(StandardCharsets.US_ASCII);
+            bos.write(applicationId.length);
+            bos.write(applicationId);
+            bos.write(3); // sub-block size
+            bos.write(1); // loop sub-block
+            bos.write2Bytes(loopCount);
+            bos.write(0); // terminator
+        }
+
+        if (xmpXml != null) {
+            parser.writeXmpExtension(bos, xmpXml);
+        }
+
+        for (int f = 0; f < frames.size(); f++) {
+            final int delay = delays == null ? 0 : delays[f];
+            final int[] pixels = readPixels(frames.get(f));
+            if (pendingPixels == null) {
+                // the first frame is drawn onto a transparent canvas
+                setPending(pixels, new int[pixels.length], delay);
+                continue;
+            }
+
+            // pixels the frame makes transparent can only be cleared by disposing of the previous frame
+            int left = pendingLeft;
+            int top = pendingTop;
+            int right = pendingRight;
+            int bottom = pendingBottom;
+            boolean clears = false;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (pixels[y * width + x] == 0 && pendingPixels[y * width + x] != 0) {
+                        clears = true;
+                        left = Math.min(left, x);
+                        top = Math.min(top, y);
+                        right = Math.max(right, x + 1);
+                        bottom = Math.max(bottom, y + 1);
+                    }
+                }
+            }
+
+            if (clears) {
+                pendingLeft = left;
+                pendingTop = top;
+                pendingRight = right;
+                pendingBottom = bottom;
+                final int[] base = pendingPixels.clone();
+                for (int y = top; y < bottom; y++) {
+                    Arrays.fill(base, y * width + left, y * width + right, 0);
+                }
+                flush(DisposalMethod.RESTORE_TO_BACKGROUND);
+                setPending(pixels, base, delay);
+            } else if (Arrays.equals(pixels, pendingPixels)) {
+                pendingDelay = Math.min(0xffff, pendingDelay + delay);
+            } else {
+                flush(DisposalMethod.DO_NOT_DISPOSE);
+                setPending(pixels, pendingPixels, delay);
+            }
+        }
+        if (pendingPixels != null) {
+            flush(DisposalMethod.DO_NOT_DISPOSE);
+        }
+
+        bos.write(GifImageParser.TERMINATOR_BYTE);
+    }
+
+    private void writeColorTable(final int[] table) throws IOException {
+        for (final int rgb : table) {
+            bos.write(0xff & rgb >> 16);
+            bos.write(0xff & rgb >> 8);
+            bos.write(0xff & rgb);
+        }
+    }
+}
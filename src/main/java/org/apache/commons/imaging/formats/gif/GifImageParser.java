@@ -46,6 +46,7 @@ import org.apache.commons.imaging.common.XmpEmbeddable;
 import org.apache.commons.imaging.common.XmpImagingParameters;
 import org.apache.commons.imaging.mylzw.MyLzwCompressor;
 import org.apache.commons.imaging.mylzw.MyLzwDecompressor;
+import org.apache.commons.imaging.palette.Ditherer;
 import org.apache.commons.imaging.palette.Palette;
 import org.apache.commons.imaging.palette.PaletteFactory;
 
@@ -56,16 +57,16 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
     private static final String DEFAULT_EXTENSION = ImageFormats.GIF.getDefaultExtension();
     private static final String[] ACCEPTED_EXTENSIONS = ImageFormats.GIF.getExtensions();
     private static final byte[] GIF_HEADER_SIGNATURE = { 71, 73, 70 };
-    private static final int EXTENSION_CODE = 0x21;
-    private static final int IMAGE_SEPARATOR = 0x2C;
+    static final int EXTENSION_CODE = 0x21;
+    static final int IMAGE_SEPARATOR = 0x2C;
     private static final int GRAPHIC_CONTROL_EXTENSION = EXTENSION_CODE << 8 | 0xf9;
     private static final int COMMENT_EXTENSION = 0xfe;
     private static final int PLAIN_TEXT_EXTENSION = 0x01;
     private static final int XMP_EXTENSION = 0xff;
-    private static final int TERMINATOR_BYTE = 0x3b;
-    private static final int APPLICATION_EXTENSION_LABEL = 0xff;
+    static final int TERMINATOR_BYTE = 0x3b;
+    static final int APPLICATION_EXTENSION_LABEL = 0xff;
     private static final int XMP_COMPLETE_CODE = EXTENSION_CODE << 8 | XMP_EXTENSION;
-    private static final int LOCAL_COLOR_TABLE_FLAG_MASK = 1 << 7;
+    static final int LOCAL_COLOR_TABLE_FLAG_MASK = 1 << 7;
     private static final int INTERLACE_FLAG_MASK = 1 << 6;
     private static final int SORT_FLAG_MASK = 1 << 5;
     private static final byte[] XMP_APPLICATION_ID_AND_AUTH_CODE = { 0x58, // X
@@ -212,6 +213,27 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         };
     }
 
+    /**
+     * Opens a reader of the frames of an animated GIF, rendered one at a time onto a canvas the size of the logical screen as they are displayed. Unlike
+     * {@link #getAllBufferedImages(ByteSource)}, which returns the area of each frame as it is stored, the reader applies the offsets and disposal methods
+     * of the frames, and reads them as they are requested.
+     *
+     * @param byteSource the GIF file.
+     * @return the reader, which must be closed.
+     * @throws ImagingException if the header of the file is not valid.
+     * @throws IOException      if an I/O error occurs.
+     * @since 1.0.0-alpha6
+     */
+    public GifAnimationReader getAnimationReader(final ByteSource byteSource) throws ImagingException, IOException {
+        final InputStream is = byteSource.getInputStream();
+        try {
+            return new GifAnimationReader(this, is);
+        } catch (final IOException | RuntimeException e) {
+            is.close();
+            throw e;
+        }
+    }
+
     @Override
     public List<BufferedImage> getAllBufferedImages(final ByteSource byteSource) throws ImagingException, IOException {
         final GifImageContents imageContents = readFile(byteSource, false);
@@ -274,37 +296,8 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
 
         int counter = 0;
 
-        final int rowsInPass1 = (height + 7) / 8;
-        final int rowsInPass2 = (height + 3) / 8;
-        final int rowsInPass3 = (height + 1) / 4;
-        final int rowsInPass4 = height / 2;
-
         for (int row = 0; row < height; row++) {
-            final int y;
-            if (id.interlaceFlag) {
-                int theRow = row;
-                if (theRow < rowsInPass1) {
-                    y = theRow * 8;
-                } else {
-                    theRow -= rowsInPass1;
-                    if (theRow < rowsInPass2) {
-                        y = 4 + theRow * 8;
-                    } else {
-                        theRow -= rowsInPass2;
-                        if (theRow < rowsInPass3) {
-                            y = 2 + theRow * 4;
-                        } else {
-                            theRow -= rowsInPass3;
-                            if (theRow >= rowsInPass4) {
-                                throw new ImagingException("Gif: Strange Row");
-                            }
-                            y = 1 + theRow * 2;
-                        }
-                    }
-                }
-            } else {
-                y = row;
-            }
+            final int y = id.interlaceFlag ? getInterlacedRow(row, height) : row;
 
             for (int x = 0; x < width; x++) {
                 if (counter >= id.imageData.length) {
@@ -328,7 +321,36 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         return imageBuilder.getBufferedImage();
     }
 
-    private int[] getColorTable(final byte[] bytes) throws ImagingException {
+    /**
+     * Gets the row of the image stored at a position of an interlaced image, whose rows are stored every 8 rows from row 0, then every 8 rows from row 4,
+     * every 4 rows from row 2 and every 2 rows from row 1.
+     */
+    int getInterlacedRow(final int row, final int height) throws ImagingException {
+        final int rowsInPass1 = (height + 7) / 8;
+        final int rowsInPass2 = (height + 3) / 8;
+        final int rowsInPass3 = (height + 1) / 4;
+        final int rowsInPass4 = height / 2;
+
+        int theRow = row;
+        if (theRow < rowsInPass1) {
+            return theRow * 8;
+        }
+        theRow -= rowsInPass1;
+        if (theRow < rowsInPass2) {
+            return 4 + theRow * 8;
+        }
+        theRow -= rowsInPass2;
+        if (theRow < rowsInPass3) {
+            return 2 + theRow * 4;
+        }
+        theRow -= rowsInPass3;
+        if (theRow >= rowsInPass4) {
+            throw new ImagingException("Gif: Strange Row");
+        }
+        return 1 + theRow * 2;
+    }
+
+    int[] getColorTable(final byte[] bytes) throws ImagingException {
         if (bytes.length % 3 != 0) {
             throw new ImagingException("Bad Color Table Length: " + bytes.length);
         }
@@ -413,7 +435,8 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         final String formatName = "Graphics Interchange Format";
         final String mimeType = "image/gif";
 
-        final int numberOfImages = findAllBlocks(blocks.blocks, IMAGE_SEPARATOR).size();
+        // header-only byte sources are not read past the first image, so whether more follow is unknown
+        final int numberOfImages = byteSource.isHeaderOnly() ? -1 : findAllBlocks(blocks.blocks, IMAGE_SEPARATOR).size();
 
         final boolean progressive = id.interlaceFlag;
 
@@ -495,7 +518,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                 readColorTable(is, ghi.sizeOfGlobalColorTable);
             }
 
-            final List<GifBlock> blocks = readBlocks(ghi, is, true, null);
+            final List<GifBlock> blocks = readBlocks(ghi, is, true, byteSource.isHeaderOnly(), null);
 
             final List<String> result = new ArrayList<>();
             for (final GifBlock block : blocks) {
@@ -542,10 +565,24 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         }
     }
 
-    private List<GifBlock> readBlocks(final GifHeaderInfo ghi, final InputStream is, final boolean stopBeforeImageData, final FormatCompliance formatCompliance)
+    /**
+     * Reads the next block of a GIF file.
+     *
+     * @return the block, or null after the trailer.
+     */
+    GifBlock readBlock(final GifHeaderInfo ghi, final InputStream is, final boolean stopBeforeImageData, final FormatCompliance formatCompliance)
             throws ImagingException, IOException {
-        final List<GifBlock> result = new ArrayList<>();
+        return readBlock(ghi, is, stopBeforeImageData, false, formatCompliance);
+    }
 
+    /**
+     * Reads the next block of a GIF file.
+     *
+     * @param headerOnly whether image descriptors are read without the image data that follows them, which is left in the stream.
+     * @return the block, or null after the trailer.
+     */
+    private GifBlock readBlock(final GifHeaderInfo ghi, final InputStream is, final boolean stopBeforeImageData, final boolean headerOnly,
+            final FormatCompliance formatCompliance) throws ImagingException, IOException {
         while (true) {
             final int code = is.read();
 
@@ -554,12 +591,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                 throw new ImagingException("GIF: unexpected end of data");
 
             case IMAGE_SEPARATOR:
-                final ImageDescriptor id = readImageDescriptor(ghi, code, is, stopBeforeImageData, formatCompliance);
-                result.add(id);
-                // if (stopBeforeImageData)
-                // return result;
-
-                break;
+                return readImageDescriptor(ghi, code, is, stopBeforeImageData, headerOnly, formatCompliance);
 
             case EXTENSION_CODE: {
                 final int extensionCode = is.read();
@@ -567,16 +599,11 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
 
                 switch (extensionCode) {
                 case 0xf9:
-                    final GraphicControlExtension gce = readGraphicControlExtension(completeCode, is);
-                    result.add(gce);
-                    break;
+                    return readGraphicControlExtension(completeCode, is);
 
                 case COMMENT_EXTENSION:
-                case PLAIN_TEXT_EXTENSION: {
-                    final GenericGifBlock block = readGenericGifBlock(is, completeCode);
-                    result.add(block);
-                    break;
-                }
+                case PLAIN_TEXT_EXTENSION:
+                    return readGenericGifBlock(is, completeCode);
 
                 case APPLICATION_EXTENSION_LABEL: {
                     // 255 (hex 0xFF) Application
@@ -588,8 +615,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                     }
 
                     if (label.length > 0) {
-                        final GenericGifBlock block = readGenericGifBlock(is, completeCode, label);
-                        result.add(block);
+                        return readGenericGifBlock(is, completeCode, label);
                     }
                     break;
                 }
@@ -600,16 +626,14 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                         formatCompliance.addComment("Unknown block", completeCode);
                     }
 
-                    final GenericGifBlock block = readGenericGifBlock(is, completeCode);
-                    result.add(block);
-                    break;
+                    return readGenericGifBlock(is, completeCode);
                 }
                 }
             }
                 break;
 
             case TERMINATOR_BYTE:
-                return result;
+                return null;
 
             case 0x00: // bad byte, but keep going and see what happens
                 break;
@@ -620,7 +644,26 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         }
     }
 
-    private byte[] readColorTable(final InputStream is, final int tableSize) throws IOException {
+    /**
+     * Reads the blocks of a GIF file, up to the trailer.
+     *
+     * @param headerOnly whether to stop after the first image descriptor, without reading its image data.
+     */
+    private List<GifBlock> readBlocks(final GifHeaderInfo ghi, final InputStream is, final boolean stopBeforeImageData, final boolean headerOnly,
+            final FormatCompliance formatCompliance) throws ImagingException, IOException {
+        final List<GifBlock> result = new ArrayList<>();
+
+        GifBlock block;
+        while ((block = readBlock(ghi, is, stopBeforeImageData, headerOnly, formatCompliance)) != null) {
+            result.add(block);
+            if (headerOnly && block instanceof ImageDescriptor) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    byte[] readColorTable(final InputStream is, final int tableSize) throws IOException {
         final int actualSize = convertColorTableSize(tableSize);
 
         return BinaryFunctions.readBytes("block", is, actualSize, "GIF: corrupt Color Table");
@@ -640,7 +683,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                 globalColorTable = readColorTable(is, ghi.sizeOfGlobalColorTable);
             }
 
-            final List<GifBlock> blocks = readBlocks(ghi, is, stopBeforeImageData, formatCompliance);
+            final List<GifBlock> blocks = readBlocks(ghi, is, stopBeforeImageData, byteSource.isHeaderOnly(), formatCompliance);
 
             return new GifImageContents(ghi, globalColorTable, blocks);
         }
@@ -682,7 +725,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         return new GraphicControlExtension(code, packed, dispose, transparency, delay, transparentColorIndex);
     }
 
-    private GifHeaderInfo readHeader(final InputStream is, final FormatCompliance formatCompliance) throws ImagingException, IOException {
+    GifHeaderInfo readHeader(final InputStream is, final FormatCompliance formatCompliance) throws ImagingException, IOException {
         final byte identifier1 = BinaryFunctions.readByte("identifier1", is, "Not a Valid GIF File");
         final byte identifier2 = BinaryFunctions.readByte("identifier2", is, "Not a Valid GIF File");
         final byte identifier3 = BinaryFunctions.readByte("identifier3", is, "Not a Valid GIF File");
@@ -745,7 +788,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
     }
 
     private ImageDescriptor readImageDescriptor(final GifHeaderInfo ghi, final int blockCode, final InputStream is, final boolean stopBeforeImageData,
-            final FormatCompliance formatCompliance) throws ImagingException, IOException {
+            final boolean headerOnly, final FormatCompliance formatCompliance) throws ImagingException, IOException {
         final int imageLeftPosition = BinaryFunctions.read2Bytes("Image Left Position", is, "Not a Valid GIF File", getByteOrder());
         final int imageTopPosition = BinaryFunctions.read2Bytes("Image Top Position", is, "Not a Valid GIF File", getByteOrder());
         final int imageWidth = BinaryFunctions.read2Bytes("Image Width", is, "Not a Valid GIF File", getByteOrder());
@@ -787,7 +830,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         }
 
         byte[] imageData = null;
-        if (!stopBeforeImageData) {
+        if (!stopBeforeImageData && !headerOnly) {
             final int lzwMinimumCodeSize = is.read();
 
             final GenericGifBlock block = readGenericGifBlock(is, -1);
@@ -797,19 +840,26 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
             final int size = imageWidth * imageHeight;
             final MyLzwDecompressor myLzwDecompressor = new MyLzwDecompressor(lzwMinimumCodeSize, ByteOrder.LITTLE_ENDIAN, false);
             imageData = myLzwDecompressor.decompress(bais, size);
-        } else {
+        } else if (!headerOnly) {
             final int LZWMinimumCodeSize = is.read();
             if (LOGGER.isLoggable(Level.FINEST)) {
                 LOGGER.finest("LZWMinimumCodeSize: " + LZWMinimumCodeSize);
             }
 
-            readGenericGifBlock(is, -1);
+            skipSubBlocks(is);
         }
 
         return new ImageDescriptor(blockCode, imageLeftPosition, imageTopPosition, imageWidth, imageHeight, packedFields, localColorTableFlag, interlaceFlag,
                 sortFlag, sizeOfLocalColorTable, localColorTable, imageData);
     }
 
+    private void skipSubBlocks(final InputStream is) throws IOException {
+        int blockSize;
+        while ((blockSize = 0xff & BinaryFunctions.readByte("blockSize", is, "GIF: corrupt block")) > 0) {
+            BinaryFunctions.skipBytes(is, blockSize, "GIF: corrupt block");
+        }
+    }
+
     private byte[] readSubBlock(final InputStream is) throws IOException {
         final int blockSize = 0xff & BinaryFunctions.readByte("blockSize", is, "GIF: corrupt block");
 
@@ -826,7 +876,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         return result;
     }
 
-    private void writeAsSubBlocks(final OutputStream os, final byte[] bytes) throws IOException {
+    void writeAsSubBlocks(final OutputStream os, final byte[] bytes) throws IOException {
         int index = 0;
 
         while (index < bytes.length) {
@@ -838,6 +888,53 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         os.write(0); // last block
     }
 
+    /**
+     * Writes an animated GIF. The frames are drawn one after the other, each one cropped to the area where it differs from the previous one, with the
+     * pixels of that area that did not change left transparent; consecutive frames that are identical are written as one, with their delays added up.
+     * The frames share a global color table when they use at most 255 colors between them, and otherwise each has a local color table, quantized if
+     * the pixels it changes use more than 255 colors. As with {@link #writeImage(BufferedImage, OutputStream, GifImagingParameters)}, pixels that are
+     * not fully opaque are written as transparent.
+     *
+     * @param frames the frames, all of the same size.
+     * @param delays the delay after each frame, in hundredths of a second, or null for no delays.
+     * @param os     the stream to write to.
+     * @param params the parameters, which give the {@link GifImagingParameters#setLoopCount(int) loop count}; may be null.
+     * @throws ImagingException         if the frames are not all of the same size.
+     * @throws IOException              if an I/O error occurs.
+     * @throws IllegalArgumentException if there are no frames, or the delays do not match the frames.
+     * @since 1.0.0-alpha6
+     */
+    public void writeAnimation(final List<BufferedImage> frames, final int[] delays, final OutputStream os, GifImagingParameters params)
+            throws ImagingException, IOException {
+        if (params == null) {
+            params = new GifImagingParameters();
+        }
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("No frames to write");
+        }
+        if (delays != null) {
+            if (delays.length != frames.size()) {
+                throw new IllegalArgumentException("Got " + delays.length + " delays for " + frames.size() + " frames");
+            }
+            for (final int delay : delays) {
+                if (delay < 0 || delay > 0xffff) {
+                    throw new IllegalArgumentException("Invalid GIF frame delay " + delay);
+                }
+            }
+        }
+        final int width = frames.get(0).getWidth();
+        final int height = frames.get(0).getHeight();
+        for (final BufferedImage frame : frames) {
+            if (frame.getWidth() != width || frame.getHeight() != height) {
+                throw new ImagingException("Gif: animation frames must all be " + width + "x" + height + ", got " + frame.getWidth() + "x" + frame.getHeight());
+            }
+        }
+
+        try (BinaryOutputStream bos = BinaryOutputStream.littleEndian(os)) {
+            new GifAnimationWriter(this, bos, width, height).write(frames, delays, params.getLoopCount(), params.getXmpXml());
+        }
+    }
+
     @Override
     public void writeImage(final BufferedImage src, final OutputStream os, GifImagingParameters params) throws ImagingException, IOException {
         if (params == null) {
@@ -856,9 +953,13 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         Palette palette2 = new PaletteFactory().makeExactRgbPaletteSimple(src, maxColors);
         // int[] palette = new PaletteFactory().makePaletteSimple(src, 256);
         // Map palette_map = paletteToMap(palette);
+        Ditherer ditherer = null;
 
         if (palette2 == null) {
             palette2 = new PaletteFactory().makeQuantizedRgbPalette(src, maxColors);
+            if (params.getDitheringMethod() != null) {
+                ditherer = new Ditherer(palette2, params.getDitheringMethod(), width, true);
+            }
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("quantizing");
             }
@@ -928,22 +1029,7 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
             }
 
             if (null != xmpXml) {
-                bos.write(EXTENSION_CODE);
-                bos.write(APPLICATION_EXTENSION_LABEL);
-
-                bos.write(XMP_APPLICATION_ID_AND_AUTH_CODE.length); // 0x0B
-                bos.write(XMP_APPLICATION_ID_AND_AUTH_CODE);
-
-                final byte[] xmpXmlBytes = xmpXml.getBytes(StandardCharsets.UTF_8);
-                bos.write(xmpXmlBytes);
-
-                // write "magic trailer"
-                for (int magic = 0; magic <= 0xff; magic++) {
-                    bos.write(0xff - magic);
-                }
-
-                bos.write((byte) 0); // terminator
-
+                writeXmpExtension(bos, xmpXml);
             }
 
             { // Image Descriptor.
@@ -1013,9 +1099,19 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                 // Mode);
 
                 final byte[] imageData = Allocator.byteArray(width * height);
+                final int[] row = Allocator.intArray(width);
+                final int[] indices = ditherer != null ? Allocator.intArray(width) : null;
                 for (int y = 0; y < height; y++) {
+                    src.getRGB(0, y, width, 1, row, 0, width);
+                    if (ditherer != null) {
+                        // the palette colors have no alpha, so neither do the colors dithered to them
+                        for (int x = 0; x < width; x++) {
+                            indices[x] = 0xffffff & row[x];
+                        }
+                        ditherer.ditherRow(indices, indices);
+                    }
                     for (int x = 0; x < width; x++) {
-                        final int argb = src.getRGB(x, y);
+                        final int argb = row[x];
                         final int rgb = 0xffffff & argb;
                         final int index;
 
@@ -1025,10 +1121,10 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
                             if (alpha < alphaThreshold) {
                                 index = palette2.length(); // is transparent
                             } else {
-                                index = palette2.getPaletteIndex(rgb);
+                                index = ditherer != null ? indices[x] : palette2.getPaletteIndex(rgb);
                             }
                         } else {
-                            index = palette2.getPaletteIndex(rgb);
+                            index = ditherer != null ? indices[x] : palette2.getPaletteIndex(rgb);
                         }
 
                         imageData[y * width + x] = (byte) index;
@@ -1047,4 +1143,22 @@ public class GifImageParser extends AbstractImageParser<GifImagingParameters> im
         }
         os.close();
     }
+
+    void writeXmpExtension(final OutputStream os, final String xmpXml) throws IOException {
+        os.write(EXTENSION_CODE);
+        os.write(APPLICATION_EXTENSION_LABEL);
+
+        os.write(XMP_APPLICATION_ID_AND_AUTH_CODE.length); // 0x0B
+        os.write(XMP_APPLICATION_ID_AND_AUTH_CODE);
+
+        final byte[] xmpXmlBytes = xmpXml.getBytes(StandardCharsets.UTF_8);
+        os.write(xmpXmlBytes);
+
+        // write "magic trailer"
+        for (int magic = 0; magic <= 0xff; magic++) {
+            os.write(0xff - magic);
+        }
+
+        os.write((byte) 0); // terminator
+    }
 }
@@ -18,6 +18,7 @@
 package org.apache.commons.imaging.formats.gif;
 
 import org.apache.commons.imaging.common.XmpImagingParameters;
+import org.apache.commons.imaging.palette.DitheringMethod;
 
 /**
  * GIF format parameters.
@@ -32,6 +33,36 @@ public class GifImagingParameters extends XmpImagingParameters<GifImagingParamet
 
     private boolean stopReadingBeforeImageData;
 
+    /**
+     * How colors are dithered when images have to be quantized to 256 colors; null to map each pixel to its palette color.
+     */
+    private DitheringMethod ditheringMethod;
+
+    /**
+     * The number of times animations are repeated, 0 for ever, or -1 to play them once.
+     */
+    private int loopCount;
+
+    /**
+     * Gets how colors are dithered when images have to be quantized.
+     *
+     * @return the dithering method, or null if colors are not dithered.
+     * @since 1.0.0-alpha6
+     */
+    public DitheringMethod getDitheringMethod() {
+        return ditheringMethod;
+    }
+
+    /**
+     * Gets the number of times animations are repeated after they were played once.
+     *
+     * @return the loop count, 0 for ever, or -1 to play animations once.
+     * @since 1.0.0-alpha6
+     */
+    public int getLoopCount() {
+        return loopCount;
+    }
+
     public boolean getStopReadingBeforeImageData() {
         return stopReadingBeforeImageData;
     }
@@ -40,4 +71,35 @@ public class GifImagingParameters extends XmpImagingParameters<GifImagingParamet
         this.stopReadingBeforeImageData = stopReadingBeforeImageData;
     }
 
+    /**
+     * Sets how colors are dithered when an image written by {@link GifImageParser#writeImage(java.awt.image.BufferedImage, java.io.OutputStream,
+     * GifImagingParameters)} uses more than 256 colors and its palette has to be quantized. Error diffusion methods use serpentine scanning. Images
+     * whose colors fit in the palette are written exactly.
+     *
+     * @param ditheringMethod the dithering method, or null to map each pixel to its palette color (the default).
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public GifImagingParameters setDitheringMethod(final DitheringMethod ditheringMethod) {
+        this.ditheringMethod = ditheringMethod;
+        return asThis();
+    }
+
+    /**
+     * Sets the number of times animations written by {@link GifImageParser#writeAnimation(java.util.List, int[], java.io.OutputStream,
+     * GifImagingParameters)} are repeated, which is written in a NETSCAPE2.0 application extension.
+     *
+     * @param loopCount the loop count from 1 to 65535, 0 to repeat for ever (the default), or -1 to play once and write no extension.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the loop count is out of range.
+     * @since 1.0.0-alpha6
+     */
+    public GifImagingParameters setLoopCount(final int loopCount) {
+        if (loopCount < -1 || loopCount > 0xffff) {
+            throw new IllegalArgumentException("Invalid GIF loop count " + loopCount + ", must be from -1 to 65535");
+        }
+        this.loopCount = loopCount;
+        return asThis();
+    }
+
 }
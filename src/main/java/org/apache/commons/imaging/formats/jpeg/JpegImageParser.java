@@ -20,13 +20,13 @@ import static org.apache.commons.imaging.common.BinaryFunctions.remainingBytes;
 import static org.apache.commons.imaging.common.BinaryFunctions.startsWith;
 
 import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.text.NumberFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.logging.Level;
@@ -50,11 +50,9 @@ import org.apache.commons.imaging.formats.jpeg.segments.App13Segment;
 import org.apache.commons.imaging.formats.jpeg.segments.App14Segment;
 import org.apache.commons.imaging.formats.jpeg.segments.App2Segment;
 import org.apache.commons.imaging.formats.jpeg.segments.ComSegment;
-import org.apache.commons.imaging.formats.jpeg.segments.DqtSegment;
 import org.apache.commons.imaging.formats.jpeg.segments.GenericSegment;
 import org.apache.commons.imaging.formats.jpeg.segments.JfifSegment;
 import org.apache.commons.imaging.formats.jpeg.segments.SofnSegment;
-import org.apache.commons.imaging.formats.jpeg.segments.UnknownSegment;
 import org.apache.commons.imaging.formats.jpeg.xmp.JpegXmpParser;
 import org.apache.commons.imaging.formats.tiff.TiffField;
 import org.apache.commons.imaging.formats.tiff.TiffImageMetadata;
@@ -206,6 +204,14 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
     @Override
     public final BufferedImage getBufferedImage(final ByteSource byteSource, final JpegImagingParameters params) throws ImagingException, IOException {
         final JpegDecoder jpegDecoder = new JpegDecoder();
+        if (params != null) {
+            jpegDecoder.setDecodeExecutor(params.getDecodeExecutor());
+            jpegDecoder.setIntegerIdct(params.isIntegerIdct());
+            jpegDecoder.setScaleDenominator(params.getScaleDenominator());
+            if (params.isSubImageSet()) {
+                jpegDecoder.setSubImage(new Rectangle(params.getSubImageX(), params.getSubImageY(), params.getSubImageWidth(), params.getSubImageHeight()));
+            }
+        }
         return jpegDecoder.decode(byteSource);
     }
 
@@ -219,8 +225,12 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
         return new JpegImagingParameters();
     }
 
-    public TiffImageMetadata getExifMetadata(final ByteSource byteSource, TiffImagingParameters params) throws ImagingException, IOException {
-        final byte[] bytes = getExifRawData(byteSource);
+    public TiffImageMetadata getExifMetadata(final ByteSource byteSource, final TiffImagingParameters params) throws ImagingException, IOException {
+        return getExifMetadata(JpegSegmentIndex.read(byteSource), params);
+    }
+
+    private TiffImageMetadata getExifMetadata(final JpegSegmentIndex index, TiffImagingParameters params) throws ImagingException, IOException {
+        final byte[] bytes = getExifRawData(index);
         if (null == bytes) {
             return null;
         }
@@ -234,7 +244,11 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
     }
 
     public byte[] getExifRawData(final ByteSource byteSource) throws ImagingException, IOException {
-        final List<AbstractSegment> abstractSegments = readSegments(byteSource, new int[] { JpegConstants.JPEG_APP1_MARKER, }, false);
+        return getExifRawData(JpegSegmentIndex.read(byteSource));
+    }
+
+    private byte[] getExifRawData(final JpegSegmentIndex index) throws ImagingException, IOException {
+        final List<AbstractSegment> abstractSegments = index.getSegments(new int[] { JpegConstants.JPEG_APP1_MARKER, }, false);
 
         if (abstractSegments == null || abstractSegments.isEmpty()) {
             return null;
@@ -299,7 +313,9 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
     public ImageInfo getImageInfo(final ByteSource byteSource, final JpegImagingParameters params) throws ImagingException, IOException {
         // List allSegments = readSegments(byteSource, null, false);
 
-        final List<AbstractSegment> SOF_segments = readSegments(byteSource, new int[] {
+        // the segments are read in a single traversal of the file
+        final JpegSegmentIndex index = JpegSegmentIndex.read(byteSource);
+        final List<AbstractSegment> SOF_segments = index.getSegments(new int[] {
                 // kJFIFMarker,
 
                 JpegConstants.SOF0_MARKER, JpegConstants.SOF1_MARKER, JpegConstants.SOF2_MARKER, JpegConstants.SOF3_MARKER, JpegConstants.SOF5_MARKER,
@@ -316,7 +332,7 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
         // System.out.println("Incoherent SOFN Data Found: "
         // + SOF_segments.size());
 
-        final List<AbstractSegment> jfifSegments = readSegments(byteSource, new int[] { JpegConstants.JFIF_MARKER, }, true);
+        final List<AbstractSegment> jfifSegments = index.getSegments(new int[] { JpegConstants.JFIF_MARKER, }, true);
 
         final SofnSegment fSOFNSegment = (SofnSegment) SOF_segments.get(0);
         // SofnSegment fSOFNSegment = (SofnSegment) findSegment(segments,
@@ -335,7 +351,7 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
             jfifSegment = (JfifSegment) jfifSegments.get(0);
         }
 
-        final List<AbstractSegment> app14Segments = readSegments(byteSource, new int[] { JpegConstants.JPEG_APP14_MARKER }, true);
+        final List<AbstractSegment> app14Segments = index.getSegments(new int[] { JpegConstants.JPEG_APP14_MARKER }, true);
         App14Segment app14Segment = null;
         if (app14Segments != null && !app14Segments.isEmpty()) {
             app14Segment = (App14Segment) app14Segments.get(0);
@@ -373,7 +389,7 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
                 break;
             }
         } else {
-            final JpegImageMetadata metadata = (JpegImageMetadata) getMetadata(byteSource, params);
+            final JpegImageMetadata metadata = (JpegImageMetadata) getMetadata(index, params);
 
             if (metadata != null) {
                 {
@@ -426,7 +442,7 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
             physicalHeightInch = (float) (height / (yDensity * unitsPerInch));
         }
 
-        final List<AbstractSegment> commentSegments = readSegments(byteSource, new int[] { JpegConstants.COM_MARKER }, false);
+        final List<AbstractSegment> commentSegments = index.getSegments(new int[] { JpegConstants.COM_MARKER }, false);
         final List<String> comments = Allocator.arrayList(commentSegments.size());
         for (final AbstractSegment commentSegment : commentSegments) {
             final ComSegment comSegment = (ComSegment) commentSegment;
@@ -640,9 +656,13 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
         if (params == null) {
             params = new JpegImagingParameters();
         }
-        final TiffImageMetadata exif = getExifMetadata(byteSource, new TiffImagingParameters());
+        return getMetadata(JpegSegmentIndex.read(byteSource), params);
+    }
 
-        final JpegPhotoshopMetadata photoshop = getPhotoshopMetadata(byteSource, params);
+    private ImageMetadata getMetadata(final JpegSegmentIndex index, final JpegImagingParameters params) throws ImagingException, IOException {
+        final TiffImageMetadata exif = getExifMetadata(index, new TiffImagingParameters());
+
+        final JpegPhotoshopMetadata photoshop = getPhotoshopMetadata(index, params);
 
         if (null == exif && null == photoshop) {
             return null;
@@ -657,7 +677,12 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
     }
 
     public JpegPhotoshopMetadata getPhotoshopMetadata(final ByteSource byteSource, final JpegImagingParameters params) throws ImagingException, IOException {
-        final List<AbstractSegment> abstractSegments = readSegments(byteSource, new int[] { JpegConstants.JPEG_APP13_MARKER, }, false);
+        return getPhotoshopMetadata(JpegSegmentIndex.read(byteSource), params);
+    }
+
+    private JpegPhotoshopMetadata getPhotoshopMetadata(final JpegSegmentIndex index, final JpegImagingParameters params)
+            throws ImagingException, IOException {
+        final List<AbstractSegment> abstractSegments = index.getSegments(new int[] { JpegConstants.JPEG_APP13_MARKER, }, false);
 
         if (abstractSegments == null || abstractSegments.isEmpty()) {
             return null;
@@ -694,243 +719,60 @@ public class JpegImageParser extends AbstractImageParser<JpegImagingParameters>
     @Override
     public String getXmpXml(final ByteSource byteSource, final XmpImagingParameters<JpegImagingParameters> params) throws ImagingException, IOException {
 
-        final List<String> result = new ArrayList<>();
-
-        final JpegUtils.Visitor visitor = new JpegUtils.Visitor() {
-            // return false to exit before reading image data.
-            @Override
-            public boolean beginSos() {
-                return false;
-            }
-
-            // return false to exit traversal.
-            @Override
-            public boolean visitSegment(final int marker, final byte[] markerBytes, final int markerLength, final byte[] markerLengthBytes,
-                    final byte[] segmentData) throws ImagingException {
-                if (marker == 0xffd9) {
-                    return false;
-                }
-
-                if (marker == JpegConstants.JPEG_APP1_MARKER && new JpegXmpParser().isXmpJpegSegment(segmentData)) {
-                    result.add(new JpegXmpParser().parseXmpJpegSegment(segmentData));
-                    return false;
-                }
-
-                return true;
+        final JpegSegmentIndex index = JpegSegmentIndex.read(byteSource);
+        for (int i = 0; i < index.size(); i++) {
+            if (index.getMarker(i) == JpegConstants.JPEG_APP1_MARKER && new JpegXmpParser().isXmpJpegSegment(index.getSegmentData(i))) {
+                return new JpegXmpParser().parseXmpJpegSegment(index.getSegmentData(i));
             }
-
-            @Override
-            public void visitSos(final int marker, final byte[] markerBytes, final byte[] imageData) {
-                // don't need image data
-            }
-        };
-        new JpegUtils().traverseJfif(byteSource, visitor);
-
-        if (result.isEmpty()) {
-            return null;
-        }
-        if (result.size() > 1) {
-            throw new ImagingException("JPEG file contains more than one XMP segment.");
         }
-        return result.get(0);
+        return null;
     }
 
     public boolean hasExifSegment(final ByteSource byteSource) throws ImagingException, IOException {
-        final boolean[] result = { false, };
-
-        final JpegUtils.Visitor visitor = new JpegUtils.Visitor() {
-            // return false to exit before reading image data.
-            @Override
-            public boolean beginSos() {
-                return false;
-            }
-
-            // return false to exit traversal.
-            @Override
-            public boolean visitSegment(final int marker, final byte[] markerBytes, final int markerLength, final byte[] markerLengthBytes,
-                    final byte[] segmentData) {
-                if (marker == 0xffd9) {
-                    return false;
-                }
-
-                if (marker == JpegConstants.JPEG_APP1_MARKER && startsWith(segmentData, JpegConstants.EXIF_IDENTIFIER_CODE)) {
-                    result[0] = true;
-                    return false;
-                }
-
+        final JpegSegmentIndex index = JpegSegmentIndex.read(byteSource);
+        for (int i = 0; i < index.size(); i++) {
+            if (index.getMarker(i) == JpegConstants.JPEG_APP1_MARKER && startsWith(index.getSegmentData(i), JpegConstants.EXIF_IDENTIFIER_CODE)) {
                 return true;
             }
-
-            @Override
-            public void visitSos(final int marker, final byte[] markerBytes, final byte[] imageData) {
-                // don't need image data
-            }
-        };
-
-        new JpegUtils().traverseJfif(byteSource, visitor);
-
-        return result[0];
+        }
+        return false;
     }
 
     public boolean hasIptcSegment(final ByteSource byteSource) throws ImagingException, IOException {
-        final boolean[] result = { false, };
-
-        final JpegUtils.Visitor visitor = new JpegUtils.Visitor() {
-            // return false to exit before reading image data.
-            @Override
-            public boolean beginSos() {
-                return false;
-            }
-
-            // return false to exit traversal.
-            @Override
-            public boolean visitSegment(final int marker, final byte[] markerBytes, final int markerLength, final byte[] markerLengthBytes,
-                    final byte[] segmentData) {
-                if (marker == 0xffd9) {
-                    return false;
-                }
-
-                if (marker == JpegConstants.JPEG_APP13_MARKER && new IptcParser().isPhotoshopJpegSegment(segmentData)) {
-                    result[0] = true;
-                    return false;
-                }
-
+        final JpegSegmentIndex index = JpegSegmentIndex.read(byteSource);
+        for (int i = 0; i < index.size(); i++) {
+            if (index.getMarker(i) == JpegConstants.JPEG_APP13_MARKER && new IptcParser().isPhotoshopJpegSegment(index.getSegmentData(i))) {
                 return true;
             }
-
-            @Override
-            public void visitSos(final int marker, final byte[] markerBytes, final byte[] imageData) {
-                // don't need image data
-            }
-        };
-
-        new JpegUtils().traverseJfif(byteSource, visitor);
-
-        return result[0];
+        }
+        return false;
     }
 
     public boolean hasXmpSegment(final ByteSource byteSource) throws ImagingException, IOException {
-        final boolean[] result = { false, };
-
-        final JpegUtils.Visitor visitor = new JpegUtils.Visitor() {
-            // return false to exit before reading image data.
-            @Override
-            public boolean beginSos() {
-                return false;
-            }
-
-            // return false to exit traversal.
-            @Override
-            public boolean visitSegment(final int marker, final byte[] markerBytes, final int markerLength, final byte[] markerLengthBytes,
-                    final byte[] segmentData) {
-                if (marker == 0xffd9) {
-                    return false;
-                }
-
-                if (marker == JpegConstants.JPEG_APP1_MARKER && new JpegXmpParser().isXmpJpegSegment(segmentData)) {
-                    result[0] = true;
-                    return false;
-                }
-
+        final JpegSegmentIndex index = JpegSegmentIndex.read(byteSource);
+        for (int i = 0; i < index.size(); i++) {
+            if (index.getMarker(i) == JpegConstants.JPEG_APP1_MARKER && new JpegXmpParser().isXmpJpegSegment(index.getSegmentData(i))) {
                 return true;
             }
-
-            @Override
-            public void visitSos(final int marker, final byte[] markerBytes, final byte[] imageData) {
-                // don't need image data
-            }
-        };
-        new JpegUtils().traverseJfif(byteSource, visitor);
-
-        return result[0];
-    }
-
-    private boolean keepMarker(final int marker, final int[] markers) {
-        if (markers == null) {
-            return true;
         }
-
-        for (final int marker2 : markers) {
-            if (marker2 == marker) {
-                return true;
-            }
-        }
-
         return false;
     }
 
+    /**
+     * Reads the header segments of a JPEG file, up to the first SOS marker.
+     * <p>
+     * The file is traversed once per call; the data of the segments returned is then read from the byte source.
+     * </p>
+     *
+     * @param byteSource       the file.
+     * @param markers          the markers of the segments to return, or null to return all of them.
+     * @param returnAfterFirst whether to return only the first segment found.
+     * @return the segments, in the order they appear in the file.
+     * @throws ImagingException if the file is not a valid JPEG file.
+     * @throws IOException      if an I/O error occurs.
+     */
     public List<AbstractSegment> readSegments(final ByteSource byteSource, final int[] markers, final boolean returnAfterFirst)
             throws ImagingException, IOException {
-        final List<AbstractSegment> result = new ArrayList<>();
-        final int[] sofnSegments = {
-                // kJFIFMarker,
-                JpegConstants.SOF0_MARKER, JpegConstants.SOF1_MARKER, JpegConstants.SOF2_MARKER, JpegConstants.SOF3_MARKER, JpegConstants.SOF5_MARKER,
-                JpegConstants.SOF6_MARKER, JpegConstants.SOF7_MARKER, JpegConstants.SOF9_MARKER, JpegConstants.SOF10_MARKER, JpegConstants.SOF11_MARKER,
-                JpegConstants.SOF13_MARKER, JpegConstants.SOF14_MARKER, JpegConstants.SOF15_MARKER, };
-
-        final JpegUtils.Visitor visitor = new JpegUtils.Visitor() {
-            // return false to exit before reading image data.
-            @Override
-            public boolean beginSos() {
-                return false;
-            }
-
-            // return false to exit traversal.
-            @Override
-            public boolean visitSegment(final int marker, final byte[] markerBytes, final int markerLength, final byte[] markerLengthBytes,
-                    final byte[] segmentData) throws ImagingException, IOException {
-                if (marker == JpegConstants.EOI_MARKER) {
-                    return false;
-                }
-
-                // Debug.debug("visitSegment marker", marker);
-                // // Debug.debug("visitSegment keepMarker(marker, markers)",
-                // keepMarker(marker, markers));
-                // Debug.debug("visitSegment keepMarker(marker, markers)",
-                // keepMarker(marker, markers));
-
-                if (!keepMarker(marker, markers)) {
-                    return true;
-                }
-
-                switch (marker) {
-                case JpegConstants.JPEG_APP13_MARKER:
-                    // Debug.debug("app 13 segment data", segmentData.length);
-                    result.add(new App13Segment(marker, segmentData));
-                    break;
-                case JpegConstants.JPEG_APP14_MARKER:
-                    result.add(new App14Segment(marker, segmentData));
-                    break;
-                case JpegConstants.JPEG_APP2_MARKER:
-                    result.add(new App2Segment(marker, segmentData));
-                    break;
-                case JpegConstants.JFIF_MARKER:
-                    result.add(new JfifSegment(marker, segmentData));
-                    break;
-                default:
-                    if (Arrays.binarySearch(sofnSegments, marker) >= 0) {
-                        result.add(new SofnSegment(marker, segmentData));
-                    } else if (marker == JpegConstants.DQT_MARKER) {
-                        result.add(new DqtSegment(marker, segmentData));
-                    } else if (marker >= JpegConstants.JPEG_APP1_MARKER && marker <= JpegConstants.JPEG_APP15_MARKER) {
-                        result.add(new UnknownSegment(marker, segmentData));
-                    } else if (marker == JpegConstants.COM_MARKER) {
-                        result.add(new ComSegment(marker, segmentData));
-                    }
-                    break;
-                }
-
-                return !returnAfterFirst;
-            }
-
-            @Override
-            public void visitSos(final int marker, final byte[] markerBytes, final byte[] imageData) {
-                // don't need image data
-            }
-        };
-
-        new JpegUtils().traverseJfif(byteSource, visitor);
-
-        return result;
+        return JpegSegmentIndex.read(byteSource).getSegments(markers, returnAfterFirst);
     }
 }
@@ -15,6 +15,8 @@
 
 package org.apache.commons.imaging.formats.jpeg;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.commons.imaging.common.XmpImagingParameters;
 
 /**
@@ -23,5 +25,203 @@ import org.apache.commons.imaging.common.XmpImagingParameters;
  * @since 1.0-alpha3
  */
 public class JpegImagingParameters extends XmpImagingParameters<JpegImagingParameters> {
-    // empty
+
+    /**
+     * Executor used to decode restart intervals concurrently when reading images; null to decode on the calling thread.
+     */
+    private ExecutorService decodeExecutor;
+
+    /**
+     * Whether to inverse transform with the fixed-point integer IDCT instead of the floating-point one when reading images.
+     */
+    private boolean integerIdct;
+
+    /**
+     * The factor by which images are scaled down while reading them.
+     */
+    private int scaleDenominator = 1;
+
+    /**
+     * X-coordinate of a sub-image.
+     */
+    private int subImageX;
+
+    /**
+     * Y-coordinate of a sub-image.
+     */
+    private int subImageY;
+
+    /**
+     * Width of a sub-image.
+     */
+    private int subImageWidth;
+
+    /**
+     * Height of a sub-image.
+     */
+    private int subImageHeight;
+
+    /**
+     * Clears settings for sub-image. Subsequent read operations will retrieve the entire image.
+     *
+     * @since 1.0.0-alpha6
+     */
+    public void clearSubImage() {
+        subImageWidth = 0;
+        subImageHeight = 0;
+    }
+
+    /**
+     * Gets the executor used to decode restart intervals concurrently.
+     *
+     * @return if set, a valid instance; otherwise, a null reference.
+     * @since 1.0.0-alpha6
+     */
+    public ExecutorService getDecodeExecutor() {
+        return decodeExecutor;
+    }
+
+    /**
+     * Gets the factor by which images are scaled down while reading them.
+     *
+     * @return 1, 2, 4 or 8.
+     * @since 1.0.0-alpha6
+     */
+    public int getScaleDenominator() {
+        return scaleDenominator;
+    }
+
+    /**
+     * Gets the height for a sub-image setting. For a sub-image setting to be meaningful, both the width and height must be set.
+     *
+     * @return if the sub-image feature is enabled, a value greater than zero; otherwise, zero.
+     * @since 1.0.0-alpha6
+     */
+    public int getSubImageHeight() {
+        return subImageHeight;
+    }
+
+    /**
+     * Gets the width for a sub-image setting. For a sub-image setting to be meaningful, both the width and height must be set.
+     *
+     * @return if the sub-image feature is enabled, a value greater than zero; otherwise, zero.
+     * @since 1.0.0-alpha6
+     */
+    public int getSubImageWidth() {
+        return subImageWidth;
+    }
+
+    /**
+     * Gets the X coordinate of a sub-image. This setting is meaningful only if a sub-image is set.
+     *
+     * @return a positive integer
+     * @since 1.0.0-alpha6
+     */
+    public int getSubImageX() {
+        return subImageX;
+    }
+
+    /**
+     * Gets the Y coordinate of a sub-image. This setting is meaningful only if a sub-image is set.
+     *
+     * @return a positive integer
+     * @since 1.0.0-alpha6
+     */
+    public int getSubImageY() {
+        return subImageY;
+    }
+
+    /**
+     * Tests whether images are read with the fixed-point integer IDCT.
+     *
+     * @return true if the integer IDCT is used, false for the floating-point one (the default).
+     * @since 1.0.0-alpha6
+     */
+    public boolean isIntegerIdct() {
+        return integerIdct;
+    }
+
+    /**
+     * Indicates whether the application has set sub-image parameters.
+     *
+     * @return true if the sub-image parameters are set; otherwise, false.
+     * @since 1.0.0-alpha6
+     */
+    public boolean isSubImageSet() {
+        return subImageWidth > 0 && subImageHeight > 0;
+    }
+
+    /**
+     * Sets an executor used to decode restart intervals concurrently when reading images. Sequential JPEG images with a DRI segment are split at their
+     * restart markers, and each interval is Huffman decoded, inverse transformed and color converted on the executor. Other images are decoded on the
+     * calling thread. The executor is not shut down by the parser.
+     *
+     * @param decodeExecutor the executor, or null to decode on the calling thread (the default).
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setDecodeExecutor(final ExecutorService decodeExecutor) {
+        this.decodeExecutor = decodeExecutor;
+        return asThis();
+    }
+
+    /**
+     * Sets whether images are read with a fixed-point integer IDCT, the accurate Loeffler, Ligtenberg and Moschytz method of the IJG's libjpeg, instead of
+     * the floating-point AA&amp;N one. Samples differ by at most one between the two. Only images with 8-bit samples use it.
+     *
+     * @param integerIdct true to use the integer IDCT, false for the floating-point one (the default).
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setIntegerIdct(final boolean integerIdct) {
+        this.integerIdct = integerIdct;
+        return asThis();
+    }
+
+    /**
+     * Sets the factor by which images are scaled down while reading them, for example to produce thumbnails. The scaling is done in the DCT domain with
+     * reduced 4x4, 2x2 or DC-only inverse transforms, so the full-size image is never produced. The image is the size of the frame divided by the factor
+     * and rounded up.
+     *
+     * @param scaleDenominator 1 (the default), 2, 4 or 8.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the factor is not supported.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setScaleDenominator(final int scaleDenominator) {
+        if (scaleDenominator != 1 && scaleDenominator != 2 && scaleDenominator != 4 && scaleDenominator != 8) {
+            throw new IllegalArgumentException("Invalid scale denominator " + scaleDenominator + ", must be 1, 2, 4 or 8");
+        }
+        this.scaleDenominator = scaleDenominator;
+        return asThis();
+    }
+
+    /**
+     * Sets parameters for decoding only a region of an image. Only the pixels of the region are allocated. The MCUs around it are Huffman decoded without
+     * being inverse transformed or color converted, restart intervals that miss it are skipped, and decoding stops after the last MCU that covers it.
+     * <p>
+     * The coordinates are those of the image scaled by the {@link #setScaleDenominator(int) scale denominator}. Note that the corner x and y coordinates
+     * must be positive integers (zero or greater). The width and height must be greater than zero.
+     * </p>
+     *
+     * @param x      pixel coordinate of the upper-left corner of the source image, must be zero or greater.
+     * @param y      pixel coordinate of the upper-left corner of the source image, must be zero or greater.
+     * @param width  width of the image subset to be read, must be greater than zero.
+     * @param height height of the image subset to be read, must be greater than zero.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public JpegImagingParameters setSubImage(final int x, final int y, final int width, final int height) {
+        if (x < 0 || y < 0) {
+            throw new IllegalArgumentException("Invalid sub-image specification: negative x and y values not allowed");
+        }
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Invalid sub-image specification width and height must be greater than zero");
+        }
+        subImageX = x;
+        subImageY = y;
+        subImageWidth = width;
+        subImageHeight = height;
+        return asThis();
+    }
 }
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.jpeg;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.jpeg.segments.AbstractSegment;
+import org.apache.commons.imaging.formats.jpeg.segments.App13Segment;
+import org.apache.commons.imaging.formats.jpeg.segments.App14Segment;
+import org.apache.commons.imaging.formats.jpeg.segments.App2Segment;
+import org.apache.commons.imaging.formats.jpeg.segments.ComSegment;
+import org.apache.commons.imaging.formats.jpeg.segments.DqtSegment;
+import org.apache.commons.imaging.formats.jpeg.segments.JfifSegment;
+import org.apache.commons.imaging.formats.jpeg.segments.SofnSegment;
+import org.apache.commons.imaging.formats.jpeg.segments.UnknownSegment;
+
+/**
+ * The header segments of a JPEG file, up to the first SOS or EOI marker, indexed in a single pass.
+ * <p>
+ * The marker, offset and length of every segment are recorded as the file is traversed; the data of a segment is read from the byte source and parsed
+ * only when it is asked for, so that the image info, the metadata and the ICC profile can all be read from one traversal of the file.
+ * </p>
+ */
+final class JpegSegmentIndex {
+
+    private static final class Entry {
+        final int marker;
+        final long offset;
+        final int length;
+
+        Entry(final int marker, final long offset, final int length) {
+            this.marker = marker;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static final int[] SOFN_MARKERS = {
+            // kJFIFMarker,
+            JpegConstants.SOF0_MARKER, JpegConstants.SOF1_MARKER, JpegConstants.SOF2_MARKER, JpegConstants.SOF3_MARKER, JpegConstants.SOF5_MARKER,
+            JpegConstants.SOF6_MARKER, JpegConstants.SOF7_MARKER, JpegConstants.SOF9_MARKER, JpegConstants.SOF10_MARKER, JpegConstants.SOF11_MARKER,
+            JpegConstants.SOF13_MARKER, JpegConstants.SOF14_MARKER, JpegConstants.SOF15_MARKER, };
+
+    private static AbstractSegment createSegment(final int marker, final byte[] segmentData) throws ImagingException, IOException {
+        switch (marker) {
+        case JpegConstants.JPEG_APP13_MARKER:
+            return new App13Segment(marker, segmentData);
+        case JpegConstants.JPEG_APP14_MARKER:
+            return new App14Segment(marker, segmentData);
+        case JpegConstants.JPEG_APP2_MARKER:
+            return new App2Segment(marker, segmentData);
+        case JpegConstants.JFIF_MARKER:
+            return new JfifSegment(marker, segmentData);
+        default:
+            if (Arrays.binarySearch(SOFN_MARKERS, marker) >= 0) {
+                return new SofnSegment(marker, segmentData);
+            }
+            if (marker == JpegConstants.DQT_MARKER) {
+                return new DqtSegment(marker, segmentData);
+            }
+            if (marker >= JpegConstants.JPEG_APP1_MARKER && marker <= JpegConstants.JPEG_APP15_MARKER) {
+                return new UnknownSegment(marker, segmentData);
+            }
+            if (marker == JpegConstants.COM_MARKER) {
+                return new ComSegment(marker, segmentData);
+            }
+            return null;
+        }
+    }
+
+    private static boolean keepMarker(final int marker, final int[] markers) {
+        if (markers == null) {
+            return true;
+        }
+        for (final int marker2 : markers) {
+            if (marker2 == marker) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indexes the header segments of a JPEG file.
+     *
+     * @param byteSource the file.
+     * @return the index of its segments.
+     * @throws ImagingException if the file is not a valid JPEG file.
+     * @throws IOException      if an I/O error occurs.
+     */
+    static JpegSegmentIndex read(final ByteSource byteSource) throws ImagingException, IOException {
+        final List<Entry> entries = new ArrayList<>();
+        new JpegUtils().traverseJfif(byteSource, new JpegUtils.Visitor() {
+            @Override
+            public boolean beginSos() {
+                return false;
+            }
+
+            @Override
+            public boolean visitSegment(final int marker, final byte[] markerBytes, final int segmentLength, final byte[] segmentLengthBytes,
+                    final byte[] segmentData) {
+                // traverseJfif() calls the variant below, which is given the offset of the segment
+                return true;
+            }
+
+            @Override
+            public boolean visitSegment(final int marker, final byte[] markerBytes, final long offset, final int segmentLength,
+                    final byte[] segmentLengthBytes, final byte[] segmentData) {
+                entries.add(new Entry(marker, offset, segmentLength));
+                return true;
+            }
+
+            @Override
+            public void visitSos(final int marker, final byte[] markerBytes, final byte[] imageData) {
+                // not reached
+            }
+        });
+        return new JpegSegmentIndex(byteSource, entries);
+    }
+
+    private final ByteSource byteSource;
+    private final List<Entry> entries;
+
+    private JpegSegmentIndex(final ByteSource byteSource, final List<Entry> entries) {
+        this.byteSource = byteSource;
+        this.entries = entries;
+    }
+
+    /**
+     * Gets the length of a segment, including its two length bytes but not its marker, as stored in the file.
+     *
+     * @param index the number of the segment.
+     * @return the length.
+     */
+    int getLength(final int index) {
+        return entries.get(index).length;
+    }
+
+    /**
+     * Gets the marker of a segment.
+     *
+     * @param index the number of the segment.
+     * @return the marker.
+     */
+    int getMarker(final int index) {
+        return entries.get(index).marker;
+    }
+
+    /**
+     * Gets the offset in the file of the marker of a segment.
+     *
+     * @param index the number of the segment.
+     * @return the offset.
+     */
+    long getOffset(final int index) {
+        return entries.get(index).offset;
+    }
+
+    /**
+     * Reads the data of a segment, without its marker and length, from the byte source.
+     *
+     * @param index the number of the segment.
+     * @return the data.
+     * @throws IOException if an I/O error occurs.
+     */
+    byte[] getSegmentData(final int index) throws IOException {
+        final Entry entry = entries.get(index);
+        return byteSource.getByteArray(entry.offset + 4, entry.length - 2);
+    }
+
+    /**
+     * Parses the segments with the given markers, in the order they appear in the file. Segments of unknown types are left out.
+     *
+     * @param markers          the markers to keep, or null to keep all of them.
+     * @param returnAfterFirst whether to stop after the first segment.
+     * @return the segments.
+     * @throws ImagingException if a segment is invalid.
+     * @throws IOException      if an I/O error occurs.
+     */
+    List<AbstractSegment> getSegments(final int[] markers, final boolean returnAfterFirst) throws ImagingException, IOException {
+        final List<AbstractSegment> result = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            final int marker = entries.get(i).marker;
+            if (!keepMarker(marker, markers)) {
+                continue;
+            }
+            final AbstractSegment segment = createSegment(marker, getSegmentData(i));
+            if (segment != null) {
+                result.add(segment);
+            }
+            if (returnAfterFirst) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of segments.
+     *
+     * @return the number of segments.
+     */
+    int size() {
+        return entries.size();
+    }
+}
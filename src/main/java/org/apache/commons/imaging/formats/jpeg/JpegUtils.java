@@ -37,7 +37,44 @@ public class JpegUtils extends BinaryFileParser {
         boolean visitSegment(int marker, byte[] markerBytes, int segmentLength, byte[] segmentLengthBytes, byte[] segmentData)
                 throws ImagingException, IOException;
 
+        /**
+         * Visits a segment, given the offset of its marker in the file. The default implementation calls
+         * {@link #visitSegment(int, byte[], int, byte[], byte[])}.
+         *
+         * @param marker             the marker.
+         * @param markerBytes        the marker bytes.
+         * @param offset             the offset of the marker bytes in the file.
+         * @param segmentLength      the length of the segment, including its two length bytes.
+         * @param segmentLengthBytes the length bytes.
+         * @param segmentData        the data of the segment.
+         * @return false to exit traversal.
+         * @throws ImagingException if the segment is invalid.
+         * @throws IOException      if an I/O error occurs.
+         * @since 1.0.0-alpha6
+         */
+        default boolean visitSegment(final int marker, final byte[] markerBytes, final long offset, final int segmentLength,
+                final byte[] segmentLengthBytes, final byte[] segmentData) throws ImagingException, IOException {
+            return visitSegment(marker, markerBytes, segmentLength, segmentLengthBytes, segmentData);
+        }
+
         void visitSos(int marker, byte[] markerBytes, byte[] imageData);
+
+        /**
+         * Visits the image data that follows the first SOS marker as it is read, without buffering it first. The stream is positioned after the marker and
+         * must not be closed by the visitor.
+         * <p>
+         * The default implementation reads the remaining data into memory and calls {@link #visitSos(int, byte[], byte[])}.
+         * </p>
+         *
+         * @param marker      the marker.
+         * @param markerBytes the marker bytes.
+         * @param imageData   the image data, up to the end of the input.
+         * @throws IOException if an I/O error occurs.
+         * @since 1.0.0-alpha6
+         */
+        default void visitSos(final int marker, final byte[] markerBytes, final InputStream imageData) throws IOException {
+            visitSos(marker, markerBytes, IOUtils.toByteArray(imageData));
+        }
     }
 
     public static String getMarkerName(final int marker) {
@@ -151,6 +188,7 @@ public class JpegUtils extends BinaryFileParser {
     public void traverseJfif(final ByteSource byteSource, final Visitor visitor) throws ImagingException, IOException {
         try (InputStream is = byteSource.getInputStream()) {
             BinaryFunctions.readAndVerifyBytes(is, JpegConstants.SOI, "Not a Valid JPEG File: doesn't begin with 0xffd8");
+            long position = JpegConstants.SOI.size();
 
             int markerCount;
             for (markerCount = 0; true; markerCount++) {
@@ -158,6 +196,7 @@ public class JpegUtils extends BinaryFileParser {
                 do {
                     markerBytes[0] = markerBytes[1];
                     markerBytes[1] = BinaryFunctions.readByte("marker", is, "Could not read marker");
+                    position++;
                 } while ((0xff & markerBytes[0]) != 0xff || (0xff & markerBytes[1]) == 0xff);
                 final int marker = (0xff & markerBytes[0]) << 8 | 0xff & markerBytes[1];
 
@@ -166,8 +205,7 @@ public class JpegUtils extends BinaryFileParser {
                         return;
                     }
 
-                    final byte[] imageData = IOUtils.toByteArray(is);
-                    visitor.visitSos(marker, markerBytes, imageData);
+                    visitor.visitSos(marker, markerBytes, is);
                     break;
                 }
 
@@ -179,9 +217,10 @@ public class JpegUtils extends BinaryFileParser {
 
                 final byte[] segmentData = BinaryFunctions.readBytes("Segment Data", is, segmentLength - 2, "Invalid Segment: insufficient data");
 
-                if (!visitor.visitSegment(marker, markerBytes, segmentLength, segmentLengthBytes, segmentData)) {
+                if (!visitor.visitSegment(marker, markerBytes, position - 2, segmentLength, segmentLengthBytes, segmentData)) {
                     return;
                 }
+                position += segmentLength;
             }
 
             Debug.debug(markerCount + " markers");
@@ -0,0 +1,233 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import java.io.IOException;
+
+import org.apache.commons.imaging.ImagingException;
+
+/**
+ * Decodes the entropy-coded blocks of one scan into {@link ComponentCoefficients}.
+ *
+ * <p>
+ * Sequential scans carry all 64 coefficients of a block at once. Progressive scans carry either the DC coefficient or one band of AC coefficients
+ * (spectral selection), and either the first bits or one further bit of them (successive approximation), see Annex G of ITU-T T.81.
+ * </p>
+ */
+final class CoefficientDecoder {
+
+    private boolean progressive;
+    private int spectralStart;
+    private int spectralEnd;
+    private int approximationHigh;
+    private int approximationLow;
+    private int eobrun;
+
+    /**
+     * Decodes one block of the current scan.
+     *
+     * @param is        the entropy-coded data of the current restart interval.
+     * @param component the component the block belongs to.
+     * @param offset    the offset of the block in the component's coefficients.
+     * @throws ImagingException if the entropy-coded data is invalid.
+     * @throws IOException      if the entropy-coded data cannot be read.
+     */
+    void decodeBlock(final JpegInputStream is, final ComponentCoefficients component, final int offset) throws ImagingException, IOException {
+        if (!progressive) {
+            decodeSequential(is, component, offset);
+        } else if (spectralStart == 0) {
+            if (approximationHigh == 0) {
+                decodeDcFirst(is, component, offset);
+            } else {
+                decodeDcRefine(is, component, offset);
+            }
+        } else if (approximationHigh == 0) {
+            decodeAcFirst(is, component, offset);
+        } else {
+            decodeAcRefine(is, component, offset);
+        }
+    }
+
+    private void decodeAcFirst(final JpegInputStream is, final ComponentCoefficients component, final int offset) throws ImagingException, IOException {
+        // "Decode_AC_coefficients" with end-of-band runs, section G.1.2.2 of T.81
+        if (eobrun > 0) {
+            eobrun--;
+            return;
+        }
+        final short[] coefficients = component.coefficients;
+        int k = spectralStart;
+        while (k <= spectralEnd) {
+            final int rs = component.acTable.decode(is);
+            final int s = rs & 0xf;
+            final int r = rs >> 4;
+            if (s == 0) {
+                if (r < 15) {
+                    eobrun = (1 << r) - 1;
+                    if (r > 0) {
+                        eobrun += is.readBits(r);
+                    }
+                    break;
+                }
+                k += 16;
+            } else {
+                k += r;
+                if (k > 63) {
+                    throw new ImagingException("Invalid AC coefficient index " + k);
+                }
+                coefficients[offset + k] = (short) (JpegDecoder.extend(is.readBits(s), s) * (1 << approximationLow));
+                k++;
+            }
+        }
+    }
+
+    private void decodeAcRefine(final JpegInputStream is, final ComponentCoefficients component, final int offset) throws ImagingException, IOException {
+        // section G.1.2.3 of T.81: a newly significant coefficient is sent with its sign,
+        // while coefficients that are already non-zero receive one correction bit each
+        final short[] coefficients = component.coefficients;
+        final int p1 = 1 << approximationLow;
+        final int m1 = -1 << approximationLow;
+        int k = spectralStart;
+        if (eobrun == 0) {
+            for (; k <= spectralEnd; k++) {
+                final int rs = component.acTable.decode(is);
+                int r = rs >> 4;
+                int s = rs & 0xf;
+                if (s != 0) {
+                    if (s != 1) {
+                        throw new ImagingException("Invalid successive approximation coefficient size " + s);
+                    }
+                    s = is.nextBit() != 0 ? p1 : m1;
+                } else if (r != 15) {
+                    eobrun = 1 << r;
+                    if (r > 0) {
+                        eobrun += is.readBits(r);
+                    }
+                    break;
+                }
+                do {
+                    final int coefficient = coefficients[offset + k];
+                    if (coefficient != 0) {
+                        refine(is, coefficients, offset + k, p1, m1);
+                    } else if (--r < 0) {
+                        break;
+                    }
+                    k++;
+                } while (k <= spectralEnd);
+                if (s != 0) {
+                    if (k > 63) {
+                        throw new ImagingException("Invalid AC coefficient index " + k);
+                    }
+                    coefficients[offset + k] = (short) s;
+                }
+            }
+        }
+        if (eobrun > 0) {
+            for (; k <= spectralEnd; k++) {
+                if (coefficients[offset + k] != 0) {
+                    refine(is, coefficients, offset + k, p1, m1);
+                }
+            }
+            eobrun--;
+        }
+    }
+
+    private void decodeDcFirst(final JpegInputStream is, final ComponentCoefficients component, final int offset) throws ImagingException, IOException {
+        // section G.1.2.1 of T.81
+        final int t = component.dcTable.decode(is);
+        final int diff = t == 0 ? 0 : JpegDecoder.extend(is.readBits(t), t);
+        component.pred += diff;
+        component.coefficients[offset] = (short) (component.pred * (1 << approximationLow));
+    }
+
+    private void decodeDcRefine(final JpegInputStream is, final ComponentCoefficients component, final int offset) throws ImagingException, IOException {
+        if (is.nextBit() != 0) {
+            component.coefficients[offset] |= 1 << approximationLow;
+        }
+    }
+
+    private void decodeSequential(final JpegInputStream is, final ComponentCoefficients component, final int offset) throws ImagingException, IOException {
+        // page 104 of T.81
+        final short[] coefficients = component.coefficients;
+        final int t = component.dcTable.decode(is);
+        final int diff = JpegDecoder.extend(is.readBits(t), t);
+        component.pred += diff;
+        coefficients[offset] = (short) component.pred;
+
+        // "Decode_AC_coefficients", figure F.13, page 106 of T.81
+        int k = 1;
+        while (k < 64) {
+            final int rs = component.acTable.decode(is);
+            final int s = rs & 0xf;
+            final int r = rs >> 4;
+            if (s == 0) {
+                if (r != 15) {
+                    break;
+                }
+                k += 16;
+            } else {
+                k += r;
+                if (k > 63) {
+                    throw new ImagingException("Invalid AC coefficient index " + k);
+                }
+                coefficients[offset + k] = (short) JpegDecoder.extend(is.readBits(s), s);
+                k++;
+            }
+        }
+    }
+
+    private void refine(final JpegInputStream is, final short[] coefficients, final int index, final int p1, final int m1)
+            throws ImagingException, IOException {
+        if (is.nextBit() != 0) {
+            final int coefficient = coefficients[index];
+            if ((coefficient & p1) == 0) {
+                coefficients[index] = (short) (coefficient >= 0 ? coefficient + p1 : coefficient + m1);
+            }
+        }
+    }
+
+    /**
+     * Resets the state that does not carry over a restart marker.
+     */
+    void restart() {
+        eobrun = 0;
+    }
+
+    /**
+     * Prepares the decoder for a new scan.
+     *
+     * @param progressive       whether the frame uses progressive DCT-based coding.
+     * @param spectralStart     the start of spectral selection, Ss.
+     * @param spectralEnd       the end of spectral selection, Se.
+     * @param approximationHigh the successive approximation bit position high, Ah.
+     * @param approximationLow  the successive approximation bit position low, Al.
+     * @throws ImagingException if the parameters are not valid for the frame type.
+     */
+    void startScan(final boolean progressive, final int spectralStart, final int spectralEnd, final int approximationHigh, final int approximationLow)
+            throws ImagingException {
+        if (progressive) {
+            if (spectralEnd > 63 || spectralStart > spectralEnd || spectralStart == 0 && spectralEnd != 0 || approximationLow > 13) {
+                throw new ImagingException("Invalid progressive scan parameters Ss=" + spectralStart + ", Se=" + spectralEnd + ", Ah=" + approximationHigh
+                        + ", Al=" + approximationLow);
+            }
+        }
+        this.progressive = progressive;
+        this.spectralStart = spectralStart;
+        this.spectralEnd = spectralEnd;
+        this.approximationHigh = approximationHigh;
+        this.approximationLow = approximationLow;
+        this.eobrun = 0;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import org.apache.commons.imaging.common.Allocator;
+import org.apache.commons.imaging.formats.jpeg.segments.SofnSegment;
+
+/**
+ * Quantized DCT coefficients of one frame component, kept for the whole frame so that several scans can contribute to them.
+ *
+ * <p>
+ * Coefficients are stored in zig-zag order, 64 per block, with the blocks laid out row by row. The buffer covers every block of the interleaved MCUs,
+ * including the padding blocks at the right and bottom edges that non-interleaved scans skip (A.2.3 of T.81).
+ * </p>
+ */
+final class ComponentCoefficients {
+
+    final SofnSegment.Component frameComponent;
+
+    /** Number of blocks per line that hold image data, as visited by a non-interleaved scan. */
+    final int blocksPerLine;
+
+    /** Number of block lines that hold image data, as visited by a non-interleaved scan. */
+    final int blocksPerColumn;
+
+    /** Number of blocks per line of the coefficient buffer, a multiple of the horizontal sampling factor. */
+    final int blocksPerLineForMcu;
+
+    final short[] coefficients;
+
+    // Scan state, set up by the decoder before each scan.
+    HuffmanDecoder dcTable;
+    HuffmanDecoder acTable;
+    int pred;
+
+    ComponentCoefficients(final SofnSegment.Component frameComponent, final int width, final int height, final int hMax, final int vMax, final int xMCUs,
+            final int yMCUs) {
+        this.frameComponent = frameComponent;
+        final int componentWidth = (width * frameComponent.horizontalSamplingFactor + hMax - 1) / hMax;
+        final int componentHeight = (height * frameComponent.verticalSamplingFactor + vMax - 1) / vMax;
+        this.blocksPerLine = (componentWidth + 7) / 8;
+        this.blocksPerColumn = (componentHeight + 7) / 8;
+        this.blocksPerLineForMcu = xMCUs * frameComponent.horizontalSamplingFactor;
+        final int blocksPerColumnForMcu = yMCUs * frameComponent.verticalSamplingFactor;
+        this.coefficients = Allocator.shortArray(Allocator.check(64L * blocksPerLineForMcu * blocksPerColumnForMcu, Short.BYTES));
+    }
+
+    /**
+     * Gets the offset of the first coefficient of a block.
+     *
+     * @param blockRow    the block line.
+     * @param blockColumn the block column.
+     * @return the offset into {@link #coefficients}.
+     */
+    int offset(final int blockRow, final int blockColumn) {
+        return (blockRow * blocksPerLineForMcu + blockColumn) * 64;
+    }
+}
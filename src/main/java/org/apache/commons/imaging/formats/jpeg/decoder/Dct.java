@@ -59,6 +59,32 @@ final class Dct {
     private static final float A4 = (float) (Math.cos(Math.PI / 8.0) + Math.cos(3.0 * Math.PI / 8.0));
     private static final float A5 = (float) Math.cos(3.0 * Math.PI / 8.0);
 
+    // fixed-point constants of the integer inverse DCT, round(x * 2^CONST_BITS)
+    private static final int CONST_BITS = 13;
+    private static final int PASS1_BITS = 2;
+    private static final int FIX_0_211164243 = 1730;
+    private static final int FIX_0_298631336 = 2446;
+    private static final int FIX_0_390180644 = 3196;
+    private static final int FIX_0_509795579 = 4176;
+    private static final int FIX_0_541196100 = 4433;
+    private static final int FIX_0_601344887 = 4926;
+    private static final int FIX_0_720959822 = 5906;
+    private static final int FIX_0_765366865 = 6270;
+    private static final int FIX_0_850430095 = 6967;
+    private static final int FIX_0_899976223 = 7373;
+    private static final int FIX_1_061594337 = 8697;
+    private static final int FIX_1_175875602 = 9633;
+    private static final int FIX_1_272758580 = 10426;
+    private static final int FIX_1_451774981 = 11893;
+    private static final int FIX_1_501321110 = 12299;
+    private static final int FIX_1_847759065 = 15137;
+    private static final int FIX_1_961570560 = 16069;
+    private static final int FIX_2_053119869 = 16819;
+    private static final int FIX_2_172734803 = 17799;
+    private static final int FIX_2_562915447 = 20995;
+    private static final int FIX_3_072711026 = 25172;
+    private static final int FIX_3_624509785 = 29692;
+
     private static final float C2 = (float) (2.0 * Math.cos(Math.PI / 8));
     private static final float C4 = (float) (2.0 * Math.cos(2 * Math.PI / 8));
     private static final float C6 = (float) (2.0 * Math.cos(3 * Math.PI / 8));
@@ -355,6 +381,194 @@ final class Dct {
         }
     }
 
+    /**
+     * Integer inverse DCT using the Loeffler, Ligtenberg and Moschytz algorithm with 13-bit fixed-point constants, the "islow" method of the IJG's
+     * jidctint.c. It matches the float AA&amp;N version to within one unit after rounding and avoids the float conversions of the samples; a column or
+     * row with only a DC term is a single shift.
+     *
+     * @param matrix the dequantized coefficients in natural order, replaced by the samples before the level shift. Only valid for 8-bit samples, whose
+     *               coefficients leave enough headroom for the fixed-point arithmetic.
+     */
+    static void inverseDct8x8(final int[] matrix) {
+        // pass 1: columns, results are scaled up by 2^PASS1_BITS
+        for (int i = 0; i < 8; i++) {
+            if ((matrix[8 + i] | matrix[16 + i] | matrix[24 + i] | matrix[32 + i] | matrix[40 + i] | matrix[48 + i] | matrix[56 + i]) == 0) {
+                final int dc = matrix[i] << PASS1_BITS;
+                for (int j = 8 + i; j < 64; j += 8) {
+                    matrix[j] = dc;
+                }
+                matrix[i] = dc;
+                continue;
+            }
+            inverseDct8Int(matrix, i, 8, CONST_BITS - PASS1_BITS);
+        }
+        // pass 2: rows, which also removes the PASS1_BITS scaling and the factor 8 of the 2-D transform
+        for (int i = 0; i < 64; i += 8) {
+            if ((matrix[i + 1] | matrix[i + 2] | matrix[i + 3] | matrix[i + 4] | matrix[i + 5] | matrix[i + 6] | matrix[i + 7]) == 0) {
+                final int dc = matrix[i] + (1 << PASS1_BITS + 2) >> PASS1_BITS + 3;
+                for (int j = i; j < i + 8; j++) {
+                    matrix[j] = dc;
+                }
+                continue;
+            }
+            inverseDct8Int(matrix, i, 1, CONST_BITS + PASS1_BITS + 3);
+        }
+    }
+
+    private static void inverseDct8Int(final int[] matrix, final int offset, final int step, final int descale) {
+        // even part
+        int z2 = matrix[offset + 2 * step];
+        int z3 = matrix[offset + 6 * step];
+        int z1 = (z2 + z3) * FIX_0_541196100;
+        int tmp2 = z1 - z3 * FIX_1_847759065;
+        int tmp3 = z1 + z2 * FIX_0_765366865;
+        z2 = matrix[offset];
+        z3 = matrix[offset + 4 * step];
+        int tmp0 = z2 + z3 << CONST_BITS;
+        int tmp1 = z2 - z3 << CONST_BITS;
+        final int tmp10 = tmp0 + tmp3;
+        final int tmp13 = tmp0 - tmp3;
+        final int tmp11 = tmp1 + tmp2;
+        final int tmp12 = tmp1 - tmp2;
+
+        // odd part
+        tmp0 = matrix[offset + 7 * step];
+        tmp1 = matrix[offset + 5 * step];
+        tmp2 = matrix[offset + 3 * step];
+        tmp3 = matrix[offset + step];
+        z1 = tmp0 + tmp3;
+        z2 = tmp1 + tmp2;
+        z3 = tmp0 + tmp2;
+        int z4 = tmp1 + tmp3;
+        final int z5 = (z3 + z4) * FIX_1_175875602;
+        tmp0 *= FIX_0_298631336;
+        tmp1 *= FIX_2_053119869;
+        tmp2 *= FIX_3_072711026;
+        tmp3 *= FIX_1_501321110;
+        z1 *= -FIX_0_899976223;
+        z2 *= -FIX_2_562915447;
+        z3 = z3 * -FIX_1_961570560 + z5;
+        z4 = z4 * -FIX_0_390180644 + z5;
+        tmp0 += z1 + z3;
+        tmp1 += z2 + z4;
+        tmp2 += z2 + z3;
+        tmp3 += z1 + z4;
+
+        final int round = 1 << descale - 1;
+        matrix[offset] = tmp10 + tmp3 + round >> descale;
+        matrix[offset + 7 * step] = tmp10 - tmp3 + round >> descale;
+        matrix[offset + step] = tmp11 + tmp2 + round >> descale;
+        matrix[offset + 6 * step] = tmp11 - tmp2 + round >> descale;
+        matrix[offset + 2 * step] = tmp12 + tmp1 + round >> descale;
+        matrix[offset + 5 * step] = tmp12 - tmp1 + round >> descale;
+        matrix[offset + 3 * step] = tmp13 + tmp0 + round >> descale;
+        matrix[offset + 4 * step] = tmp13 - tmp0 + round >> descale;
+    }
+
+    /**
+     * Integer inverse DCT that produces a 4x4 block, the top left quarter of the output of {@link #inverseDct8x8(int[])} scaled down by two in each
+     * direction, after the IJG's jidctred.c. Row 4 and column 4 of the coefficients do not contribute.
+     *
+     * @param matrix the dequantized coefficients in natural order, whose first 16 elements are replaced by the samples before the level shift, 4 per row.
+     */
+    static void inverseDct4x4(final int[] matrix) {
+        // pass 1: columns into rows 0 to 3, column 4 is not needed by pass 2
+        for (int i = 0; i < 8; i++) {
+            if (i == 4) {
+                continue;
+            }
+            if ((matrix[8 + i] | matrix[16 + i] | matrix[24 + i] | matrix[40 + i] | matrix[48 + i] | matrix[56 + i]) == 0) {
+                final int dc = matrix[i] << PASS1_BITS;
+                matrix[i] = dc;
+                matrix[8 + i] = dc;
+                matrix[16 + i] = dc;
+                matrix[24 + i] = dc;
+                continue;
+            }
+            inverseDct4Int(matrix, i, 8, i, 8, CONST_BITS - PASS1_BITS + 1);
+        }
+        // pass 2: rows 0 to 3, written 4 samples per row
+        for (int row = 0; row < 4; row++) {
+            final int i = 8 * row;
+            if ((matrix[i + 1] | matrix[i + 2] | matrix[i + 3] | matrix[i + 5] | matrix[i + 6] | matrix[i + 7]) == 0) {
+                final int dc = matrix[i] + (1 << PASS1_BITS + 2) >> PASS1_BITS + 3;
+                matrix[4 * row] = dc;
+                matrix[4 * row + 1] = dc;
+                matrix[4 * row + 2] = dc;
+                matrix[4 * row + 3] = dc;
+                continue;
+            }
+            inverseDct4Int(matrix, i, 1, 4 * row, 1, CONST_BITS + PASS1_BITS + 3 + 1);
+        }
+    }
+
+    private static void inverseDct4Int(final int[] matrix, final int offset, final int step, final int outputOffset, final int outputStep,
+            final int descale) {
+        // even part
+        int tmp0 = matrix[offset] << CONST_BITS + 1;
+        int tmp2 = matrix[offset + 2 * step] * FIX_1_847759065 - matrix[offset + 6 * step] * FIX_0_765366865;
+        final int tmp10 = tmp0 + tmp2;
+        final int tmp12 = tmp0 - tmp2;
+
+        // odd part
+        final int z1 = matrix[offset + 7 * step];
+        final int z2 = matrix[offset + 5 * step];
+        final int z3 = matrix[offset + 3 * step];
+        final int z4 = matrix[offset + step];
+        tmp0 = -z1 * FIX_0_211164243 + z2 * FIX_1_451774981 - z3 * FIX_2_172734803 + z4 * FIX_1_061594337;
+        tmp2 = -z1 * FIX_0_509795579 - z2 * FIX_0_601344887 + z3 * FIX_0_899976223 + z4 * FIX_2_562915447;
+
+        final int round = 1 << descale - 1;
+        matrix[outputOffset] = tmp10 + tmp2 + round >> descale;
+        matrix[outputOffset + 3 * outputStep] = tmp10 - tmp2 + round >> descale;
+        matrix[outputOffset + outputStep] = tmp12 + tmp0 + round >> descale;
+        matrix[outputOffset + 2 * outputStep] = tmp12 - tmp0 + round >> descale;
+    }
+
+    /**
+     * Integer inverse DCT that produces a 2x2 block, the output of {@link #inverseDct8x8(int[])} scaled down by four in each direction, after the IJG's
+     * jidctred.c. Only the DC and the odd coefficients of the first two rows and columns contribute.
+     *
+     * @param matrix the dequantized coefficients in natural order, whose first 4 elements are replaced by the samples before the level shift, 2 per row.
+     */
+    static void inverseDct2x2(final int[] matrix) {
+        // pass 1: columns 0, 1, 3, 5 and 7 into rows 0 and 1
+        for (int i = 0; i < 8; i++) {
+            if (i == 2 || i == 4 || i == 6) {
+                continue;
+            }
+            if ((matrix[8 + i] | matrix[24 + i] | matrix[40 + i] | matrix[56 + i]) == 0) {
+                final int dc = matrix[i] << PASS1_BITS;
+                matrix[i] = dc;
+                matrix[8 + i] = dc;
+                continue;
+            }
+            inverseDct2Int(matrix, i, 8, i, 8, CONST_BITS - PASS1_BITS + 2);
+        }
+        // pass 2: rows 0 and 1, written 2 samples per row
+        inverseDct2Int(matrix, 0, 1, 0, 1, CONST_BITS + PASS1_BITS + 3 + 2);
+        inverseDct2Int(matrix, 8, 1, 2, 1, CONST_BITS + PASS1_BITS + 3 + 2);
+    }
+
+    private static void inverseDct2Int(final int[] matrix, final int offset, final int step, final int outputOffset, final int outputStep,
+            final int descale) {
+        final int tmp10 = matrix[offset] << CONST_BITS + 2;
+        final int tmp0 = -matrix[offset + 7 * step] * FIX_0_720959822 + matrix[offset + 5 * step] * FIX_0_850430095
+                - matrix[offset + 3 * step] * FIX_1_272758580 + matrix[offset + step] * FIX_3_624509785;
+        final int round = 1 << descale - 1;
+        matrix[outputOffset] = tmp10 + tmp0 + round >> descale;
+        matrix[outputOffset + outputStep] = tmp10 - tmp0 + round >> descale;
+    }
+
+    /**
+     * Inverse DCT that produces a single sample, the average of the output of {@link #inverseDct8x8(int[])}, from the DC coefficient alone.
+     *
+     * @param matrix the dequantized coefficients in natural order, whose first element is replaced by the sample before the level shift.
+     */
+    static void inverseDct1x1(final int[] matrix) {
+        matrix[0] = matrix[0] + 4 >> 3;
+    }
+
     public static void scaleDequantizationMatrix(final float[] matrix) {
         for (int y = 0; y < 8; y++) {
             for (int x = 0; x < 8; x++) {
@@ -0,0 +1,81 @@
+/*
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  under the License.
+ */
+
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import java.io.IOException;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.formats.jpeg.segments.DhtSegment;
+
+/**
+ * Decodes the values of one Huffman table, the DECODE procedure of figure F.16 of T.81.
+ * <p>
+ * Codes of up to {@link #LOOKAHEAD_BITS} bits, which make up the bulk of the entropy-coded data, are resolved with a single lookup of the next bits. Longer
+ * codes fall back to comparing the code against the largest code of each length.
+ * </p>
+ */
+final class HuffmanDecoder {
+
+    static final int LOOKAHEAD_BITS = 9;
+
+    private final DhtSegment.HuffmanTable table;
+
+    // indexed by the next LOOKAHEAD_BITS bits: the code length << 8 | the value, or 0 if the code is longer
+    private final int[] lookup = new int[1 << LOOKAHEAD_BITS];
+
+    HuffmanDecoder(final DhtSegment.HuffmanTable table) throws ImagingException {
+        this.table = table;
+        for (int length = 1; length <= LOOKAHEAD_BITS; length++) {
+            final int maxCode = table.getMaxCode(length);
+            if (maxCode >= 1 << length) {
+                throw new ImagingException("Invalid Huffman table: too many codes of length " + length);
+            }
+            final int shift = LOOKAHEAD_BITS - length;
+            for (int code = table.getMinCode(length); code <= maxCode; code++) {
+                final int value = table.getHuffVal(table.getValPtr(length) + code - table.getMinCode(length));
+                final int first = code << shift;
+                for (int i = 0; i < 1 << shift; i++) {
+                    lookup[first + i] = length << 8 | value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes the next value.
+     *
+     * @param is the entropy-coded data.
+     * @return the value.
+     * @throws ImagingException if the data holds no valid code or ends before.
+     * @throws IOException      if the data cannot be read.
+     */
+    int decode(final JpegInputStream is) throws ImagingException, IOException {
+        final int entry = lookup[is.peekBits(LOOKAHEAD_BITS)];
+        if (entry != 0) {
+            is.skipBits(entry >> 8);
+            return entry & 0xff;
+        }
+        final int bits = is.peekBits(16);
+        for (int length = LOOKAHEAD_BITS + 1; length <= 16; length++) {
+            final int code = bits >>> 16 - length;
+            if (code <= table.getMaxCode(length)) {
+                is.skipBits(length);
+                return table.getHuffVal(table.getValPtr(length) + code - table.getMinCode(length));
+            }
+        }
+        throw new ImagingException("Invalid Huffman code");
+    }
+}
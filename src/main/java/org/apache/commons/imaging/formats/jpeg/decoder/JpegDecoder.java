@@ -18,24 +18,31 @@ package org.apache.commons.imaging.formats.jpeg.decoder;
 import static org.apache.commons.imaging.common.BinaryFunctions.read2Bytes;
 import static org.apache.commons.imaging.common.BinaryFunctions.readBytes;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.awt.image.DirectColorModel;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.color.ColorConversions;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.BinaryFileParser;
+import org.apache.commons.imaging.common.ByteConversions;
+import org.apache.commons.imaging.common.ParallelTasks;
 import org.apache.commons.imaging.formats.jpeg.JpegConstants;
 import org.apache.commons.imaging.formats.jpeg.JpegUtils;
 import org.apache.commons.imaging.formats.jpeg.segments.DhtSegment;
@@ -44,9 +51,38 @@ import org.apache.commons.imaging.formats.jpeg.segments.DqtSegment;
 import org.apache.commons.imaging.formats.jpeg.segments.DqtSegment.QuantizationTable;
 import org.apache.commons.imaging.formats.jpeg.segments.SofnSegment;
 import org.apache.commons.imaging.formats.jpeg.segments.SosSegment;
+import org.apache.commons.io.IOUtils;
 
 public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
 
+    /**
+     * Scratch space for decoding blocks, one per thread that decodes MCUs.
+     */
+    private static final class BlockBuffers {
+        final int[] zz = new int[64];
+        final int[] blockInt = new int[64];
+        final float[] block = new float[64];
+        // for each component of the MCU, the sample offset of each pixel column and the sample row offset of each pixel row, which upsamples by
+        // repeating samples
+        final int[][] columns;
+        final int[][] rows;
+
+        BlockBuffers(final Block[] mcu, final int hSize, final int vSize) {
+            columns = new int[mcu.length][hSize];
+            rows = new int[mcu.length][vSize];
+            for (int i = 0; i < mcu.length; i++) {
+                final int hScale = hSize / mcu[i].width;
+                final int vScale = vSize / mcu[i].height;
+                for (int x = 0; x < hSize; x++) {
+                    columns[i][x] = x / hScale;
+                }
+                for (int y = 0; y < vSize; y++) {
+                    rows[i][y] = y / vScale * mcu[i].width;
+                }
+            }
+        }
+    }
+
     private static final int[] BAND_MASK_ARGB = { 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000 };
     private static final int[] BAND_MASK_RGB = { 0x00ff0000, 0x0000ff00, 0x000000ff };
 
@@ -67,23 +103,24 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
      * @param scanPayload array to examine
      * @return the start positions
      */
-    static List<Integer> getIntervalStartPositions(final int[] scanPayload) {
+    static List<Integer> getIntervalStartPositions(final byte[] scanPayload) {
         final List<Integer> intervalStarts = new ArrayList<>();
         intervalStarts.add(0);
         boolean foundFF = false;
         boolean foundD0toD7 = false;
         int pos = 0;
         while (pos < scanPayload.length) {
+            final int b = 0xff & scanPayload[pos];
             if (foundFF) {
                 // found 0xFF D0 .. 0xFF D7 => RST marker
-                if (scanPayload[pos] >= (0xff & JpegConstants.RST0_MARKER) && scanPayload[pos] <= (0xff & JpegConstants.RST7_MARKER)) {
+                if (b >= (0xff & JpegConstants.RST0_MARKER) && b <= (0xff & JpegConstants.RST7_MARKER)) {
                     foundD0toD7 = true;
                 } else { // found 0xFF followed by something else => no RST marker
                     foundFF = false;
                 }
             }
 
-            if (scanPayload[pos] == 0xFF) {
+            if (b == 0xFF) {
                 foundFF = true;
             }
 
@@ -100,12 +137,13 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
     }
 
     /**
-     * Returns an array of JpegInputStream where each field contains the JpegInputStream for one interval.
+     * Returns an array of JpegInputStream where each field contains the JpegInputStream for one interval. The streams are views of the array, which is
+     * not copied.
      *
      * @param scanPayload array to read intervals from
      * @return JpegInputStreams for all intervals, at least one stream is always provided
      */
-    static JpegInputStream[] splitByRstMarkers(final int[] scanPayload) {
+    static JpegInputStream[] splitByRstMarkers(final byte[] scanPayload) {
         final List<Integer> intervalStarts = getIntervalStartPositions(scanPayload);
         // get number of intervals in payload to init an array of appropriate length
         final int intervalCount = intervalStarts.size();
@@ -120,29 +158,50 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
             } else { // the last interval ends with the array
                 to = scanPayload.length;
             }
-            final int[] interval = Arrays.copyOfRange(scanPayload, from, to);
-            streams[i] = new JpegInputStream(interval);
+            streams[i] = new JpegInputStream(scanPayload, from, to - from);
         }
         return streams;
     }
 
     private final DqtSegment.QuantizationTable[] quantizationTables = new DqtSegment.QuantizationTable[4];
-    private final DhtSegment.HuffmanTable[] huffmanDCTables = new DhtSegment.HuffmanTable[4];
-    private final DhtSegment.HuffmanTable[] huffmanACTables = new DhtSegment.HuffmanTable[4];
+    private final HuffmanDecoder[] huffmanDCTables = new HuffmanDecoder[4];
+    private final HuffmanDecoder[] huffmanACTables = new HuffmanDecoder[4];
     private SofnSegment sofnSegment;
     private SosSegment sosSegment;
     private final float[][] scaledQuantizationTables = new float[4][];
+    private final int[][] quantizationMatrices = new int[4][];
     private BufferedImage image;
     private ImagingException imageReadException;
     private IOException ioException;
 
-    private final int[] zz = new int[64];
+    private boolean useTiffRgb;
+
+    private int restartInterval;
 
-    private final int[] blockInt = new int[64];
+    private ExecutorService decodeExecutor;
 
-    private final float[] block = new float[64];
+    private boolean integerIdct;
 
-    private boolean useTiffRgb;
+    private int scaleDenominator = 1;
+
+    // the size of the samples of a block and of the decoded image, which are reduced when scaling down
+    private int blockSize;
+    private int width;
+    private int height;
+    private int hMax;
+    private int vMax;
+
+    private Rectangle subImage;
+
+    // the part of the decoded image that is produced, and the MCUs that cover it
+    private int regionX;
+    private int regionY;
+    private int regionWidth;
+    private int regionHeight;
+    private int firstRegionColumn;
+    private int lastRegionColumn;
+    private int firstRegionRow;
+    private int lastRegionRow;
 
     private Block[] allocateMcuMemory() throws ImagingException {
         final Block[] mcu = Allocator.array(sosSegment.numberOfComponents, Block[]::new, Block.SHALLOW_SIZE);
@@ -158,7 +217,8 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
             if (frameComponent == null) {
                 throw new ImagingException("Invalid component");
             }
-            final Block fullBlock = new Block(8 * frameComponent.horizontalSamplingFactor, 8 * frameComponent.verticalSamplingFactor);
+            final int size = getBlockSize(frameComponent);
+            final Block fullBlock = new Block(size * frameComponent.horizontalSamplingFactor, size * frameComponent.verticalSamplingFactor);
             mcu[i] = fullBlock;
         }
         return mcu;
@@ -181,20 +241,215 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
         return image;
     }
 
-    private int decode(final JpegInputStream is, final DhtSegment.HuffmanTable huffmanTable) throws ImagingException {
-        // "DECODE", section F.2.2.3, figure F.16, page 109 of T.81
-        int i = 1;
-        int code = is.nextBit();
-        while (code > huffmanTable.getMaxCode(i)) {
-            i++;
-            code = code << 1 | is.nextBit();
+    /**
+     * Decodes the restart intervals of a sequential scan on the decode executor. The intervals are independent: each starts with fresh DC predictions
+     * and covers its own MCUs, so every task writes a separate part of the raster.
+     */
+    private void decodeIntervalsConcurrently(final InputStream is, final int mcuCount, final int xMCUs, final int hSize, final int vSize,
+            final int[] pixels) throws ImagingException, IOException {
+        final byte[] scanData = IOUtils.toByteArray(is);
+        final JpegInputStream[] intervals = splitByRstMarkers(scanData);
+        final int intervalCount = (mcuCount + restartInterval - 1) / restartInterval;
+        if (intervals.length < intervalCount) {
+            // restart markers are missing, so intervals can't be located up front
+            decodeMcuRange(new JpegInputStream(new ByteArrayInputStream(scanData)), 0, mcuCount, xMCUs, hSize, vSize, pixels);
+            return;
+        }
+        final List<Future<?>> futures = new ArrayList<>(intervalCount);
+        try {
+            for (int i = 0; i < intervalCount; i++) {
+                final JpegInputStream interval = intervals[i];
+                final int firstMcu = i * restartInterval;
+                final int endMcu = Math.min(firstMcu + restartInterval, mcuCount);
+                if (!isRangeInRegion(firstMcu, endMcu, xMCUs)) {
+                    continue;
+                }
+                futures.add(decodeExecutor.submit(() -> {
+                    decodeMcuRange(interval, firstMcu, endMcu, xMCUs, hSize, vSize, pixels);
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                ParallelTasks.await(future, "decoding JPEG image data");
+            }
+        } finally {
+            for (final Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Decodes a range of MCUs of a sequential scan and writes their pixels.
+     *
+     * @param is         the entropy-coded data, starting with the first MCU of the range.
+     * @param firstMcu   the index of the first MCU, which must start a restart interval.
+     * @param endMcu     the index after the last MCU.
+     * @param xMCUs      the number of MCUs per line.
+     * @param hSize      the width of an MCU.
+     * @param vSize      the height of an MCU.
+     * @param pixels     the destination of the pixels, one packed pixel per int.
+     */
+    private void decodeMcuRange(final JpegInputStream is, final int firstMcu, final int endMcu, final int xMCUs, final int hSize, final int vSize,
+            final int[] pixels) throws ImagingException, IOException {
+        final Block[] mcu = allocateMcuMemory();
+        final int[] preds = Allocator.intArray(sofnSegment.numberOfComponents);
+        final BlockBuffers buffers = new BlockBuffers(mcu, hSize, vSize);
+        // nothing after the last MCU of the region is needed
+        final int lastMcu = Math.min(endMcu, lastRegionRow * xMCUs + lastRegionColumn + 1);
+
+        for (int mcuIndex = firstMcu; mcuIndex < lastMcu; mcuIndex++) {
+            // Continue with the next interval as long as there are restart markers
+            if (mcuIndex > firstMcu && isRestart(mcuIndex, is) && is.nextInterval()) {
+                // DC predictions start over in each interval, section F.2.1.3.1 of T.81
+                Arrays.fill(preds, 0);
+            }
+            if (restartInterval > 0 && mcuIndex % restartInterval == 0 && !isRangeInRegion(mcuIndex, mcuIndex + restartInterval, xMCUs)) {
+                // the data of an interval outside the region is skipped up to the next restart marker
+                mcuIndex += restartInterval - 1;
+                continue;
+            }
+            // MCUs outside the region are only Huffman decoded, to keep track of the DC predictions
+            final boolean inRegion = isMcuInRegion(mcuIndex, xMCUs);
+            readMcu(is, preds, mcu, buffers, inRegion);
+            if (inRegion) {
+                writeMcu(mcu, buffers, hSize, vSize, mcuIndex % xMCUs * hSize, mcuIndex / xMCUs * vSize, pixels);
+            }
         }
-        int j = huffmanTable.getValPtr(i);
-        j += code - huffmanTable.getMinCode(i);
-        return huffmanTable.getHuffVal(j);
     }
 
-    private int extend(int v, final int t) {
+    /**
+     * Decodes all scans of a frame into coefficient buffers and then converts the coefficients into pixels.
+     *
+     * @param is         the image data, positioned at the entropy-coded data of the first scan.
+     * @param xMCUs      the number of MCUs per line.
+     * @param yMCUs      the number of MCU lines.
+     * @param pixels     the destination of the pixels, one packed pixel per int.
+     */
+    private void decodeScans(final InputStream is, final int xMCUs, final int yMCUs, final int[] pixels)
+            throws ImagingException, IOException {
+        final ComponentCoefficients[] components = new ComponentCoefficients[sofnSegment.numberOfComponents];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = new ComponentCoefficients(sofnSegment.getComponents(i), sofnSegment.width, sofnSegment.height, hMax, vMax, xMCUs, yMCUs);
+        }
+        final CoefficientDecoder coefficientDecoder = new CoefficientDecoder();
+        final JpegInputStream bitInputStream = new JpegInputStream(is);
+
+        boolean moreScans = true;
+        while (moreScans) {
+            decodeScan(components, bitInputStream, coefficientDecoder, xMCUs, yMCUs);
+
+            // tables and the restart interval may be redefined between scans
+            moreScans = false;
+            int segmentMarker;
+            while (!moreScans && (segmentMarker = bitInputStream.nextMarker()) >= 0 && segmentMarker != JpegConstants.EOI_MARKER) {
+                final byte[] segmentLengthBytes = bitInputStream.readBytes(2);
+                final int segmentLength = ByteConversions.toUInt16(segmentLengthBytes, getByteOrder());
+                if (segmentLength < 2) {
+                    throw new ImagingException("Invalid segment size");
+                }
+                final byte[] segmentData = bitInputStream.readBytes(segmentLength - 2);
+                if (segmentMarker == JpegConstants.SOS_MARKER) {
+                    sosSegment = new SosSegment(segmentMarker, segmentData);
+                    moreScans = true;
+                } else if (segmentMarker == JpegConstants.DHT_MARKER || segmentMarker == JpegConstants.DQT_MARKER
+                        || segmentMarker == JpegConstants.DRI_MARKER) {
+                    final byte[] segmentMarkerBytes = { (byte) (segmentMarker >> 8), (byte) segmentMarker };
+                    visitSegment(segmentMarker, segmentMarkerBytes, segmentLength, segmentLengthBytes, segmentData);
+                }
+            }
+        }
+
+        final int hSize = blockSize * hMax;
+        final int vSize = blockSize * vMax;
+        final Block[] mcu = Allocator.array(components.length, Block[]::new, Block.SHALLOW_SIZE);
+        for (int i = 0; i < mcu.length; i++) {
+            final SofnSegment.Component frameComponent = components[i].frameComponent;
+            final int size = getBlockSize(frameComponent);
+            mcu[i] = new Block(size * frameComponent.horizontalSamplingFactor, size * frameComponent.verticalSamplingFactor);
+        }
+        final BlockBuffers buffers = new BlockBuffers(mcu, hSize, vSize);
+        final int[] zz = buffers.zz;
+        for (int my = firstRegionRow; my <= lastRegionRow; my++) {
+            for (int mx = firstRegionColumn; mx <= lastRegionColumn; mx++) {
+                for (int i = 0; i < components.length; i++) {
+                    final ComponentCoefficients component = components[i];
+                    final SofnSegment.Component frameComponent = component.frameComponent;
+                    for (int y = 0; y < frameComponent.verticalSamplingFactor; y++) {
+                        for (int x = 0; x < frameComponent.horizontalSamplingFactor; x++) {
+                            final int offset = component.offset(my * frameComponent.verticalSamplingFactor + y, mx * frameComponent.horizontalSamplingFactor + x);
+                            for (int j = 0; j < 64; j++) {
+                                zz[j] = component.coefficients[offset + j];
+                            }
+                            writeBlock(buffers, frameComponent, mcu[i], x, y);
+                        }
+                    }
+                }
+                writeMcu(mcu, buffers, hSize, vSize, mx * hSize, my * vSize, pixels);
+            }
+        }
+    }
+
+    private void decodeScan(final ComponentCoefficients[] components, final JpegInputStream is, final CoefficientDecoder coefficientDecoder,
+            final int xMCUs, final int yMCUs) throws ImagingException, IOException {
+        final ComponentCoefficients[] scanComponents = new ComponentCoefficients[sosSegment.numberOfComponents];
+        for (int i = 0; i < scanComponents.length; i++) {
+            final SosSegment.Component scanComponent = sosSegment.getComponents(i);
+            for (final ComponentCoefficients component : components) {
+                if (component.frameComponent.componentIdentifier == scanComponent.scanComponentSelector) {
+                    scanComponents[i] = component;
+                    break;
+                }
+            }
+            if (scanComponents[i] == null) {
+                throw new ImagingException("Invalid component");
+            }
+            scanComponents[i].dcTable = huffmanDCTables[scanComponent.dcCodingTableSelector];
+            scanComponents[i].acTable = huffmanACTables[scanComponent.acCodingTableSelector];
+            scanComponents[i].pred = 0;
+        }
+        final boolean progressive = sofnSegment.marker == JpegConstants.SOF2_MARKER;
+        if (progressive && sosSegment.startOfSpectralSelection > 0 && scanComponents.length != 1) {
+            throw new ImagingException("Progressive AC scans must contain a single component");
+        }
+        coefficientDecoder.startScan(progressive, sosSegment.startOfSpectralSelection, sosSegment.endOfSpectralSelection,
+                sosSegment.successiveApproximationBitHigh, sosSegment.successiveApproximationBitLow);
+
+        // a scan of a single component is non-interleaved: its MCU is one block,
+        // and only the blocks that hold image data are coded (A.2.2 of T.81)
+        final int units;
+        if (scanComponents.length == 1) {
+            units = scanComponents[0].blocksPerLine * scanComponents[0].blocksPerColumn;
+        } else {
+            units = xMCUs * yMCUs;
+        }
+        for (int unit = 0; unit < units; unit++) {
+            if (unit > 0 && isRestart(unit, is) && is.nextInterval()) {
+                for (final ComponentCoefficients component : scanComponents) {
+                    component.pred = 0;
+                }
+                coefficientDecoder.restart();
+            }
+            if (scanComponents.length == 1) {
+                final ComponentCoefficients component = scanComponents[0];
+                coefficientDecoder.decodeBlock(is, component, component.offset(unit / component.blocksPerLine, unit % component.blocksPerLine));
+            } else {
+                final int my = unit / xMCUs;
+                final int mx = unit % xMCUs;
+                for (final ComponentCoefficients component : scanComponents) {
+                    final int h = component.frameComponent.horizontalSamplingFactor;
+                    final int v = component.frameComponent.verticalSamplingFactor;
+                    for (int y = 0; y < v; y++) {
+                        for (int x = 0; x < h; x++) {
+                            coefficientDecoder.decodeBlock(is, component, component.offset(my * v + y, mx * h + x));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static int extend(int v, final int t) {
         // "EXTEND", section F.2.2.1, figure F.12, page 105 of T.81
         int vt = 1 << t - 1;
         if (v < vt) {
@@ -204,7 +459,58 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
         return v;
     }
 
-    private void readMcu(final JpegInputStream is, final int[] preds, final Block[] mcu) throws ImagingException {
+    /**
+     * Tests whether an MCU covers part of the region of the image that is decoded.
+     *
+     * @param mcuIndex the index of the MCU in the scan.
+     * @param xMCUs    the number of MCUs per line.
+     * @return whether the MCU is needed.
+     */
+    private boolean isMcuInRegion(final int mcuIndex, final int xMCUs) {
+        final int column = mcuIndex % xMCUs;
+        final int row = mcuIndex / xMCUs;
+        return column >= firstRegionColumn && column <= lastRegionColumn && row >= firstRegionRow && row <= lastRegionRow;
+    }
+
+    /**
+     * Tests whether any MCU of a range covers part of the region of the image that is decoded.
+     *
+     * @param firstMcu the index of the first MCU.
+     * @param endMcu   the index after the last MCU.
+     * @param xMCUs    the number of MCUs per line.
+     * @return whether any MCU of the range is needed.
+     */
+    private boolean isRangeInRegion(final int firstMcu, final int endMcu, final int xMCUs) {
+        final int lastRow = Math.min((endMcu - 1) / xMCUs, lastRegionRow);
+        for (int row = Math.max(firstMcu / xMCUs, firstRegionRow); row <= lastRow; row++) {
+            final int firstColumn = Math.max(firstMcu - row * xMCUs, 0);
+            final int lastColumn = Math.min(endMcu - 1 - row * xMCUs, xMCUs - 1);
+            if (firstColumn <= lastRegionColumn && lastColumn >= firstRegionColumn) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether a restart interval ends before the given MCU. The interval length comes from the DRI segment, files without one are split wherever a
+     * restart marker is found between MCUs.
+     *
+     * @param mcuIndex the index of the next MCU in the scan.
+     * @param is       the entropy-coded data of the current interval.
+     * @return whether the MCU starts the next interval.
+     * @throws IOException if the entropy-coded data cannot be read.
+     */
+    private boolean isRestart(final int mcuIndex, final JpegInputStream is) throws IOException {
+        if (restartInterval > 0) {
+            return mcuIndex % restartInterval == 0;
+        }
+        return !is.hasNext();
+    }
+
+    private void readMcu(final JpegInputStream is, final int[] preds, final Block[] mcu, final BlockBuffers buffers, final boolean transform)
+            throws ImagingException, IOException {
+        final int[] zz = buffers.zz;
         for (int i = 0; i < sosSegment.numberOfComponents; i++) {
             final SosSegment.Component scanComponent = sosSegment.getComponents(i);
             SofnSegment.Component frameComponent = null;
@@ -222,8 +528,8 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 for (int x = 0; x < frameComponent.horizontalSamplingFactor; x++) {
                     Arrays.fill(zz, 0);
                     // page 104 of T.81
-                    final int t = decode(is, huffmanDCTables[scanComponent.dcCodingTableSelector]);
-                    int diff = receive(t, is);
+                    final int t = huffmanDCTables[scanComponent.dcCodingTableSelector].decode(is);
+                    int diff = is.readBits(t);
                     diff = extend(diff, t);
                     zz[0] = preds[i] + diff;
                     preds[i] = zz[0];
@@ -231,7 +537,7 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                     // "Decode_AC_coefficients", figure F.13, page 106 of T.81
                     int k = 1;
                     while (true) {
-                        final int rs = decode(is, huffmanACTables[scanComponent.acCodingTableSelector]);
+                        final int rs = huffmanACTables[scanComponent.acCodingTableSelector].decode(is);
                         final int ssss = rs & 0xf;
                         final int rrrr = rs >> 4;
                         final int r = rrrr;
@@ -245,7 +551,10 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                             k += r;
 
                             // "Decode_ZZ(k)", figure F.14, page 107 of T.81
-                            zz[k] = receive(ssss, is);
+                            if (k > 63) {
+                                throw new ImagingException("Invalid AC coefficient index " + k);
+                            }
+                            zz[k] = is.readBits(ssss);
                             zz[k] = extend(zz[k], ssss);
 
                             if (k == 63) {
@@ -255,84 +564,209 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                         }
                     }
 
-                    final int shift = 1 << sofnSegment.precision - 1;
-                    final int max = (1 << sofnSegment.precision) - 1;
-
-                    final float[] scaledQuantizationTable = scaledQuantizationTables[frameComponent.quantTabDestSelector];
-                    ZigZag.zigZagToBlock(zz, blockInt);
-                    for (int j = 0; j < 64; j++) {
-                        block[j] = blockInt[j] * scaledQuantizationTable[j];
-                    }
-                    Dct.inverseDct8x8(block);
-
-                    int dstRowOffset = 8 * y * 8 * frameComponent.horizontalSamplingFactor + 8 * x;
-                    int srcNext = 0;
-                    for (int yy = 0; yy < 8; yy++) {
-                        for (int xx = 0; xx < 8; xx++) {
-                            float sample = block[srcNext++];
-                            sample += shift;
-                            final int result;
-                            if (sample < 0) {
-                                result = 0;
-                            } else if (sample > max) {
-                                result = max;
-                            } else {
-                                result = fastRound(sample);
-                            }
-                            fullBlock.samples[dstRowOffset + xx] = result;
-                        }
-                        dstRowOffset += 8 * frameComponent.horizontalSamplingFactor;
+                    if (transform) {
+                        writeBlock(buffers, frameComponent, fullBlock, x, y);
                     }
                 }
             }
         }
     }
 
-    private int receive(final int ssss, final JpegInputStream is) throws ImagingException {
-        // "RECEIVE", section F.2.2.4, figure F.17, page 110 of T.81
-        int i = 0;
-        int v = 0;
-        while (i != ssss) {
-            i++;
-            v = (v << 1) + is.nextBit();
+    /**
+     * Gets the number of samples in each direction that a block of a component is inverse transformed to. When scaling down, components with lower sampling
+     * factors than others are scaled down less, as libjpeg does, so that their samples are not first averaged by the reduced IDCT and then repeated by
+     * the upsampling. For example, the chroma blocks of a 4:2:0 image keep 8x8 samples at a scale of 1/2.
+     *
+     * @param frameComponent the component.
+     * @return 1, 2, 4 or 8.
+     */
+    private int getBlockSize(final SofnSegment.Component frameComponent) {
+        int size = blockSize;
+        int factor = 2;
+        while (size < 8 && hMax % (frameComponent.horizontalSamplingFactor * factor) == 0 && vMax % (frameComponent.verticalSamplingFactor * factor) == 0) {
+            size *= 2;
+            factor *= 2;
         }
-        return v;
+        return size;
     }
 
-    private void rescaleMcu(final Block[] dataUnits, final int hSize, final int vSize, final Block[] ret) {
-        for (int i = 0; i < dataUnits.length; i++) {
-            final Block dataUnit = dataUnits[i];
-            if (dataUnit.width == hSize && dataUnit.height == vSize) {
-                System.arraycopy(dataUnit.samples, 0, ret[i].samples, 0, hSize * vSize);
+    /**
+     * Dequantizes and inverse transforms one block of coefficients and stores the resulting samples in the MCU block of its component. Samples of frames
+     * with more than 8 bits of precision are scaled down to 8 bits. When decoding at a reduced scale, the block yields as many samples in each direction
+     * as the MCU block holds per sampling factor.
+     *
+     * @param buffers        the scratch space of the current thread, holding the coefficients in zig-zag order.
+     * @param frameComponent the component the block belongs to.
+     * @param fullBlock      the samples of the component in the current MCU.
+     * @param x              the horizontal block index in the MCU.
+     * @param y              the vertical block index in the MCU.
+     */
+    private void writeBlock(final BlockBuffers buffers, final SofnSegment.Component frameComponent, final Block fullBlock, final int x, final int y) {
+        final int[] blockInt = buffers.blockInt;
+        final int blockSize = fullBlock.width / frameComponent.horizontalSamplingFactor;
+        final int rowStride = fullBlock.width;
+        final int dstOffset = blockSize * y * rowStride + blockSize * x;
+        if (sofnSegment.precision == 8 && (integerIdct || blockSize < 8)) {
+            ZigZag.zigZagToBlock(buffers.zz, quantizationMatrices[frameComponent.quantTabDestSelector], blockInt);
+            switch (blockSize) {
+            case 1:
+                Dct.inverseDct1x1(blockInt);
+                break;
+            case 2:
+                Dct.inverseDct2x2(blockInt);
+                break;
+            case 4:
+                Dct.inverseDct4x4(blockInt);
+                break;
+            default:
+                Dct.inverseDct8x8(blockInt);
+                break;
+            }
+            int dstRowOffset = dstOffset;
+            int srcNext = 0;
+            for (int yy = 0; yy < blockSize; yy++) {
+                for (int xx = 0; xx < blockSize; xx++) {
+                    final int sample = blockInt[srcNext++] + 128;
+                    fullBlock.samples[dstRowOffset + xx] = sample < 0 ? 0 : sample > 255 ? 255 : sample;
+                }
+                dstRowOffset += rowStride;
+            }
+            return;
+        }
+        final float[] block = buffers.block;
+        final int shift = 1 << sofnSegment.precision - 1;
+        final int max = (1 << sofnSegment.precision) - 1;
+        final int precisionShift = sofnSegment.precision - 8;
+
+        final float[] scaledQuantizationTable = scaledQuantizationTables[frameComponent.quantTabDestSelector];
+        ZigZag.zigZagToBlock(buffers.zz, blockInt);
+        for (int j = 0; j < 64; j++) {
+            block[j] = blockInt[j] * scaledQuantizationTable[j];
+        }
+        Dct.inverseDct8x8(block);
+
+        for (int j = 0; j < 64; j++) {
+            final float sample = block[j] + shift;
+            if (sample < 0) {
+                blockInt[j] = 0;
+            } else if (sample > max) {
+                blockInt[j] = max;
             } else {
-                final int hScale = hSize / dataUnit.width;
-                final int vScale = vSize / dataUnit.height;
-                if (hScale == 2 && vScale == 2) {
-                    int srcRowOffset = 0;
-                    int dstRowOffset = 0;
-                    for (int y = 0; y < dataUnit.height; y++) {
-                        for (int x = 0; x < hSize; x++) {
-                            final int sample = dataUnit.samples[srcRowOffset + (x >> 1)];
-                            ret[i].samples[dstRowOffset + x] = sample;
-                            ret[i].samples[dstRowOffset + hSize + x] = sample;
-                        }
-                        srcRowOffset += dataUnit.width;
-                        dstRowOffset += 2 * hSize;
-                    }
-                } else {
-                    // FIXME: optimize
-                    int dstRowOffset = 0;
-                    for (int y = 0; y < vSize; y++) {
-                        for (int x = 0; x < hSize; x++) {
-                            ret[i].samples[dstRowOffset + x] = dataUnit.samples[y / vScale * dataUnit.width + x / hScale];
-                        }
-                        dstRowOffset += hSize;
+                blockInt[j] = fastRound(sample);
+            }
+        }
+        // at a reduced scale, which for 8-bit samples is done by the reduced IDCTs, each sample is the average of the samples it covers
+        final int factor = 8 / blockSize;
+        final int factorShift = Integer.numberOfTrailingZeros(factor) * 2;
+        int dstRowOffset = dstOffset;
+        for (int yy = 0; yy < blockSize; yy++) {
+            for (int xx = 0; xx < blockSize; xx++) {
+                int sum = 0;
+                for (int v = 0; v < factor; v++) {
+                    for (int u = 0; u < factor; u++) {
+                        sum += blockInt[(yy * factor + v) * 8 + xx * factor + u];
                     }
                 }
+                fullBlock.samples[dstRowOffset + xx] = (sum + (1 << factorShift >> 1) >> factorShift) >> precisionShift;
             }
+            dstRowOffset += rowStride;
         }
     }
 
+    /**
+     * Determines the part of the image that is decoded and the MCUs that cover it.
+     *
+     * @param hSize the width of an MCU in the decoded image.
+     * @param vSize the height of an MCU in the decoded image.
+     * @throws ImagingException if the sub-image is not within the image.
+     */
+    private void setUpRegion(final int hSize, final int vSize) throws ImagingException {
+        if (subImage == null) {
+            regionX = 0;
+            regionY = 0;
+            regionWidth = width;
+            regionHeight = height;
+        } else {
+            // consistent with BufferedImage.getSubimage()
+            if (subImage.width <= 0) {
+                throw new ImagingException("Negative or zero subimage width.");
+            }
+            if (subImage.height <= 0) {
+                throw new ImagingException("Negative or zero subimage height.");
+            }
+            if (subImage.x < 0 || subImage.x >= width) {
+                throw new ImagingException("Subimage x is outside raster.");
+            }
+            if (subImage.y < 0 || subImage.y >= height) {
+                throw new ImagingException("Subimage y is outside raster.");
+            }
+            if (subImage.x + subImage.width > width) {
+                throw new ImagingException("Subimage (x+width) is outside raster.");
+            }
+            if (subImage.y + subImage.height > height) {
+                throw new ImagingException("Subimage (y+height) is outside raster.");
+            }
+            regionX = subImage.x;
+            regionY = subImage.y;
+            regionWidth = subImage.width;
+            regionHeight = subImage.height;
+        }
+        firstRegionColumn = regionX / hSize;
+        lastRegionColumn = (regionX + regionWidth - 1) / hSize;
+        firstRegionRow = regionY / vSize;
+        lastRegionRow = (regionY + regionHeight - 1) / vSize;
+    }
+
+    /**
+     * Sets an executor used to decode the restart intervals of sequential, single-scan images concurrently. Images without a DRI segment and progressive
+     * images are decoded on the calling thread. The executor is not shut down by the decoder.
+     *
+     * @param decodeExecutor the executor, or null to decode on the calling thread (the default).
+     * @since 1.0.0-alpha6
+     */
+    public void setDecodeExecutor(final ExecutorService decodeExecutor) {
+        this.decodeExecutor = decodeExecutor;
+    }
+
+    /**
+     * Sets the factor by which the image is scaled down while decoding. Blocks are inverse transformed to 4x4, 2x2 or 1x1 samples instead of 8x8, so the
+     * time and memory spent on the inverse DCT, upsampling and color conversion drop with the square of the factor. The decoded image is the size of the
+     * frame divided by the factor and rounded up.
+     *
+     * @param scaleDenominator 1, 2, 4 or 8.
+     * @throws IllegalArgumentException if the factor is not supported.
+     * @since 1.0.0-alpha6
+     */
+    public void setScaleDenominator(final int scaleDenominator) {
+        if (scaleDenominator != 1 && scaleDenominator != 2 && scaleDenominator != 4 && scaleDenominator != 8) {
+            throw new IllegalArgumentException("Invalid scale denominator " + scaleDenominator + ", must be 1, 2, 4 or 8");
+        }
+        this.scaleDenominator = scaleDenominator;
+    }
+
+    /**
+     * Sets the part of the image to decode, in the coordinates of the image scaled by the {@link #setScaleDenominator(int) scale denominator}. Only the
+     * pixels of the sub-image are allocated, MCUs outside it are Huffman decoded without being inverse transformed or color converted, and restart
+     * intervals outside it are skipped by seeking to the next restart marker. Decoding ends with the last MCU of the sub-image.
+     *
+     * @param subImage the sub-image, or null to decode the whole image (the default).
+     * @since 1.0.0-alpha6
+     */
+    public void setSubImage(final Rectangle subImage) {
+        this.subImage = subImage == null ? null : new Rectangle(subImage);
+    }
+
+    /**
+     * Sets whether blocks are inverse transformed with a fixed-point integer IDCT instead of the default floating-point one. The samples differ by at most
+     * one from the floating-point results. Only frames with 8-bit samples use it.
+     *
+     * @param integerIdct true to use the integer IDCT.
+     * @since 1.0.0-alpha6
+     */
+    public void setIntegerIdct(final boolean integerIdct) {
+        this.integerIdct = integerIdct;
+    }
+
     /**
      * Sets the decoder to treat incoming data as using the RGB color model. This extension to the JPEG specification is intended to support TIFF files that use
      * JPEG compression.
@@ -349,10 +783,18 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 JpegConstants.SOF11_MARKER, JpegConstants.SOF13_MARKER, JpegConstants.SOF14_MARKER, JpegConstants.SOF15_MARKER, };
 
         if (Arrays.binarySearch(sofnSegments, marker) >= 0) {
-            if (marker != JpegConstants.SOF0_MARKER) {
-                throw new ImagingException("Only sequential, baseline JPEGs " + "are supported at the moment");
+            if (marker != JpegConstants.SOF0_MARKER && marker != JpegConstants.SOF1_MARKER && marker != JpegConstants.SOF2_MARKER) {
+                throw new ImagingException("Only sequential and progressive Huffman-coded JPEGs " + "are supported at the moment");
             }
             sofnSegment = new SofnSegment(marker, segmentData);
+            if (sofnSegment.precision != 8 && (marker == JpegConstants.SOF0_MARKER || sofnSegment.precision != 12)) {
+                throw new ImagingException("Unsupported JPEG sample precision " + sofnSegment.precision);
+            }
+        } else if (marker == JpegConstants.DRI_MARKER) {
+            if (segmentData.length < 2) {
+                throw new ImagingException("Invalid DRI segment");
+            }
+            restartInterval = ByteConversions.toUInt16(segmentData, getByteOrder());
         } else if (marker == JpegConstants.DQT_MARKER) {
             final DqtSegment dqtSegment = new DqtSegment(marker, segmentData);
             for (final QuantizationTable table : dqtSegment.quantizationTables) {
@@ -363,6 +805,7 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 final int mSize = 64;
                 final int[] quantizationMatrixInt = Allocator.intArray(mSize);
                 ZigZag.zigZagToBlock(table.getElements(), quantizationMatrixInt);
+                quantizationMatrices[table.destinationIdentifier] = quantizationMatrixInt;
                 final float[] quantizationMatrixFloat = Allocator.floatArray(mSize);
                 for (int j = 0; j < mSize; j++) {
                     quantizationMatrixFloat[j] = quantizationMatrixInt[j];
@@ -373,7 +816,7 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
         } else if (marker == JpegConstants.DHT_MARKER) {
             final DhtSegment dhtSegment = new DhtSegment(marker, segmentData);
             for (final HuffmanTable table : dhtSegment.huffmanTables) {
-                final DhtSegment.HuffmanTable[] tables;
+                final HuffmanDecoder[] tables;
                 if (table.tableClass == 0) {
                     tables = huffmanDCTables;
                 } else if (table.tableClass == 1) {
@@ -384,7 +827,7 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 if (0 > table.destinationIdentifier || table.destinationIdentifier >= tables.length) {
                     throw new ImagingException("Invalid huffman table identifier " + table.destinationIdentifier);
                 }
-                tables[table.destinationIdentifier] = table;
+                tables[table.destinationIdentifier] = new HuffmanDecoder(table);
             }
         }
         return true;
@@ -392,40 +835,38 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
 
     @Override
     public void visitSos(final int marker, final byte[] markerBytes, final byte[] imageData) {
-        try (ByteArrayInputStream is = new ByteArrayInputStream(imageData)) {
+        visitSos(marker, markerBytes, new ByteArrayInputStream(imageData));
+    }
+
+    /**
+     * Decodes the image while reading the image data, without buffering the entropy-coded data of the scans.
+     */
+    @Override
+    public void visitSos(final int marker, final byte[] markerBytes, final InputStream is) {
+        try {
             // read the scan header
             final int segmentLength = read2Bytes("segmentLength", is, "Not a Valid JPEG File", getByteOrder());
             final byte[] sosSegmentBytes = readBytes("SosSegment", is, segmentLength - 2, "Not a Valid JPEG File");
             sosSegment = new SosSegment(marker, sosSegmentBytes);
-            // read the payload of the scan, this is the remainder of image data after the header
-            // the payload contains the entropy-encoded segments (or ECS) divided by RST markers
-            // or only one ECS if the entropy-encoded data is not divided by RST markers
-            // length of payload = length of image data - length of data already read
-            final int[] scanPayload = Allocator.intArray(imageData.length - segmentLength);
-            int payloadReadCount = 0;
-            while (payloadReadCount < scanPayload.length) {
-                scanPayload[payloadReadCount] = is.read();
-                payloadReadCount++;
-            }
-
-            int hMax = 0;
-            int vMax = 0;
+
+            hMax = 0;
+            vMax = 0;
             for (int i = 0; i < sofnSegment.numberOfComponents; i++) {
                 hMax = Math.max(hMax, sofnSegment.getComponents(i).horizontalSamplingFactor);
                 vMax = Math.max(vMax, sofnSegment.getComponents(i).verticalSamplingFactor);
             }
-            final int hSize = 8 * hMax;
-            final int vSize = 8 * vMax;
-
-            final int xMCUs = (sofnSegment.width + hSize - 1) / hSize;
-            final int yMCUs = (sofnSegment.height + vSize - 1) / vSize;
-            final Block[] mcu = allocateMcuMemory();
-            final Block[] scaledMCU = Allocator.array(mcu.length, Block[]::new, Block.SHALLOW_SIZE);
-            Arrays.setAll(scaledMCU, i -> new Block(hSize, vSize));
-            final int[] preds = Allocator.intArray(sofnSegment.numberOfComponents);
+            final int xMCUs = (sofnSegment.width + 8 * hMax - 1) / (8 * hMax);
+            final int yMCUs = (sofnSegment.height + 8 * vMax - 1) / (8 * vMax);
+            blockSize = 8 / scaleDenominator;
+            width = (sofnSegment.width + scaleDenominator - 1) / scaleDenominator;
+            height = (sofnSegment.height + scaleDenominator - 1) / scaleDenominator;
+            // the size of an MCU in the decoded image
+            final int hSize = blockSize * hMax;
+            final int vSize = blockSize * vMax;
+            setUpRegion(hSize, vSize);
             final ColorModel colorModel;
             final WritableRaster raster;
-            Allocator.check(Integer.BYTES * sofnSegment.width * sofnSegment.height);
+            Allocator.check(Integer.BYTES * regionWidth * regionHeight);
             switch (sofnSegment.numberOfComponents) {
             case 4:
                 // Special handling for the application-RGB case: TIFF files with
@@ -434,139 +875,47 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
                 // with a fourth channel for alpha.
                 if (useTiffRgb) {
                     colorModel = new DirectColorModel(32, 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000);
-                    raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, sofnSegment.width, sofnSegment.height, BAND_MASK_ARGB, null);
+                    raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, regionWidth, regionHeight, BAND_MASK_ARGB, null);
                 } else {
                     colorModel = new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
-                    raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, sofnSegment.width, sofnSegment.height, BAND_MASK_RGB, null);
+                    raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, regionWidth, regionHeight, BAND_MASK_RGB, null);
                 }
 
                 break;
             case 3:
                 colorModel = new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
-                raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, sofnSegment.width, sofnSegment.height, new int[] { 0x00ff0000, 0x0000ff00, 0x000000ff },
+                raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, regionWidth, regionHeight, new int[] { 0x00ff0000, 0x0000ff00, 0x000000ff },
                         null);
                 break;
             case 1:
                 colorModel = new DirectColorModel(24, 0x00ff0000, 0x0000ff00, 0x000000ff);
-                raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, sofnSegment.width, sofnSegment.height, new int[] { 0x00ff0000, 0x0000ff00, 0x000000ff },
+                raster = Raster.createPackedRaster(DataBuffer.TYPE_INT, regionWidth, regionHeight, new int[] { 0x00ff0000, 0x0000ff00, 0x000000ff },
                         null);
                 // FIXME: why do images come out too bright with CS_GRAY?
                 // colorModel = new ComponentColorModel(
                 // ColorSpace.getInstance(ColorSpace.CS_GRAY), false, true,
                 // Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
                 // raster = colorModel.createCompatibleWritableRaster(
-                // sofnSegment.width, sofnSegment.height);
+                // width, height);
                 break;
             default:
                 throw new ImagingException(sofnSegment.numberOfComponents + " components are invalid or unsupported");
             }
-            final DataBuffer dataBuffer = raster.getDataBuffer();
-
-            final JpegInputStream[] bitInputStreams = splitByRstMarkers(scanPayload);
-            int bitInputStreamCount = 0;
-            JpegInputStream bitInputStream = bitInputStreams[0];
+            final int[] pixels = ((DataBufferInt) raster.getDataBuffer()).getData();
 
-            for (int y1 = 0; y1 < vSize * yMCUs; y1 += vSize) {
-                for (int x1 = 0; x1 < hSize * xMCUs; x1 += hSize) {
-                    // Provide the next interval if an interval is read until it's end
-                    // as long there are unread intervals available
-                    if (!bitInputStream.hasNext()) {
-                        bitInputStreamCount++;
-                        if (bitInputStreamCount < bitInputStreams.length) {
-                            bitInputStream = bitInputStreams[bitInputStreamCount];
-                        }
-                    }
-
-                    readMcu(bitInputStream, preds, mcu);
-                    rescaleMcu(mcu, hSize, vSize, scaledMCU);
-                    int srcRowOffset = 0;
-                    int dstRowOffset = y1 * sofnSegment.width + x1;
-
-                    // The TIFF-RGB logic was adapted from the original x2,y2 loops
-                    // but special handling was added for TIFF-JPEG RGB colorspace
-                    // and conditional checks were reorganized for efficiency
-                    if (useTiffRgb && (scaledMCU.length == 3 || scaledMCU.length == 4)) {
-                        // The original (legacy) coding for the x2 and y2 loop was:
-                        // for(y2 = 0; y2 < vSize && y1 + y2 < sofnSegment.height; y2++)
-                        // for(x2 = 0; x2 < hSize && x1 + x2 < sofnSegment.width; x2++)
-                        // Here, we pre-compute the limits of the loop to reduce the
-                        // overhead for the loop conditional evaluation.
-                        final int x2Limit;
-                        if (x1 + hSize <= sofnSegment.width) {
-                            x2Limit = hSize;
-                        } else {
-                            x2Limit = sofnSegment.width - x1;
-                        }
-                        final int y2Limit;
-                        if (y1 + vSize <= sofnSegment.height) {
-                            y2Limit = vSize;
-                        } else {
-                            y2Limit = sofnSegment.height - y1;
-                        }
-
-                        if (scaledMCU.length == 4) {
-                            // RGBA colorspace
-                            // Although conventional JPEGs don't include an alpha channel
-                            // TIFF images that use JPEG encoding may do so. For example,
-                            // we have seen this variation in some false-color satellite images
-                            // from the U.S. National Weather Service. Ordinary JPEG files
-                            // may include an APP14 marker of type Unknowm indicating that
-                            // the scaledMCU.length of 3 should be interpreted as the RGB colorspace
-                            // and the 4-channel variation is interpreted as CYMK. But TIFF files
-                            // use their own tags to specify colorspace and do not include the APP14 marker.
-                            for (int y2 = 0; y2 < y2Limit; y2++) {
-                                for (int x2 = 0; x2 < x2Limit; x2++) {
-                                    final int r = scaledMCU[0].samples[srcRowOffset + x2];
-                                    final int g = scaledMCU[1].samples[srcRowOffset + x2];
-                                    final int b = scaledMCU[2].samples[srcRowOffset + x2];
-                                    final int a = scaledMCU[3].samples[srcRowOffset + x2];
-                                    final int rgb = a << 24 | r << 16 | g << 8 | b;
-                                    dataBuffer.setElem(dstRowOffset + x2, rgb);
-                                }
-                                srcRowOffset += hSize;
-                                dstRowOffset += sofnSegment.width;
-                            }
-                        } else {
-                            // scaledMCU.length == 3, standard RGB
-                            for (int y2 = 0; y2 < y2Limit; y2++) {
-                                for (int x2 = 0; x2 < x2Limit; x2++) {
-                                    final int r = scaledMCU[0].samples[srcRowOffset + x2];
-                                    final int g = scaledMCU[1].samples[srcRowOffset + x2];
-                                    final int b = scaledMCU[2].samples[srcRowOffset + x2];
-                                    final int rgb = r << 16 | g << 8 | b;
-                                    dataBuffer.setElem(dstRowOffset + x2, rgb);
-                                }
-                                srcRowOffset += hSize;
-                                dstRowOffset += sofnSegment.width;
-                            }
-                        }
-                    } else {
-                        for (int y2 = 0; y2 < vSize && y1 + y2 < sofnSegment.height; y2++) {
-                            for (int x2 = 0; x2 < hSize && x1 + x2 < sofnSegment.width; x2++) {
-                                if (scaledMCU.length == 4) {
-                                    final int c = scaledMCU[0].samples[srcRowOffset + x2];
-                                    final int m = scaledMCU[1].samples[srcRowOffset + x2];
-                                    final int y = scaledMCU[2].samples[srcRowOffset + x2];
-                                    final int k = scaledMCU[3].samples[srcRowOffset + x2];
-                                    final int rgb = ColorConversions.convertCmykToRgb(c, m, y, k);
-                                    dataBuffer.setElem(dstRowOffset + x2, rgb);
-                                } else if (scaledMCU.length == 3) {
-                                    final int y = scaledMCU[0].samples[srcRowOffset + x2];
-                                    final int cb = scaledMCU[1].samples[srcRowOffset + x2];
-                                    final int cr = scaledMCU[2].samples[srcRowOffset + x2];
-                                    final int rgb = YCbCrConverter.convertYCbCrToRgb(y, cb, cr);
-                                    dataBuffer.setElem(dstRowOffset + x2, rgb);
-                                } else if (mcu.length == 1) {
-                                    final int y = scaledMCU[0].samples[srcRowOffset + x2];
-                                    dataBuffer.setElem(dstRowOffset + x2, y << 16 | y << 8 | y);
-                                } else {
-                                    throw new ImagingException("Unsupported JPEG with " + mcu.length + " components");
-                                }
-                            }
-                            srcRowOffset += hSize;
-                            dstRowOffset += sofnSegment.width;
-                        }
-                    }
+            if (sofnSegment.marker == JpegConstants.SOF2_MARKER || sosSegment.numberOfComponents != sofnSegment.numberOfComponents
+                    || sofnSegment.numberOfComponents == 1 && (hMax != 1 || vMax != 1)) {
+                // The scans of progressive frames, and the non-interleaved scans of
+                // sequential frames, each contribute part of the coefficients, so
+                // the image is only produced once all scans are decoded.
+                decodeScans(is, xMCUs, yMCUs, pixels);
+            } else {
+                final int mcuCount = xMCUs * yMCUs;
+                if (decodeExecutor != null && restartInterval > 0 && mcuCount > restartInterval) {
+                    decodeIntervalsConcurrently(is, mcuCount, xMCUs, hSize, vSize, pixels);
+                } else {
+                    // the entropy-coded data of the scan is read as the MCUs are decoded
+                    decodeMcuRange(new JpegInputStream(is), 0, mcuCount, xMCUs, hSize, vSize, pixels);
                 }
             }
             image = new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), new Properties());
@@ -585,4 +934,100 @@ public class JpegDecoder extends BinaryFileParser implements JpegUtils.Visitor {
             imageReadException = new ImagingException("Error parsing JPEG", ex);
         }
     }
+
+    /**
+     * Upsamples and color converts the samples of an MCU and writes them into the raster, skipping the padding beyond the right and bottom edges and the
+     * pixels outside the region.
+     *
+     * @param mcu     the samples of each component of the MCU.
+     * @param buffers the upsampling maps for the MCU.
+     * @param hSize   the width of an MCU.
+     * @param vSize   the height of an MCU.
+     * @param x1      the left edge of the MCU in the image.
+     * @param y1      the top edge of the MCU in the image.
+     * @param pixels  the destination of the pixels, one packed pixel per int.
+     * @throws ImagingException if the number of components is not supported.
+     */
+    private void writeMcu(final Block[] mcu, final BlockBuffers buffers, final int hSize, final int vSize, final int x1, final int y1, final int[] pixels)
+            throws ImagingException {
+        final int xStart = Math.max(x1, regionX) - x1;
+        final int xLimit = Math.min(x1 + hSize, regionX + regionWidth) - x1;
+        final int yStart = Math.max(y1, regionY) - y1;
+        final int yLimit = Math.min(y1 + vSize, regionY + regionHeight) - y1;
+        final int[][] columns = buffers.columns;
+        final int[][] rows = buffers.rows;
+        int dstRowOffset = (y1 + yStart - regionY) * regionWidth + x1 - regionX;
+
+        if (mcu.length == 4) {
+            final int[] s0 = mcu[0].samples;
+            final int[] s1 = mcu[1].samples;
+            final int[] s2 = mcu[2].samples;
+            final int[] s3 = mcu[3].samples;
+            for (int y2 = yStart; y2 < yLimit; y2++) {
+                final int r0 = rows[0][y2];
+                final int r1 = rows[1][y2];
+                final int r2 = rows[2][y2];
+                final int r3 = rows[3][y2];
+                if (useTiffRgb) {
+                    // RGBA colorspace
+                    // Although conventional JPEGs don't include an alpha channel
+                    // TIFF images that use JPEG encoding may do so. For example,
+                    // we have seen this variation in some false-color satellite images
+                    // from the U.S. National Weather Service. Ordinary JPEG files
+                    // may include an APP14 marker of type Unknowm indicating that
+                    // the 3 components should be interpreted as the RGB colorspace
+                    // and the 4-channel variation is interpreted as CYMK. But TIFF files
+                    // use their own tags to specify colorspace and do not include the APP14 marker.
+                    for (int x2 = xStart; x2 < xLimit; x2++) {
+                        final int r = s0[r0 + columns[0][x2]];
+                        final int g = s1[r1 + columns[1][x2]];
+                        final int b = s2[r2 + columns[2][x2]];
+                        final int a = s3[r3 + columns[3][x2]];
+                        pixels[dstRowOffset + x2] = a << 24 | r << 16 | g << 8 | b;
+                    }
+                } else {
+                    for (int x2 = xStart; x2 < xLimit; x2++) {
+                        final int c = s0[r0 + columns[0][x2]];
+                        final int m = s1[r1 + columns[1][x2]];
+                        final int y = s2[r2 + columns[2][x2]];
+                        final int k = s3[r3 + columns[3][x2]];
+                        pixels[dstRowOffset + x2] = ColorConversions.convertCmykToRgb(c, m, y, k);
+                    }
+                }
+                dstRowOffset += regionWidth;
+            }
+        } else if (mcu.length == 3) {
+            final int[] s0 = mcu[0].samples;
+            final int[] s1 = mcu[1].samples;
+            final int[] s2 = mcu[2].samples;
+            for (int y2 = yStart; y2 < yLimit; y2++) {
+                final int r0 = rows[0][y2];
+                final int r1 = rows[1][y2];
+                final int r2 = rows[2][y2];
+                if (useTiffRgb) {
+                    // special handling for TIFF-JPEG RGB colorspace
+                    for (int x2 = xStart; x2 < xLimit; x2++) {
+                        pixels[dstRowOffset + x2] = s0[r0 + columns[0][x2]] << 16 | s1[r1 + columns[1][x2]] << 8 | s2[r2 + columns[2][x2]];
+                    }
+                } else {
+                    for (int x2 = xStart; x2 < xLimit; x2++) {
+                        pixels[dstRowOffset + x2] = YCbCrConverter.convertYCbCrToRgb(s0[r0 + columns[0][x2]], s1[r1 + columns[1][x2]], s2[r2 + columns[2][x2]]);
+                    }
+                }
+                dstRowOffset += regionWidth;
+            }
+        } else if (mcu.length == 1) {
+            final int[] s0 = mcu[0].samples;
+            for (int y2 = yStart; y2 < yLimit; y2++) {
+                final int r0 = rows[0][y2];
+                for (int x2 = xStart; x2 < xLimit; x2++) {
+                    final int y = s0[r0 + columns[0][x2]];
+                    pixels[dstRowOffset + x2] = y << 16 | y << 8 | y;
+                }
+                dstRowOffset += regionWidth;
+            }
+        } else {
+            throw new ImagingException("Unsupported JPEG with " + mcu.length + " components");
+        }
+    }
 }
@@ -15,58 +15,268 @@
 
 package org.apache.commons.imaging.formats.jpeg.decoder;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStream;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.formats.jpeg.JpegConstants;
 
+/**
+ * Reads the entropy-coded data of a scan.
+ * <p>
+ * The data either comes from a part of an array holding one restart interval, or from a stream holding the rest of the file. A stream is read through an internal
+ * buffer, so once the entropy-coded data ends, the segments that follow it have to be read with {@link #readBytes(int)}: restart markers are consumed by
+ * {@link #nextInterval()}, and the marker that ends the scan is returned by {@link #nextMarker()}.
+ * </p>
+ * <p>
+ * Bits are served from a 64-bit buffer that is refilled a byte at a time up to the next marker, with stuffed zero bytes removed. Peeking past the end of
+ * the entropy-coded data yields zero bits, only consuming them is an error.
+ * </p>
+ */
 final class JpegInputStream {
-    static final int SHALLOW_SIZE = 32;
+    static final int SHALLOW_SIZE = 48;
+    private static final int BUFFER_SIZE = 8192;
     // Figure F.18, F.2.2.5, page 111 of ITU-T T.81
-    private final int[] interval;
-    // next position in the array to read
-    private int nextPos;
-    private int cnt;
-    private int b;
-
-    JpegInputStream(final int[] interval) {
-        this.interval = Arrays.copyOf(interval, interval.length);
-        this.nextPos = 0;
+    private final InputStream stream;
+    private final byte[] buffer;
+    // next position in the buffer to read, and the end of the valid data in the buffer
+    private int position;
+    private int limit;
+    // the low bitCount bits of bits are the next bits to read
+    private long bits;
+    private int bitCount;
+    // 0 while the bit buffer can be refilled, else -1 at the end of the data or the marker that ends the entropy-coded data
+    private int end;
+
+    /**
+     * Constructs a reader of the entropy-coded data of a restart interval, a view of the array, which is neither copied nor modified.
+     *
+     * @param data   the array holding the interval.
+     * @param offset the position of the interval in the array.
+     * @param length the length of the interval, up to the restart marker that ends it, or to the end of the scan.
+     */
+    JpegInputStream(final byte[] data, final int offset, final int length) {
+        this.stream = null;
+        this.buffer = data;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Constructs a reader of the entropy-coded data at the current position of a stream.
+     *
+     * @param stream the stream, which is read ahead of the data consumed by this reader.
+     */
+    JpegInputStream(final InputStream stream) {
+        this.stream = stream;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    private ImagingException endOfData() {
+        if (end == -1) {
+            if (stream == null) {
+                throw new IllegalStateException("This stream hasn't any other value, all values were already read.");
+            }
+            return new ImagingException("Premature End of File");
+        }
+        if (end == JpegConstants.DNL_MARKER) {
+            return new ImagingException("DNL not yet supported");
+        }
+        return new ImagingException("Invalid marker found " + "in entropy data: 0xFF " + Integer.toHexString(end & 0xff));
+    }
+
+    private void fillBits() throws IOException {
+        while (bitCount <= 56 && end == 0) {
+            if (limit - position < 2) {
+                refill();
+                if (position == limit) {
+                    end = -1;
+                    return;
+                }
+            }
+            final int b0 = buffer[position] & 0xff;
+            if (b0 == 0xff) {
+                if (position + 1 == limit) {
+                    end = -1;
+                    return;
+                }
+                final int b1 = buffer[position + 1] & 0xff;
+                if (b1 != 0) {
+                    // a marker, left unread
+                    end = 0xff00 | b1;
+                    return;
+                }
+                position += 2;
+            } else {
+                position++;
+            }
+            bits = bits << 8 | b0;
+            bitCount += 8;
+        }
     }
 
     /**
-     * Returns {@code true} as long there are unread fields available, else {@code false}
+     * Returns {@code true} as long there are unread bytes of entropy-coded data available, else {@code false}. A stream has no unread bytes when it is at a
+     * marker.
      *
      * @return {@code true} as long there are unread fields available, else {@code false}
+     * @throws IOException if the stream cannot be read.
      */
-    public boolean hasNext() {
-        return nextPos < this.interval.length;
+    public boolean hasNext() throws IOException {
+        if (bitCount >= 8) {
+            return true;
+        }
+        if (stream == null) {
+            return position < limit;
+        }
+        if (limit - position < 2) {
+            refill();
+        }
+        if (position == limit) {
+            return false;
+        }
+        return buffer[position] != (byte) 0xff || position + 1 < limit && buffer[position + 1] == 0;
     }
 
-    public int nextBit() throws ImagingException {
-        if (cnt == 0) {
-            b = read();
-            if (b < 0) {
-                throw new ImagingException("Premature End of File");
-            }
-            cnt = 8;
-            if (b == 0xff) {
-                final int b2 = read();
-                if (b2 < 0) {
-                    throw new ImagingException("Premature End of File");
+    /**
+     * Skips the remainder of the current restart interval and the restart marker that ends it. Buffered bits are discarded if a restart marker is found.
+     *
+     * @return {@code true} if a restart marker was found, {@code false} if the data ended or another marker follows, which is left unread.
+     * @throws IOException if the stream cannot be read.
+     */
+    boolean nextInterval() throws IOException {
+        if (stream == null) {
+            return false;
+        }
+        while (true) {
+            if (limit - position < 2) {
+                refill();
+                if (limit - position < 2) {
+                    return false;
                 }
-                if (b2 != 0) {
-                    if (b2 == (0xff & JpegConstants.DNL_MARKER)) {
-                        throw new ImagingException("DNL not yet supported");
-                    }
-                    throw new ImagingException("Invalid marker found " + "in entropy data: 0xFF " + Integer.toHexString(b2));
+            }
+            if (buffer[position] != (byte) 0xff) {
+                position++;
+                continue;
+            }
+            final int b1 = buffer[position + 1] & 0xff;
+            if (b1 == 0) {
+                position += 2;
+            } else if (b1 >= (0xff & JpegConstants.RST0_MARKER) && b1 <= (0xff & JpegConstants.RST7_MARKER)) {
+                position += 2;
+                bits = 0;
+                bitCount = 0;
+                end = 0;
+                return true;
+            } else if (b1 == 0xff) {
+                // fill byte
+                position++;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Skips the remainder of the entropy-coded data, including restart markers, and reads the marker that follows it.
+     *
+     * @return the marker, for example {@link JpegConstants#EOI_MARKER}, or -1 if the data ended.
+     * @throws IOException if the stream cannot be read.
+     */
+    int nextMarker() throws IOException {
+        bits = 0;
+        bitCount = 0;
+        end = 0;
+        if (stream == null) {
+            return -1;
+        }
+        while (true) {
+            if (limit - position < 2) {
+                refill();
+                if (limit - position < 2) {
+                    position = limit;
+                    return -1;
                 }
             }
+            if (buffer[position] != (byte) 0xff) {
+                position++;
+                continue;
+            }
+            final int b1 = buffer[position + 1] & 0xff;
+            if (b1 == 0xff) {
+                // fill byte, the marker starts at the next one
+                position++;
+                continue;
+            }
+            position += 2;
+            if (b1 != 0 && (b1 < (0xff & JpegConstants.RST0_MARKER) || b1 > (0xff & JpegConstants.RST7_MARKER))) {
+                return 0xff00 | b1;
+            }
+        }
+    }
+
+    public int nextBit() throws ImagingException, IOException {
+        return readBits(1);
+    }
+
+    /**
+     * Returns the next bits without consuming them. Bits past the end of the entropy-coded data read as zero.
+     *
+     * @param n the number of bits, from 1 to 16.
+     * @return the bits, most significant first.
+     * @throws IOException if the stream cannot be read.
+     */
+    int peekBits(final int n) throws IOException {
+        if (bitCount < n) {
+            fillBits();
+            if (bitCount < n) {
+                return (int) (bits << n - bitCount) & (1 << n) - 1;
+            }
         }
-        final int bit = b >> 7 & 0x1;
-        cnt--;
-        b <<= 1;
-        return bit;
+        return (int) (bits >>> bitCount - n) & (1 << n) - 1;
+    }
+
+    /**
+     * Reads the next bits, the RECEIVE procedure of figure F.17 of T.81.
+     *
+     * @param n the number of bits, from 0 to 16.
+     * @return the bits, most significant first.
+     * @throws ImagingException if the entropy-coded data ends before.
+     * @throws IOException      if the stream cannot be read.
+     */
+    int readBits(final int n) throws ImagingException, IOException {
+        if (n == 0) {
+            return 0;
+        }
+        final int value = peekBits(n);
+        skipBits(n);
+        return value;
+    }
+
+    /**
+     * Reads raw bytes that follow a marker, for example the segment after {@link #nextMarker()}.
+     *
+     * @param length the number of bytes.
+     * @return the bytes.
+     * @throws ImagingException if the data ends before.
+     * @throws IOException      if the stream cannot be read.
+     */
+    byte[] readBytes(final int length) throws ImagingException, IOException {
+        final byte[] bytes = new byte[length];
+        int count = 0;
+        while (count < length) {
+            if (position == limit) {
+                refill();
+                if (position == limit) {
+                    throw new ImagingException("Invalid Segment: insufficient data");
+                }
+            }
+            final int chunk = Math.min(length - count, limit - position);
+            System.arraycopy(buffer, position, bytes, count, chunk);
+            position += chunk;
+            count += chunk;
+        }
+        return bytes;
     }
 
     /**
@@ -74,13 +284,52 @@ final class JpegInputStream {
      *
      * @return the value from current field (as {@code InputStream.read()} would do).
      * @throws IllegalStateException if the stream hasn't any other value.
+     * @throws IOException if the stream cannot be read.
      */
-    int read() {
-        if (!hasNext()) {
-            throw new IllegalStateException("This stream hasn't any other value, all values were already read.");
+    int read() throws IOException {
+        if (position == limit) {
+            if (stream == null) {
+                throw new IllegalStateException("This stream hasn't any other value, all values were already read.");
+            }
+            refill();
+            if (position == limit) {
+                return -1;
+            }
         }
-        final int value = this.interval[nextPos];
-        this.nextPos++;
-        return value;
+        return buffer[position++] & 0xff;
+    }
+
+    private void refill() throws IOException {
+        if (stream == null) {
+            return;
+        }
+        final int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+        while (limit < 2) {
+            final int n = stream.read(buffer, limit, buffer.length - limit);
+            if (n < 0) {
+                return;
+            }
+            limit += n;
+        }
+    }
+
+    /**
+     * Consumes bits that were looked at with {@link #peekBits(int)}.
+     *
+     * @param n the number of bits, from 0 to 16.
+     * @throws ImagingException if the entropy-coded data ends before.
+     * @throws IOException      if the stream cannot be read.
+     */
+    void skipBits(final int n) throws ImagingException, IOException {
+        if (bitCount < n) {
+            fillBits();
+            if (bitCount < n) {
+                throw endOfData();
+            }
+        }
+        bitCount -= n;
     }
 }
@@ -31,6 +31,19 @@ final class ZigZag {
         }
     }
 
+    /**
+     * Reorders coefficients from zig-zag into natural order and dequantizes them.
+     *
+     * @param zz           the quantized coefficients in zig-zag order.
+     * @param quantization the quantization table in natural order.
+     * @param block        the dequantized coefficients in natural order.
+     */
+    static void zigZagToBlock(final int[] zz, final int[] quantization, final int[] block) {
+        for (int i = 0; i < ZIG_ZAG.length; i++) {
+            block[i] = zz[ZIG_ZAG[i]] * quantization[i];
+        }
+    }
+
     private ZigZag() {
     }
 }
@@ -19,6 +19,11 @@ package org.apache.commons.imaging.formats.png;
 import static org.apache.commons.imaging.common.BinaryFunctions.readBytes;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -46,6 +51,13 @@ abstract class AbstractScanExpediter {
     final PngChunkPlte pngChunkPlte;
     final GammaCorrection gammaCorrection;
     final AbstractTransparencyFilter abstractTransparencyFilter;
+    // the pixels of the image when they can be written directly, null otherwise
+    private final int[] intPixels;
+    private final byte[] bytePixels;
+    private final int pixelsOffset;
+    private final int pixelsStride;
+    // TYPE_BYTE_GRAY only: the stored sample of each gray level, as setRGB would store it
+    private byte[] grayLevels;
 
     AbstractScanExpediter(final int width, final int height, final InputStream is, final BufferedImage bi, final PngColorType pngColorType, final int bitDepth,
             final int bitsPerPixel, final PngChunkPlte pngChunkPLTE, final GammaCorrection gammaCorrection,
@@ -61,6 +73,31 @@ abstract class AbstractScanExpediter {
         this.pngChunkPlte = pngChunkPLTE;
         this.gammaCorrection = gammaCorrection;
         this.abstractTransparencyFilter = abstractTransparencyFilter;
+
+        final WritableRaster raster = bi.getRaster();
+        final int type = bi.getType();
+        final boolean untranslated = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+        if (untranslated && (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB)
+                && raster.getDataBuffer() instanceof DataBufferInt && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+            final DataBufferInt dataBuffer = (DataBufferInt) raster.getDataBuffer();
+            this.intPixels = dataBuffer.getData();
+            this.bytePixels = null;
+            this.pixelsOffset = dataBuffer.getOffset();
+            this.pixelsStride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        } else if (untranslated && type == BufferedImage.TYPE_BYTE_GRAY && pngColorType == PngColorType.GREYSCALE && abstractTransparencyFilter == null
+                && raster.getDataBuffer() instanceof DataBufferByte && raster.getSampleModel() instanceof ComponentSampleModel) {
+            final DataBufferByte dataBuffer = (DataBufferByte) raster.getDataBuffer();
+            final ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+            this.intPixels = null;
+            this.bytePixels = dataBuffer.getData();
+            this.pixelsOffset = dataBuffer.getOffset() + sampleModel.getBandOffsets()[0];
+            this.pixelsStride = sampleModel.getScanlineStride();
+        } else {
+            this.intPixels = null;
+            this.bytePixels = null;
+            this.pixelsOffset = 0;
+            this.pixelsStride = 0;
+        }
     }
 
     public abstract void drive() throws ImagingException, IOException;
@@ -183,6 +220,101 @@ abstract class AbstractScanExpediter {
         }
     }
 
+    /**
+     * Converts the pixels of an unfiltered scanline to ARGB. Scanlines with 8-bit samples, and palette indices of any depth, are read directly; other
+     * scanlines go through a {@link BitParser}.
+     *
+     * @param unfiltered the unfiltered scanline.
+     * @param row        receives the ARGB pixels.
+     * @param count      the number of pixels in the scanline.
+     */
+    final void getRgbRow(final byte[] unfiltered, final int[] row, final int count) throws ImagingException, IOException {
+        if (pngColorType == PngColorType.INDEXED_COLOR && (bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8)) {
+            if (pngChunkPlte == null) {
+                throw new ImagingException("A PLTE chunk is required for an indexed color type.");
+            }
+            final int samplesPerByte = 8 / bitDepth;
+            final int mask = (1 << bitDepth) - 1;
+            for (int x = 0; x < count; x++) {
+                final int shift = 8 - bitDepth * (x % samplesPerByte + 1);
+                final int index = unfiltered[x / samplesPerByte] >> shift & mask;
+                int rgb = pngChunkPlte.getRgb(index);
+                if (abstractTransparencyFilter != null) {
+                    rgb = abstractTransparencyFilter.filter(rgb, index);
+                }
+                row[x] = rgb;
+            }
+            return;
+        }
+        if (bitDepth != 8) {
+            final BitParser bitParser = new BitParser(unfiltered, bitsPerPixel, bitDepth);
+            for (int x = 0; x < count; x++) {
+                row[x] = getRgb(bitParser, x);
+            }
+            return;
+        }
+        int i = 0;
+        switch (pngColorType) {
+        case GREYSCALE:
+            for (int x = 0; x < count; x++) {
+                int sample = 0xff & unfiltered[i++];
+                if (gammaCorrection != null) {
+                    sample = gammaCorrection.correctSample(sample);
+                }
+                int rgb = getPixelRgb(sample, sample, sample);
+                if (abstractTransparencyFilter != null) {
+                    rgb = abstractTransparencyFilter.filter(rgb, sample);
+                }
+                row[x] = rgb;
+            }
+            break;
+        case TRUE_COLOR:
+            for (int x = 0; x < count; x++) {
+                int red = 0xff & unfiltered[i++];
+                int green = 0xff & unfiltered[i++];
+                int blue = 0xff & unfiltered[i++];
+                int rgb = getPixelRgb(red, green, blue);
+                if (abstractTransparencyFilter != null) {
+                    rgb = abstractTransparencyFilter.filter(rgb, -1);
+                }
+                if (gammaCorrection != null) {
+                    red = gammaCorrection.correctSample(red);
+                    green = gammaCorrection.correctSample(green);
+                    blue = gammaCorrection.correctSample(blue);
+                    rgb = getPixelArgb(rgb >> 24, red, green, blue);
+                }
+                row[x] = rgb;
+            }
+            break;
+        case GREYSCALE_WITH_ALPHA:
+            for (int x = 0; x < count; x++) {
+                int sample = 0xff & unfiltered[i++];
+                final int alpha = 0xff & unfiltered[i++];
+                if (gammaCorrection != null) {
+                    sample = gammaCorrection.correctSample(sample);
+                }
+                row[x] = getPixelArgb(alpha, sample, sample, sample);
+            }
+            break;
+        case TRUE_COLOR_WITH_ALPHA:
+            for (int x = 0; x < count; x++) {
+                int red = 0xff & unfiltered[i++];
+                int green = 0xff & unfiltered[i++];
+                int blue = 0xff & unfiltered[i++];
+                final int alpha = 0xff & unfiltered[i++];
+                if (gammaCorrection != null) {
+                    red = gammaCorrection.correctSample(red);
+                    green = gammaCorrection.correctSample(green);
+                    blue = gammaCorrection.correctSample(blue);
+                }
+                row[x] = getPixelArgb(alpha, red, green, blue);
+            }
+            break;
+        default:
+            throw new ImagingException("PNG: unknown color type: " + pngColorType);
+        }
+    }
+
     ScanlineFilter getScanlineFilter(final FilterType filterType, final int bytesPerPixel) {
         switch (filterType) {
         case NONE:
@@ -200,6 +332,44 @@ abstract class AbstractScanExpediter {
         return null;
     }
 
+    /**
+     * Stores ARGB pixels in one row of the image. The pixels of images of type {@link BufferedImage#TYPE_INT_ARGB}, {@link BufferedImage#TYPE_INT_RGB}
+     * and, for grayscale PNGs, {@link BufferedImage#TYPE_BYTE_GRAY} are written directly into their data buffer; other images go through
+     * {@link BufferedImage#setRGB(int, int, int)}.
+     *
+     * @param y     the row.
+     * @param x     the column of the first pixel.
+     * @param dx    the distance between the columns of consecutive pixels.
+     * @param row   the ARGB pixels.
+     * @param count the number of pixels.
+     */
+    final void setRgbRow(final int y, final int x, final int dx, final int[] row, final int count) {
+        if (intPixels != null) {
+            final int mask = bi.getType() == BufferedImage.TYPE_INT_RGB ? 0x00ffffff : 0xffffffff;
+            int index = pixelsOffset + y * pixelsStride + x;
+            for (int i = 0; i < count; i++, index += dx) {
+                intPixels[index] = row[i] & mask;
+            }
+        } else if (bytePixels != null) {
+            if (grayLevels == null) {
+                grayLevels = new byte[256];
+                for (int level = 0; level < 256; level++) {
+                    grayLevels[level] = ((byte[]) bi.getColorModel().getDataElements(getPixelRgb(level, level, level), null))[0];
+                }
+            }
+            int index = pixelsOffset + y * pixelsStride + x;
+            for (int i = 0; i < count; i++, index += dx) {
+                bytePixels[index] = grayLevels[row[i] & 0xff];
+            }
+        } else if (dx == 1) {
+            bi.setRGB(x, y, count, 1, row, 0, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                bi.setRGB(x + i * dx, y, row[i]);
+            }
+        }
+    }
+
     byte[] unfilterScanline(final FilterType filterType, final byte[] src, final byte[] prev, final int bytesPerPixel) throws ImagingException, IOException {
         final ScanlineFilter filter = getScanlineFilter(filterType, bytesPerPixel);
 
@@ -24,7 +24,7 @@ final class BitParser {
     private final int bitDepth;
 
     BitParser(final byte[] bytes, final int bitsPerPixel, final int bitDepth) {
-        this.bytes = bytes.clone();
+        this.bytes = bytes;
         this.bitsPerPixel = bitsPerPixel;
         this.bitDepth = bitDepth;
     }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.png;
+
+/**
+ * How the PNG writer chooses the filter type of each scanline. Filtering does not change the image, it transforms the bytes of each row so that they
+ * compress better.
+ *
+ * @see <a href="https://www.w3.org/TR/png/#12Filter-selection">Portable Network Graphics Specification - Filter selection</a>
+ * @since 1.0.0-alpha6
+ */
+public enum FilterSelection {
+
+    /**
+     * Filter type None for every scanline, the bytes are stored as they are.
+     */
+    NONE(FilterType.NONE),
+
+    /**
+     * Filter type Sub for every scanline, each byte is stored as the difference to the corresponding byte of the pixel on its left.
+     */
+    SUB(FilterType.SUB),
+
+    /**
+     * Filter type Up for every scanline, each byte is stored as the difference to the corresponding byte of the pixel above.
+     */
+    UP(FilterType.UP),
+
+    /**
+     * Filter type Average for every scanline, each byte is stored as the difference to the average of the pixels on its left and above.
+     */
+    AVERAGE(FilterType.AVERAGE),
+
+    /**
+     * Filter type Paeth for every scanline, each byte is stored as the difference to the one of the pixels on its left, above and upper left that is
+     * closest to their linear prediction.
+     */
+    PAETH(FilterType.PAETH),
+
+    /**
+     * For each scanline, the filter type whose output has the minimum sum of absolute differences, the bytes being taken as signed values. This is the
+     * heuristic recommended by the PNG specification, and usually gives most of the gain of adaptive filtering at little cost.
+     */
+    MINIMUM_SUM(null),
+
+    /**
+     * For each scanline, the filter type whose output deflates to the fewest bytes, with the previous scanline as context. This tries every filter type
+     * with the configured compression level and strategy, so it is several times slower than {@link #MINIMUM_SUM}.
+     */
+    BRUTE_FORCE(null);
+
+    final FilterType filterType;
+
+    FilterSelection(final FilterType filterType) {
+        this.filterType = filterType;
+    }
+}
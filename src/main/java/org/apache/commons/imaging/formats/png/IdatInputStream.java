@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.png;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.BinaryFunctions;
+
+/**
+ * Reads the data of successive IDAT chunks as one stream, so that the compressed image data can be inflated while it is read, one chunk at a time.
+ * <p>
+ * The CRC of each chunk is checked once its data has been read. The stream ends at the first chunk that is not an IDAT chunk, whose length and type have
+ * then been consumed.
+ * </p>
+ */
+final class IdatInputStream extends InputStream {
+
+    private final InputStream is;
+    private final CRC32 crc = new CRC32();
+    // bytes left in the data of the current chunk
+    private int remaining;
+    private boolean end;
+
+    /**
+     * Constructs a stream over the IDAT chunks that start at the data of the first one.
+     *
+     * @param is     the PNG stream, positioned after the length and type of the first IDAT chunk.
+     * @param length the length of the data of the first IDAT chunk.
+     */
+    IdatInputStream(final InputStream is, final int length) {
+        this.is = is;
+        startChunk(length);
+    }
+
+    /**
+     * Checks the CRC of the current chunk and moves to the next one.
+     *
+     * @return true if the next chunk is an IDAT chunk, false if the image data ended.
+     * @throws ImagingException if the CRC does not match or the file is truncated.
+     * @throws IOException      if the stream cannot be read.
+     */
+    private boolean nextChunk() throws ImagingException, IOException {
+        final int expectedCrc = BinaryFunctions.read4Bytes("CRC", is, "Not a Valid PNG File", ByteOrder.BIG_ENDIAN);
+        if (expectedCrc != (int) crc.getValue()) {
+            throw new ImagingException("PNG: invalid IDAT chunk CRC");
+        }
+        final int length = BinaryFunctions.read4Bytes("Length", is, "Not a Valid PNG File", ByteOrder.BIG_ENDIAN);
+        if (length < 0) {
+            throw new ImagingException("Invalid PNG chunk length: " + length);
+        }
+        final int chunkType = BinaryFunctions.read4Bytes("ChunkType", is, "Not a Valid PNG File", ByteOrder.BIG_ENDIAN);
+        if (chunkType != ChunkType.IDAT.value) {
+            end = true;
+            return false;
+        }
+        startChunk(length);
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (remaining == 0) {
+            if (end || !nextChunk()) {
+                return -1;
+            }
+        }
+        final int n = is.read(b, off, Math.min(len, remaining));
+        if (n < 0) {
+            throw new ImagingException("Not a Valid PNG File: Couldn't read Chunk Data.");
+        }
+        crc.update(b, off, n);
+        remaining -= n;
+        return n;
+    }
+
+    private void startChunk(final int length) {
+        remaining = length;
+        crc.reset();
+        crc.update(ChunkType.IDAT.array, 0, ChunkType.IDAT.array.length);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.png;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.ParallelTasks;
+
+/**
+ * Compresses the filtered image data of a PNG into a zlib stream, deflating blocks of it concurrently.
+ * <p>
+ * Each block is deflated on its own, with the last 32 KiB of the previous block as preset dictionary so that matches can still reach back into it, and
+ * ends with a sync flush so that it finishes on a byte boundary. The raw deflate blocks are concatenated between a zlib header and the Adler-32 of the
+ * whole data, combined from the checksums of the blocks, so that the result is a standard zlib stream that any inflater can read.
+ * </p>
+ */
+final class ParallelDeflater {
+
+    /**
+     * The number of bytes of filtered image data deflated by each task.
+     */
+    static final int BLOCK_SIZE = 128 * 1024;
+
+    // the deflate window, the most a match can reach back
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    // the largest prime smaller than 65536
+    private static final int ADLER_BASE = 65521;
+
+    private static final class Block {
+        final byte[] compressed;
+        final long adler;
+        final int length;
+
+        Block(final byte[] compressed, final long adler, final int length) {
+            this.compressed = compressed;
+            this.adler = adler;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Combines the Adler-32 checksums of two consecutive sequences of bytes into the checksum of their concatenation, like zlib's adler32_combine.
+     *
+     * @param adler1  the checksum of the first sequence.
+     * @param adler2  the checksum of the second sequence.
+     * @param length2 the length of the second sequence.
+     * @return the checksum of the concatenation.
+     */
+    static long combineAdler32(final long adler1, final long adler2, final long length2) {
+        final long rem = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = rem * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xffff) + ADLER_BASE - 1;
+        sum2 += (adler1 >> 16 & 0xffff) + (adler2 >> 16 & 0xffff) + ADLER_BASE - rem;
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum2 >= ADLER_BASE << 1) {
+            sum2 -= ADLER_BASE << 1;
+        }
+        if (sum2 >= ADLER_BASE) {
+            sum2 -= ADLER_BASE;
+        }
+        return sum1 | sum2 << 16;
+    }
+
+    private static byte[] zlibHeader(final int compressionLevel) {
+        // CM = 8 (deflate), CINFO = 7 (32 KiB window); FLEVEL as zlib sets it, FDICT = 0
+        final int cmf = 0x78;
+        final int flevel;
+        if (compressionLevel == Deflater.DEFAULT_COMPRESSION || compressionLevel == 6) {
+            flevel = 2;
+        } else if (compressionLevel < 2) {
+            flevel = 0;
+        } else if (compressionLevel < 6) {
+            flevel = 1;
+        } else {
+            flevel = 3;
+        }
+        int flg = flevel << 6;
+        flg += 31 - (cmf << 8 | flg) % 31;
+        return new byte[] { (byte) cmf, (byte) flg };
+    }
+
+    private final ExecutorService executor;
+    private final int compressionLevel;
+    private final int compressionStrategy;
+    private final byte[] data;
+    private final int blockCount;
+    private final Deque<Future<Block>> pending = new ArrayDeque<>();
+    private int submitted;
+    private int consumed;
+    private long adler = 1;
+
+    /**
+     * Constructs a deflater for the image data of one image.
+     *
+     * @param executor            the executor the blocks are deflated on.
+     * @param compressionLevel    the deflate compression level.
+     * @param compressionStrategy the deflate strategy.
+     * @param data                the filtered image data.
+     */
+    ParallelDeflater(final ExecutorService executor, final int compressionLevel, final int compressionStrategy, final byte[] data) {
+        this.executor = executor;
+        this.compressionLevel = compressionLevel;
+        this.compressionStrategy = compressionStrategy;
+        this.data = data;
+        this.blockCount = Math.max(1, (data.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    /**
+     * Cancels the blocks still being deflated, after a failure.
+     */
+    void cancel() {
+        for (final Future<Block> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    private Block deflateBlock(final int index) {
+        final int start = index * BLOCK_SIZE;
+        final int length = Math.min(BLOCK_SIZE, data.length - start);
+        final boolean last = index == blockCount - 1;
+        final Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            deflater.setStrategy(compressionStrategy);
+            if (start > 0) {
+                final int dictionaryLength = Math.min(DICTIONARY_SIZE, start);
+                deflater.setDictionary(data, start - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(data, start, length);
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream(length / 2 + 64);
+            final byte[] buffer = new byte[16 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    final int count = deflater.deflate(buffer);
+                    baos.write(buffer, 0, count);
+                }
+            } else {
+                // a sync flush is complete when it no longer fills the buffer
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    baos.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            final Adler32 adler32 = new Adler32();
+            adler32.update(data, start, length);
+            return new Block(baos.toByteArray(), adler32.getValue(), length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Gets the next part of the zlib stream, in order. The first part starts with the zlib header and the last one ends with the Adler-32 checksum.
+     *
+     * @return the next part, or null after the last one.
+     * @throws ImagingException if the calling thread is interrupted.
+     * @throws IOException      if a block fails to deflate.
+     */
+    byte[] next() throws ImagingException, IOException {
+        if (consumed == blockCount) {
+            return null;
+        }
+        while (submitted < blockCount && submitted - consumed < ParallelTasks.MAX_PENDING) {
+            final int index = submitted++;
+            pending.add(executor.submit(() -> deflateBlock(index)));
+        }
+        final Block block = ParallelTasks.await(pending.remove(), "compressing PNG image data");
+        adler = combineAdler32(adler, block.adler, block.length);
+        final boolean first = consumed == 0;
+        final boolean last = ++consumed == blockCount;
+        if (!first && !last) {
+            return block.compressed;
+        }
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream(block.compressed.length + 6);
+        if (first) {
+            baos.write(zlibHeader(compressionLevel), 0, 2);
+        }
+        baos.write(block.compressed, 0, block.compressed.length);
+        if (last) {
+            baos.write((int) (adler >> 24));
+            baos.write((int) (adler >> 16));
+            baos.write((int) (adler >> 8));
+            baos.write((int) adler);
+        }
+        return baos.toByteArray();
+    }
+}
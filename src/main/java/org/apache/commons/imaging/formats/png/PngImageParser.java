@@ -22,8 +22,6 @@ import java.awt.color.ICC_ColorSpace;
 import java.awt.color.ICC_Profile;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -51,7 +49,6 @@ import org.apache.commons.imaging.formats.png.chunks.AbstractPngTextChunk;
 import org.apache.commons.imaging.formats.png.chunks.PngChunk;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkGama;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkIccp;
-import org.apache.commons.imaging.formats.png.chunks.PngChunkIdat;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkIhdr;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkItxt;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkPhys;
@@ -149,9 +146,22 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
 
     @Override
     public BufferedImage getBufferedImage(final ByteSource byteSource, final PngImagingParameters params) throws ImagingException, IOException {
+        try (InputStream is = byteSource.getInputStream()) {
+            readSignature(is);
+            final List<PngChunk> chunks = new ArrayList<>();
+            // the PNG specification places every chunk needed to decode the image before the image data
+            final int idatLength = readChunks(is,
+                    new ChunkType[] { ChunkType.IHDR, ChunkType.PLTE, ChunkType.tRNS, ChunkType.iCCP, ChunkType.gAMA, ChunkType.sRGB, }, false, true, chunks);
+            if (idatLength < 0) {
+                throw new ImagingException("PNG missing image data");
+            }
+            // the compressed image data is inflated while it is read, one chunk at a time
+            return getBufferedImage(chunks, new IdatInputStream(is, idatLength), params);
+        }
+    }
 
-        final List<PngChunk> chunks = readChunks(byteSource,
-                new ChunkType[] { ChunkType.IHDR, ChunkType.PLTE, ChunkType.IDAT, ChunkType.tRNS, ChunkType.iCCP, ChunkType.gAMA, ChunkType.sRGB, }, false);
+    private BufferedImage getBufferedImage(final List<PngChunk> chunks, final InputStream imageData, final PngImagingParameters params)
+            throws ImagingException, IOException {
 
         if (chunks.isEmpty()) {
             throw new ImagingException("PNG: no chunks");
@@ -174,23 +184,6 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
             pngChunkPLTE = (PngChunkPlte) PLTEs.get(0);
         }
 
-        final List<PngChunk> IDATs = filterChunks(chunks, ChunkType.IDAT);
-        if (IDATs.isEmpty()) {
-            throw new ImagingException("PNG missing image data");
-        }
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        for (final PngChunk IDAT : IDATs) {
-            final PngChunkIdat pngChunkIDAT = (PngChunkIdat) IDAT;
-            final byte[] bytes = pngChunkIDAT.getBytes();
-            // System.out.println(i + ": bytes: " + bytes.length);
-            baos.write(bytes);
-        }
-
-        final byte[] compressed = baos.toByteArray();
-
-        baos = null;
-
         AbstractTransparencyFilter abstractTransparencyFilter = null;
 
         final List<PngChunk> tRNSs = filterChunks(chunks, ChunkType.tRNS);
@@ -273,8 +266,7 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
                 result = getBufferedImageFactory(params).getColorBufferedImage(width, height, hasAlpha);
             }
 
-            final ByteArrayInputStream bais = new ByteArrayInputStream(compressed);
-            final InflaterInputStream iis = new InflaterInputStream(bais);
+            final InflaterInputStream iis = new InflaterInputStream(imageData);
 
             final AbstractScanExpediter abstractScanExpediter;
 
@@ -318,7 +310,8 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
      * @throws IOException      if it fails to read the input stream data
      */
     public List<String> getChunkTypes(final InputStream is) throws ImagingException, IOException {
-        final List<PngChunk> chunks = readChunks(is, null, false);
+        final List<PngChunk> chunks = new ArrayList<>();
+        readChunks(is, null, false, false, chunks);
         final List<String> chunkTypes = Allocator.arrayList(chunks.size());
         for (final PngChunk chunk : chunks) {
             chunkTypes.add(getChunkTypeName(chunk.getChunkType()));
@@ -624,7 +617,8 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
     public boolean hasChunkType(final ByteSource byteSource, final ChunkType chunkType) throws ImagingException, IOException {
         try (InputStream is = byteSource.getInputStream()) {
             readSignature(is);
-            final List<PngChunk> chunks = readChunks(is, new ChunkType[] { chunkType }, true);
+            final List<PngChunk> chunks = new ArrayList<>();
+            readChunks(is, new ChunkType[] { chunkType }, true, byteSource.isHeaderOnly(), chunks);
             return !chunks.isEmpty();
         }
     }
@@ -647,13 +641,26 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
             throws ImagingException, IOException {
         try (InputStream is = byteSource.getInputStream()) {
             readSignature(is);
-            return readChunks(is, chunkTypes, returnAfterFirst);
+            final List<PngChunk> chunks = new ArrayList<>();
+            readChunks(is, chunkTypes, returnAfterFirst, byteSource.isHeaderOnly(), chunks);
+            return chunks;
         }
     }
 
-    private List<PngChunk> readChunks(final InputStream is, final ChunkType[] chunkTypes, final boolean returnAfterFirst) throws ImagingException, IOException {
-        final List<PngChunk> result = new ArrayList<>();
-
+    /**
+     * Reads the chunks of the given types.
+     *
+     * @param is               the stream, positioned after the signature.
+     * @param chunkTypes       the types of the chunks to keep, or null to keep all of them.
+     * @param returnAfterFirst whether to stop after the first chunk kept.
+     * @param stopAtImageData  whether to stop at the first IDAT chunk, without reading the image data.
+     * @param result           receives the chunks that are kept.
+     * @return the length of the IDAT chunk stopped at, whose length and type have been read, or -1 if the chunks were read up to another point.
+     * @throws ImagingException if the file is not a valid PNG file.
+     * @throws IOException      if the stream cannot be read.
+     */
+    private int readChunks(final InputStream is, final ChunkType[] chunkTypes, final boolean returnAfterFirst, final boolean stopAtImageData,
+            final List<PngChunk> result) throws ImagingException, IOException {
         while (true) {
             final int length = BinaryFunctions.read4Bytes("Length", is, "Not a Valid PNG File", getByteOrder());
             if (length < 0) {
@@ -665,6 +672,9 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
                 BinaryFunctions.logCharQuad("ChunkType", chunkType);
                 debugNumber("Length", length, 4);
             }
+            if (stopAtImageData && chunkType == ChunkType.IDAT.value) {
+                return length;
+            }
             final boolean keep = keepChunk(chunkType, chunkTypes);
 
             byte[] bytes = null;
@@ -684,7 +694,7 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
                 result.add(ChunkType.makeChunk(length, chunkType, crc, bytes));
 
                 if (returnAfterFirst) {
-                    return result;
+                    return -1;
                 }
             }
 
@@ -694,7 +704,7 @@ public class PngImageParser extends AbstractImageParser<PngImagingParameters> im
 
         }
 
-        return result;
+        return -1;
 
     }
 
@@ -17,8 +17,11 @@ package org.apache.commons.imaging.formats.png;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
 
 import org.apache.commons.imaging.common.XmpImagingParameters;
+import org.apache.commons.imaging.palette.DitheringMethod;
 
 /**
  * PNG format parameters.
@@ -40,6 +43,31 @@ public class PngImagingParameters extends XmpImagingParameters<PngImagingParamet
 
     private boolean predictorEnabled;
 
+    /**
+     * How the filter type of each scanline is chosen when writing images; null for the predictor setting.
+     */
+    private FilterSelection filterSelection;
+
+    /**
+     * How colors are dithered when writing indexed color images; null to map each pixel to its palette color.
+     */
+    private DitheringMethod ditheringMethod;
+
+    /**
+     * Deflate compression level used when writing images.
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Deflate strategy used when writing images.
+     */
+    private int compressionStrategy = Deflater.DEFAULT_STRATEGY;
+
+    /**
+     * Executor used to deflate blocks of image data concurrently when writing images; null to deflate on the calling thread.
+     */
+    private ExecutorService encodeExecutor;
+
     /**
      * Used in write operations to indicate the Physical Scale - sCAL.
      *
@@ -66,6 +94,56 @@ public class PngImagingParameters extends XmpImagingParameters<PngImagingParamet
         return bitDepth;
     }
 
+    /**
+     * Gets the deflate compression level used when writing images.
+     *
+     * @return {@link Deflater#DEFAULT_COMPRESSION} (the default), or a level from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}.
+     * @since 1.0.0-alpha6
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Gets the deflate strategy used when writing images.
+     *
+     * @return {@link Deflater#DEFAULT_STRATEGY} (the default), {@link Deflater#FILTERED} or {@link Deflater#HUFFMAN_ONLY}.
+     * @since 1.0.0-alpha6
+     */
+    public int getCompressionStrategy() {
+        return compressionStrategy;
+    }
+
+    /**
+     * Gets how colors are dithered when writing indexed color images.
+     *
+     * @return the dithering method, or null if colors are not dithered.
+     * @since 1.0.0-alpha6
+     */
+    public DitheringMethod getDitheringMethod() {
+        return ditheringMethod;
+    }
+
+    /**
+     * Gets the executor used to deflate blocks of image data concurrently when writing images.
+     *
+     * @return the executor, or null to deflate on the calling thread.
+     * @since 1.0.0-alpha6
+     */
+    public ExecutorService getEncodeExecutor() {
+        return encodeExecutor;
+    }
+
+    /**
+     * Gets how the filter type of each scanline is chosen when writing images.
+     *
+     * @return the filter selection, or null if it follows the {@link #isPredictorEnabled() predictor} setting.
+     * @since 1.0.0-alpha6
+     */
+    public FilterSelection getFilterSelection() {
+        return filterSelection;
+    }
+
     public PhysicalScale getPhysicalScale() {
         return physicalScale;
     }
@@ -96,6 +174,83 @@ public class PngImagingParameters extends XmpImagingParameters<PngImagingParamet
         return asThis();
     }
 
+    /**
+     * Sets the deflate compression level used when writing images. Higher levels produce smaller files at the cost of time.
+     *
+     * @param compressionLevel {@link Deflater#DEFAULT_COMPRESSION} (the default), or a level from {@link Deflater#NO_COMPRESSION} to
+     *                         {@link Deflater#BEST_COMPRESSION}.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the level is not valid.
+     * @since 1.0.0-alpha6
+     */
+    public PngImagingParameters setCompressionLevel(final int compressionLevel) {
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level " + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+        return asThis();
+    }
+
+    /**
+     * Sets the deflate strategy used when writing images. {@link Deflater#FILTERED} favors Huffman coding over string matching, which suits filtered
+     * photographic data, while {@link Deflater#HUFFMAN_ONLY} does no string matching at all, which is fast.
+     *
+     * @param compressionStrategy {@link Deflater#DEFAULT_STRATEGY} (the default), {@link Deflater#FILTERED} or {@link Deflater#HUFFMAN_ONLY}.
+     * @return {@code this} instance.
+     * @throws IllegalArgumentException if the strategy is not valid.
+     * @since 1.0.0-alpha6
+     */
+    public PngImagingParameters setCompressionStrategy(final int compressionStrategy) {
+        if (compressionStrategy != Deflater.DEFAULT_STRATEGY && compressionStrategy != Deflater.FILTERED && compressionStrategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("Invalid compression strategy " + compressionStrategy);
+        }
+        this.compressionStrategy = compressionStrategy;
+        return asThis();
+    }
+
+    /**
+     * Sets an executor used to deflate blocks of image data concurrently when writing images. The filtered scanlines are split into blocks of 128 KiB,
+     * each deflated on the executor with the end of the previous block as preset dictionary, and the results are joined into one standard zlib stream.
+     * The output is a few bytes larger than with a single deflater, and differs from it. Images whose data fits in one block are deflated on the calling
+     * thread. The executor is not shut down by the writer.
+     *
+     * @param encodeExecutor the executor, or null to deflate on the calling thread (the default).
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public PngImagingParameters setEncodeExecutor(final ExecutorService encodeExecutor) {
+        this.encodeExecutor = encodeExecutor;
+        return asThis();
+    }
+
+    /**
+     * Sets how colors are dithered when writing indexed color images, whose palette is quantized to 256 colors. Error diffusion methods use serpentine
+     * scanning. Other color types are not dithered.
+     *
+     * @param ditheringMethod the dithering method, or null to map each pixel to its palette color (the default).
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public PngImagingParameters setDitheringMethod(final DitheringMethod ditheringMethod) {
+        this.ditheringMethod = ditheringMethod;
+        return asThis();
+    }
+
+    /**
+     * Sets how the filter type of each scanline is chosen when writing images. Adaptive filtering with {@link FilterSelection#MINIMUM_SUM} usually produces
+     * noticeably smaller files than no filtering, for a small cost in time. The filter selection applies to every color type, and takes precedence over
+     * the {@link #setPredictorEnabled(boolean) predictor}.
+     *
+     * @param filterSelection the filter selection, or null to follow the predictor setting (the default): filter type Sub for true color images if the
+     *                        predictor is enabled, filter type None otherwise.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public PngImagingParameters setFilterSelection(final FilterSelection filterSelection) {
+        this.filterSelection = filterSelection;
+        return asThis();
+    }
+
     public PngImagingParameters setForceIndexedColor(final boolean forceIndexedColor) {
         this.forceIndexedColor = forceIndexedColor;
         return asThis();
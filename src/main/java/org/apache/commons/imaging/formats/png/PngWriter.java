@@ -29,6 +29,7 @@ import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.PixelDensity;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.internal.Debug;
+import org.apache.commons.imaging.palette.Ditherer;
 import org.apache.commons.imaging.palette.Palette;
 import org.apache.commons.imaging.palette.PaletteFactory;
 
@@ -304,7 +305,8 @@ public class PngWriter {
         if (paletteFactory == null) {
             paletteFactory = new PaletteFactory();
         }
-        final int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        final int compressionLevel = params.getCompressionLevel();
+        final int compressionStrategy = params.getCompressionStrategy();
 
         final int width = src.getWidth();
         final int height = src.getHeight();
@@ -430,25 +432,44 @@ public class PngWriter {
             // out of caution and is not necessarily required by the PNG
             // spec. We may broaden the use of predictors in future versions.
             final boolean usePredictor = params.isPredictorEnabled() && !isGrayscale && palette == null;
+            FilterSelection filterSelection = params.getFilterSelection();
+            if (filterSelection == null) {
+                filterSelection = usePredictor ? FilterSelection.SUB : FilterSelection.NONE;
+            }
 
-            final byte[] uncompressed;
-            if (!usePredictor) {
-                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-                final boolean useAlpha = pngColorType == PngColorType.GREYSCALE_WITH_ALPHA || pngColorType == PngColorType.TRUE_COLOR_WITH_ALPHA;
-
-                final int[] row = Allocator.intArray(width);
+            final boolean useAlpha = pngColorType == PngColorType.GREYSCALE_WITH_ALPHA || pngColorType == PngColorType.TRUE_COLOR_WITH_ALPHA;
+            final int bytesPerPixel;
+            if (palette != null) {
+                bytesPerPixel = 1;
+            } else {
+                bytesPerPixel = (isGrayscale ? 1 : 3) + (useAlpha ? 1 : 0);
+            }
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            final int[] row = Allocator.intArray(width);
+            final Ditherer ditherer = palette != null && params.getDitheringMethod() != null
+                    ? new Ditherer(palette, params.getDitheringMethod(), width, true)
+                    : null;
+            final int[] indices = ditherer != null ? Allocator.intArray(width) : null;
+            byte[] scanline = Allocator.byteArray((long) width * bytesPerPixel);
+            byte[] prior = new byte[scanline.length];
+            final ScanlineFilterEncoder filterEncoder = new ScanlineFilterEncoder(filterSelection, bytesPerPixel, scanline.length, compressionLevel,
+                    compressionStrategy);
+            try {
                 for (int y = 0; y < height; y++) {
                     // Debug.debug("y", y + "/" + height);
                     src.getRGB(0, y, width, 1, row, 0, width);
+                    if (ditherer != null) {
+                        ditherer.ditherRow(row, indices);
+                    }
 
-                    baos.write(FilterType.NONE.ordinal());
+                    int index = 0;
                     for (int x = 0; x < width; x++) {
                         final int argb = row[x];
 
-                        if (palette != null) {
-                            final int index = palette.getPaletteIndex(argb);
-                            baos.write(0xff & index);
+                        if (ditherer != null) {
+                            scanline[index++] = (byte) indices[x];
+                        } else if (palette != null) {
+                            scanline[index++] = (byte) palette.getPaletteIndex(argb);
                         } else {
                             final int alpha = 0xff & argb >> 24;
                             final int red = 0xff & argb >> 16;
@@ -456,99 +477,73 @@ public class PngWriter {
                             final int blue = 0xff & argb >> 0;
 
                             if (isGrayscale) {
-                                final int gray = (red + green + blue) / 3;
-                                // if (y == 0)
-                                // {
-                                // Debug.debug("gray: " + x + ", " + y +
-                                // " argb: 0x"
-                                // + Integer.toHexString(argb) + " gray: 0x"
-                                // + Integer.toHexString(gray));
-                                // // Debug.debug(x + ", " + y + " gray", gray);
-                                // // Debug.debug(x + ", " + y + " gray", gray);
-                                // Debug.debug(x + ", " + y + " gray", gray +
-                                // " " + Integer.toHexString(gray));
-                                // Debug.debug();
-                                // }
-                                baos.write(gray);
+                                scanline[index++] = (byte) ((red + green + blue) / 3);
                             } else {
-                                baos.write(red);
-                                baos.write(green);
-                                baos.write(blue);
+                                scanline[index++] = (byte) red;
+                                scanline[index++] = (byte) green;
+                                scanline[index++] = (byte) blue;
                             }
                             if (useAlpha) {
-                                baos.write(alpha);
+                                scanline[index++] = (byte) alpha;
                             }
                         }
                     }
-                }
-                uncompressed = baos.toByteArray();
-            } else {
-                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-                final boolean useAlpha = pngColorType == PngColorType.GREYSCALE_WITH_ALPHA || pngColorType == PngColorType.TRUE_COLOR_WITH_ALPHA;
 
-                final int[] row = Allocator.intArray(width);
-                for (int y = 0; y < height; y++) {
-                    // Debug.debug("y", y + "/" + height);
-                    src.getRGB(0, y, width, 1, row, 0, width);
-
-                    int priorA = 0;
-                    int priorR = 0;
-                    int priorG = 0;
-                    int priorB = 0;
-                    baos.write(FilterType.SUB.ordinal());
-                    for (int x = 0; x < width; x++) {
-                        final int argb = row[x];
-                        final int alpha = 0xff & argb >> 24;
-                        final int red = 0xff & argb >> 16;
-                        final int green = 0xff & argb >> 8;
-                        final int blue = 0xff & argb;
-
-                        baos.write(red - priorR);
-                        baos.write(green - priorG);
-                        baos.write(blue - priorB);
-                        priorR = red;
-                        priorG = green;
-                        priorB = blue;
-
-                        if (useAlpha) {
-                            baos.write(alpha - priorA);
-                            priorA = alpha;
-                        }
-                    }
+                    final byte[] filtered = filterEncoder.filter(scanline, prior);
+                    baos.write(filtered, 0, filtered.length);
+                    final byte[] swap = prior;
+                    prior = scanline;
+                    scanline = swap;
                 }
-                uncompressed = baos.toByteArray();
+            } finally {
+                filterEncoder.end();
             }
+            final byte[] uncompressed = baos.toByteArray();
 
             // Debug.debug("uncompressed", uncompressed.length);
 
-            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            final int chunkSize = 256 * 1024;
-            final Deflater deflater = new Deflater(compressionLevel);
-            final DeflaterOutputStream dos = new DeflaterOutputStream(baos, deflater, chunkSize);
-
-            for (int index = 0; index < uncompressed.length; index += chunkSize) {
-                final int end = Math.min(uncompressed.length, index + chunkSize);
-                final int length = end - index;
-
-                dos.write(uncompressed, index, length);
-                dos.flush();
-                baos.flush();
-
-                final byte[] compressed = baos.toByteArray();
-                baos.reset();
-                if (compressed.length > 0) {
-                    // Debug.debug("compressed", compressed.length);
-                    writeChunkIDAT(os, compressed);
+            if (params.getEncodeExecutor() != null && uncompressed.length > ParallelDeflater.BLOCK_SIZE) {
+                final ParallelDeflater parallelDeflater = new ParallelDeflater(params.getEncodeExecutor(), compressionLevel, compressionStrategy,
+                        uncompressed);
+                try {
+                    byte[] compressed;
+                    while ((compressed = parallelDeflater.next()) != null) {
+                        writeChunkIDAT(os, compressed);
+                    }
+                } finally {
+                    parallelDeflater.cancel();
                 }
+            } else {
+                baos.reset();
+                final int chunkSize = 256 * 1024;
+                final Deflater deflater = new Deflater(compressionLevel);
+                deflater.setStrategy(compressionStrategy);
+                final DeflaterOutputStream dos = new DeflaterOutputStream(baos, deflater, chunkSize);
+
+                for (int index = 0; index < uncompressed.length; index += chunkSize) {
+                    final int end = Math.min(uncompressed.length, index + chunkSize);
+                    final int length = end - index;
+
+                    dos.write(uncompressed, index, length);
+                    dos.flush();
+                    baos.flush();
+
+                    final byte[] compressed = baos.toByteArray();
+                    baos.reset();
+                    if (compressed.length > 0) {
+                        // Debug.debug("compressed", compressed.length);
+                        writeChunkIDAT(os, compressed);
+                    }
 
-            }
-            {
-                dos.finish();
-                final byte[] compressed = baos.toByteArray();
-                if (compressed.length > 0) {
-                    // Debug.debug("compressed final", compressed.length);
-                    writeChunkIDAT(os, compressed);
+                }
+                {
+                    dos.finish();
+                    final byte[] compressed = baos.toByteArray();
+                    if (compressed.length > 0) {
+                        // Debug.debug("compressed final", compressed.length);
+                        writeChunkIDAT(os, compressed);
+                    }
+                    deflater.end();
                 }
             }
         }
@@ -568,8 +563,7 @@ public class PngWriter {
          */
 
         os.close();
-    } // todo: filter types
-      // proper color types
+    } // todo: proper color types
       // srgb, etc.
 
     private void writeInt(final OutputStream os, final int value) throws IOException {
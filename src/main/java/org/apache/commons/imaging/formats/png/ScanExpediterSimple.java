@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.formats.png.chunks.PngChunkPlte;
 import org.apache.commons.imaging.formats.png.transparencyfilters.AbstractTransparencyFilter;
 
@@ -36,19 +37,15 @@ final class ScanExpediterSimple extends AbstractScanExpediter {
         final int bitsPerScanLine = bitsPerPixel * width;
         final int pixelBytesPerScanLine = getBitsToBytesRoundingUp(bitsPerScanLine);
         byte[] prev = null;
+        final int[] row = Allocator.intArray(width);
 
         for (int y = 0; y < height; y++) {
             final byte[] unfiltered = getNextScanline(is, pixelBytesPerScanLine, prev, bytesPerPixel);
 
             prev = unfiltered;
 
-            final BitParser bitParser = new BitParser(unfiltered, bitsPerPixel, bitDepth);
-
-            for (int x = 0; x < width; x++) {
-                final int rgb = getRgb(bitParser, x);
-
-                bi.setRGB(x, y, rgb);
-            }
+            getRgbRow(unfiltered, row, width);
+            setRgbRow(y, 0, 1, row, width);
         }
 
     }
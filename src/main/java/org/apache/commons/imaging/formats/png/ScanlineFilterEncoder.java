@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.png;
+
+import java.util.zip.Deflater;
+
+/**
+ * Filters the scanlines of an image being written, choosing the filter type of each scanline according to a {@link FilterSelection}.
+ */
+final class ScanlineFilterEncoder {
+
+    private static final FilterType[] FILTER_TYPES = FilterType.values();
+
+    private static int paethPredictor(final int a, final int b, final int c) {
+        // a = left, b = above, c = upper left
+        final int p = a + b - c;
+        final int pa = Math.abs(p - a);
+        final int pb = Math.abs(p - b);
+        final int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        if (pb <= pc) {
+            return b;
+        }
+        return c;
+    }
+
+    private static long sumOfAbsoluteDifferences(final byte[] scanline) {
+        long sum = 0;
+        for (int i = 1; i < scanline.length; i++) {
+            sum += Math.abs(scanline[i]);
+        }
+        return sum;
+    }
+
+    private final FilterSelection filterSelection;
+    private final int bytesPerPixel;
+    // the output of each filter type, the filter type byte followed by the filtered bytes
+    private final byte[][] filtered;
+    // brute force only: compresses each candidate after the previously chosen scanline
+    private final Deflater deflater;
+    private final byte[] deflated;
+    private final byte[] previous;
+    private boolean hasPrevious;
+
+    /**
+     * Constructs an encoder for the scanlines of one image.
+     *
+     * @param filterSelection     how to choose the filter type of each scanline.
+     * @param bytesPerPixel       the number of bytes per complete pixel, at least one.
+     * @param length              the number of bytes of each scanline, without the filter type byte.
+     * @param compressionLevel    the compression level used to evaluate the filter types with {@link FilterSelection#BRUTE_FORCE}.
+     * @param compressionStrategy the deflate strategy used to evaluate the filter types with {@link FilterSelection#BRUTE_FORCE}.
+     */
+    ScanlineFilterEncoder(final FilterSelection filterSelection, final int bytesPerPixel, final int length, final int compressionLevel,
+            final int compressionStrategy) {
+        this.filterSelection = filterSelection;
+        this.bytesPerPixel = bytesPerPixel;
+        this.filtered = new byte[FILTER_TYPES.length][1 + length];
+        for (final FilterType filterType : FILTER_TYPES) {
+            filtered[filterType.ordinal()][0] = (byte) filterType.ordinal();
+        }
+        if (filterSelection == FilterSelection.BRUTE_FORCE) {
+            deflater = new Deflater(compressionLevel);
+            deflater.setStrategy(compressionStrategy);
+            deflated = new byte[length + length / 8 + 64];
+            previous = new byte[1 + length];
+        } else {
+            deflater = null;
+            deflated = null;
+            previous = null;
+        }
+    }
+
+    private int deflatedSize(final byte[] scanline) {
+        deflater.reset();
+        if (hasPrevious) {
+            deflater.setDictionary(previous);
+        }
+        deflater.setInput(scanline);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            size += deflater.deflate(deflated);
+        }
+        return size;
+    }
+
+    /**
+     * Releases the resources of the encoder.
+     */
+    void end() {
+        if (deflater != null) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Filters a scanline.
+     *
+     * @param raw   the bytes of the scanline.
+     * @param prior the bytes of the previous scanline, all zero for the first one.
+     * @return the filter type byte followed by the filtered bytes, valid until the next call.
+     */
+    byte[] filter(final byte[] raw, final byte[] prior) {
+        if (filterSelection.filterType != null) {
+            return filter(filterSelection.filterType, raw, prior);
+        }
+        for (final FilterType filterType : FILTER_TYPES) {
+            filter(filterType, raw, prior);
+        }
+        byte[] best = null;
+        long bestCost = Long.MAX_VALUE;
+        for (final byte[] candidate : filtered) {
+            final long cost = filterSelection == FilterSelection.BRUTE_FORCE ? deflatedSize(candidate) : sumOfAbsoluteDifferences(candidate);
+            if (cost < bestCost) {
+                best = candidate;
+                bestCost = cost;
+            }
+        }
+        if (previous != null) {
+            System.arraycopy(best, 0, previous, 0, best.length);
+            hasPrevious = true;
+        }
+        return best;
+    }
+
+    private byte[] filter(final FilterType filterType, final byte[] raw, final byte[] prior) {
+        final byte[] dst = filtered[filterType.ordinal()];
+        final int bpp = bytesPerPixel;
+        switch (filterType) {
+        case NONE:
+            System.arraycopy(raw, 0, dst, 1, raw.length);
+            break;
+        case SUB:
+            for (int i = 0; i < raw.length; i++) {
+                final int a = i >= bpp ? raw[i - bpp] : 0;
+                dst[i + 1] = (byte) (raw[i] - a);
+            }
+            break;
+        case UP:
+            for (int i = 0; i < raw.length; i++) {
+                dst[i + 1] = (byte) (raw[i] - prior[i]);
+            }
+            break;
+        case AVERAGE:
+            for (int i = 0; i < raw.length; i++) {
+                final int a = i >= bpp ? raw[i - bpp] & 0xff : 0;
+                dst[i + 1] = (byte) (raw[i] - (a + (prior[i] & 0xff) >> 1));
+            }
+            break;
+        case PAETH:
+            for (int i = 0; i < raw.length; i++) {
+                final int a = i >= bpp ? raw[i - bpp] & 0xff : 0;
+                final int c = i >= bpp ? prior[i - bpp] & 0xff : 0;
+                dst[i + 1] = (byte) (raw[i] - paethPredictor(a, prior[i] & 0xff, c));
+            }
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown filter type " + filterType);
+        }
+        return dst;
+    }
+}
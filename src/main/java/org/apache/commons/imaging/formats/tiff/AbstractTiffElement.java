@@ -16,24 +16,77 @@
  */
 package org.apache.commons.imaging.formats.tiff;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Comparator;
 
+import org.apache.commons.imaging.bytesource.ByteSource;
+
 public abstract class AbstractTiffElement {
     public abstract static class DataElement extends AbstractTiffElement {
         private final byte[] data;
+        private final ByteSource byteSource;
+
+        /**
+         * Constructs a data element whose content is not read until it is requested. Each call to {@link #readData()} fetches the bytes from the byte
+         * source, so no content is held on the heap between calls.
+         *
+         * @param offset     the offset of the data in the byte source.
+         * @param length     the length of the data in bytes.
+         * @param byteSource the byte source the data is read from.
+         */
+        public DataElement(final long offset, final int length, final ByteSource byteSource) {
+            super(offset, length);
+
+            this.data = null;
+            this.byteSource = byteSource;
+        }
 
         public DataElement(final long offset, final int length, final byte[] data) {
             super(offset, length);
 
             this.data = data;
+            this.byteSource = null;
         }
 
+        /**
+         * Gets a copy of the content of this element.
+         *
+         * @return a new array owned by the caller.
+         * @throws UncheckedIOException if the content of a deferred element cannot be read.
+         */
         public byte[] getData() {
-            return data.clone();
+            try {
+                return readData();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
 
         public int getDataLength() {
-            return data.length;
+            return data != null ? data.length : length;
+        }
+
+        /**
+         * Tests whether the content of this element is held in memory, as opposed to being read on demand.
+         *
+         * @return true if the content was read eagerly.
+         */
+        public boolean isLoaded() {
+            return data != null;
+        }
+
+        /**
+         * Reads the content of this element, fetching it from the byte source if it was not read eagerly.
+         *
+         * @return a new array owned by the caller.
+         * @throws IOException if the content cannot be read from the byte source.
+         */
+        public byte[] readData() throws IOException {
+            if (data != null) {
+                return data.clone();
+            }
+            return byteSource.getByteArray(offset, length);
         }
     }
 
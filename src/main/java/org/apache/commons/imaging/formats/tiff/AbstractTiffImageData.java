@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.nio.ByteOrder;
 
 import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.formats.tiff.constants.TiffPlanarConfiguration;
 import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
 import org.apache.commons.imaging.formats.tiff.datareaders.DataReaderStrips;
@@ -31,6 +32,10 @@ public abstract class AbstractTiffImageData {
 
     public static class Data extends AbstractTiffElement.DataElement {
 
+        public Data(final long offset, final int length, final ByteSource byteSource) {
+            super(offset, length, byteSource);
+        }
+
         public Data(final long offset, final int length, final byte[] data) {
             super(offset, length, data);
         }
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.tiff;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
+
+/**
+ * A size-bounded cache of parsed TIFF directories, for applications that read the same files over and over, such as tile servers reading a different
+ * sub-image of a large file on every request.
+ * <p>
+ * An entry holds the header, the directories and the fields of a file, including its strip and tile offsets, but no image data; the strips and tiles are
+ * read from the byte source of each call as before. Entries are looked up by a key supplied with
+ * {@link TiffImagingParameters#setContentsCacheKey(Object)}, which must change whenever the content of the file does; {@link #fileKey(Path)} builds such a
+ * key from the path, the modification time and the size of a file. Strict and lenient reads of a file are cached apart, since a lenient read may
+ * accept fields that a strict read rejects.
+ * </p>
+ * <p>
+ * The weight of an entry is the number of bytes of its directory entries and field values. Once the total weight exceeds the maximum, the least recently
+ * used entries are evicted. Instances are thread-safe.
+ * </p>
+ *
+ * @since 1.0.0-alpha6
+ */
+public final class TiffContentsCache {
+
+    private static final class Entry {
+        final TiffContents contents;
+        final long weight;
+
+        Entry(final TiffContents contents, final long weight) {
+            this.contents = contents;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Builds a cache key for a file from its absolute path, its last modification time and its size, so that the cached entry is no longer found once the
+     * file is replaced.
+     *
+     * @param file the file.
+     * @return the key.
+     * @throws IOException if the attributes of the file cannot be read.
+     */
+    public static Object fileKey(final Path file) throws IOException {
+        return Arrays.asList(file.toAbsolutePath().normalize(), Files.getLastModifiedTime(file), Files.size(file));
+    }
+
+    private static long weigh(final TiffContents contents) {
+        long weight = 0;
+        for (final TiffField field : contents.tiffFields) {
+            weight += TiffConstants.ENTRY_LENGTH + field.getBytesLength();
+        }
+        return weight;
+    }
+
+    private final long maxWeight;
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maxWeight the maximum total weight of the entries, in bytes of directory entries and field values.
+     * @throws IllegalArgumentException if the maximum weight is not positive.
+     */
+    public TiffContentsCache(final long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Invalid maximum weight: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Removes all entries. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Gets the contents cached for a key, counting a hit or a miss.
+     *
+     * @param key    the key.
+     * @param strict whether the contents are wanted for a strict read.
+     * @return the contents, or null if none are cached for the key.
+     */
+    synchronized TiffContents get(final Object key, final boolean strict) {
+        final Entry entry = entries.get(Arrays.asList(key, strict));
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.contents;
+    }
+
+    /**
+     * Gets the number of entries evicted to keep the cache within its maximum weight.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of reads that found their contents in the cache.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the maximum total weight of the entries.
+     *
+     * @return the maximum weight, in bytes.
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Gets the number of reads that had to parse the file.
+     *
+     * @return the number of misses.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the total weight of the entries.
+     *
+     * @return the weight, in bytes.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Removes the entries for a key, if any.
+     *
+     * @param key the key.
+     */
+    public synchronized void invalidate(final Object key) {
+        for (final Boolean strict : new Boolean[] { Boolean.FALSE, Boolean.TRUE }) {
+            final Entry entry = entries.remove(Arrays.asList(key, strict));
+            if (entry != null) {
+                weight -= entry.weight;
+            }
+        }
+    }
+
+    /**
+     * Caches the contents read for a key and evicts the least recently used entries that no longer fit. Contents heavier than the maximum weight are not
+     * cached.
+     *
+     * @param key      the key.
+     * @param strict   whether the contents were read strictly.
+     * @param contents the contents, without image data.
+     */
+    synchronized void put(final Object key, final boolean strict, final TiffContents contents) {
+        final Entry entry = new Entry(contents, weigh(contents));
+        if (entry.weight > maxWeight) {
+            return;
+        }
+        final Entry previous = entries.put(Arrays.asList(key, strict), entry);
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entry.weight;
+        final Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet().iterator();
+        while (weight > maxWeight) {
+            final Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            weight -= eldest.weight;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -47,6 +47,13 @@ import org.apache.commons.imaging.formats.tiff.write.TiffOutputDirectory;
 import org.apache.commons.imaging.formats.tiff.write.TiffOutputField;
 import org.apache.commons.imaging.formats.tiff.write.TiffOutputSet;
 
+/**
+ * The metadata of a TIFF file, or of the EXIF data of another format, organized by directory.
+ * <p>
+ * The strips and tiles of directories read from a byte source are not held in memory; they are read from the byte source when they are used, for
+ * example when an output set is built by {@link #getOutputSet()}.
+ * </p>
+ */
 public class TiffImageMetadata extends GenericImageMetadata {
     public static class Directory extends GenericImageMetadata implements ImageMetadataItem {
         // private BufferedImage thumbnail;
@@ -120,15 +127,35 @@ public class TiffImageMetadata extends GenericImageMetadata {
                     dstDir.add(dstField);
                 }
 
-                dstDir.setTiffImageData(getTiffImageData());
+                dstDir.setTiffImageData(loadImageData(getTiffImageData()));
                 dstDir.setJpegImageData(getJpegImageData());
 
                 return dstDir;
-            } catch (final ImagingException e) {
+            } catch (final IOException e) {
                 throw new ImagingException(e.getMessage(), e);
             }
         }
 
+        /**
+         * Copies image data into memory, so that an output directory does not depend on the byte source it was read from.
+         */
+        private AbstractTiffImageData loadImageData(final AbstractTiffImageData imageData) throws IOException {
+            if (imageData == null) {
+                return null;
+            }
+            final AbstractTiffElement.DataElement[] elements = imageData.getImageData();
+            final AbstractTiffElement.DataElement[] loaded = new AbstractTiffElement.DataElement[elements.length];
+            for (int i = 0; i < elements.length; i++) {
+                final AbstractTiffElement.DataElement element = elements[i];
+                loaded[i] = element.isLoaded() ? element : new AbstractTiffImageData.Data(element.offset, element.length, element.readData());
+            }
+            if (imageData.stripsNotTiles()) {
+                return new AbstractTiffImageData.Strips(loaded, ((AbstractTiffImageData.Strips) imageData).rowsPerStrip);
+            }
+            final AbstractTiffImageData.Tiles tiles = (AbstractTiffImageData.Tiles) imageData;
+            return new AbstractTiffImageData.Tiles(loaded, tiles.getTileWidth(), tiles.getTileHeight());
+        }
+
         public BufferedImage getThumbnail() throws ImagingException, IOException {
             return directory.getTiffImage(byteOrder);
         }
@@ -504,6 +531,16 @@ public class TiffImageMetadata extends GenericImageMetadata {
         return result;
     }
 
+    /**
+     * Builds an output set holding the directories of this metadata, for writing them back, possibly modified.
+     * <p>
+     * The image data of the directories is read from the byte source this metadata was read from and copied into the output set, so the output set may be
+     * written onto the file it was read from.
+     * </p>
+     *
+     * @return the output set.
+     * @throws ImagingException if a directory cannot be converted or its image data cannot be read.
+     */
     public TiffOutputSet getOutputSet() throws ImagingException {
         final ByteOrder byteOrder = contents.header.byteOrder;
         final TiffOutputSet result = new TiffOutputSet(byteOrder);
@@ -239,9 +239,17 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
         }
         final FormatCompliance formatCompliance = FormatCompliance.getDefault();
         final TiffReader reader = new TiffReader(params.isStrict());
-        final TiffContents contents = reader.readFirstDirectory(byteSource, true, formatCompliance);
-        final ByteOrder byteOrder = reader.getByteOrder();
-        final TiffDirectory directory = contents.directories.get(0);
+        final TiffContents cachedContents = readCachedContents(byteSource, reader, params, formatCompliance);
+        final ByteOrder byteOrder;
+        final TiffDirectory directory;
+        if (cachedContents != null) {
+            byteOrder = cachedContents.header.byteOrder;
+            directory = reader.readImageData(byteSource, cachedContents.directories.get(0));
+        } else {
+            final TiffContents contents = reader.readFirstDirectory(byteSource, true, formatCompliance);
+            byteOrder = reader.getByteOrder();
+            directory = contents.directories.get(0);
+        }
         final BufferedImage result = directory.getTiffImage(byteOrder, params);
         if (null == result) {
             throw new ImagingException("TIFF does not contain an image.");
@@ -426,6 +434,9 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
         final ImageDataReader dataReader = imageData.getDataReader(directory, photometricInterpreter, bitsPerPixel,
                 bitsPerSample, predictor, samplesPerPixel,
                 width, height, compression, planarConfiguration, byteOrder);
+        if (params != null) {
+            dataReader.setDecodeExecutor(params.getDecodeExecutor());
+        }
 
         final ImageBuilder iBuilder = dataReader.readImageData(subImage, hasAlpha, isAlphaPremultiplied);
         return iBuilder.getBufferedImage();
@@ -464,8 +475,11 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
     public ImageInfo getImageInfo(final ByteSource byteSource, final TiffImagingParameters params)
             throws ImagingException, IOException {
         final FormatCompliance formatCompliance = FormatCompliance.getDefault();
-        final TiffContents contents = new TiffReader(params != null && params.isStrict()).readDirectories(byteSource,
-                false, formatCompliance);
+        final TiffReader reader = new TiffReader(params != null && params.isStrict());
+        TiffContents contents = readCachedContents(byteSource, reader, params, formatCompliance);
+        if (contents == null) {
+            contents = reader.readDirectories(byteSource, false, formatCompliance);
+        }
         final TiffDirectory directory = contents.directories.get(0);
 
         final TiffField widthField = directory.findField(TiffTagConstants.TIFF_TAG_IMAGE_WIDTH, true);
@@ -728,8 +742,11 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
     public Dimension getImageSize(final ByteSource byteSource, final TiffImagingParameters params)
             throws ImagingException, IOException {
         final FormatCompliance formatCompliance = FormatCompliance.getDefault();
-        final TiffContents contents = new TiffReader(params != null && params.isStrict()).readFirstDirectory(byteSource,
-                false, formatCompliance);
+        final TiffReader reader = new TiffReader(params != null && params.isStrict());
+        TiffContents contents = readCachedContents(byteSource, reader, params, formatCompliance);
+        if (contents == null) {
+            contents = reader.readFirstDirectory(byteSource, false, formatCompliance);
+        }
         final TiffDirectory directory = contents.directories.get(0);
 
         final TiffField widthField = directory.findField(TiffTagConstants.TIFF_TAG_IMAGE_WIDTH, true);
@@ -753,7 +770,21 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
         }
         final FormatCompliance formatCompliance = FormatCompliance.getDefault();
         final TiffReader tiffReader = new TiffReader(params.isStrict());
-        final TiffContents contents = tiffReader.readContents(byteSource, params, formatCompliance);
+        TiffContents contents = readCachedContents(byteSource, tiffReader, params, formatCompliance);
+        final ByteOrder byteOrder;
+        if (contents != null) {
+            byteOrder = contents.header.byteOrder;
+            if (params.isReadThumbnails()) {
+                final List<TiffDirectory> directories = new ArrayList<>(contents.directories.size());
+                for (final TiffDirectory dir : contents.directories) {
+                    directories.add(tiffReader.readImageData(byteSource, dir));
+                }
+                contents = new TiffContents(contents.header, directories, contents.tiffFields);
+            }
+        } else {
+            contents = tiffReader.readContents(byteSource, params, formatCompliance);
+            byteOrder = tiffReader.getByteOrder();
+        }
 
         final List<TiffDirectory> directories = contents.directories;
 
@@ -761,7 +792,7 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
 
         for (final TiffDirectory dir : directories) {
             final TiffImageMetadata.Directory metadataDirectory = new TiffImageMetadata.Directory(
-                    tiffReader.getByteOrder(), dir);
+                    byteOrder, dir);
 
             final List<TiffField> entries = dir.getDirectoryEntries();
 
@@ -1077,6 +1108,9 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
         final ImageDataReader dataReader = imageData.getDataReader(directory, photometricInterpreter, bitsPerPixel,
                 bitsPerSample, predictor, samplesPerPixel,
                 width, height, compression, planarConfiguration, byteOrder);
+        if (params != null) {
+            dataReader.setDecodeExecutor(params.getDecodeExecutor());
+        }
 
         return dataReader.readRasterData(subImage);
     }
@@ -1101,6 +1135,37 @@ public class TiffImageParser extends AbstractImageParser<TiffImagingParameters>
         return new String(bytes, StandardCharsets.UTF_8);
     }
 
+    /**
+     * Gets the directories of a file, without their image data, from the cache set in the parameters, parsing and caching them on a miss. Directories taken
+     * from the cache are shared, so image data must be attached with {@link TiffReader#readImageData(ByteSource, TiffDirectory)}.
+     *
+     * @param byteSource       the file.
+     * @param reader           the reader used on a miss.
+     * @param params           the parameters, possibly null.
+     * @param formatCompliance the format compliance used on a miss.
+     * @return the contents, or null if no cache or no key is set.
+     * @throws ImagingException if the file is not a valid TIFF file.
+     * @throws IOException      if an I/O error occurs.
+     */
+    private TiffContents readCachedContents(final ByteSource byteSource, final TiffReader reader, final TiffImagingParameters params,
+            final FormatCompliance formatCompliance) throws ImagingException, IOException {
+        final TiffContentsCache cache = params == null ? null : params.getContentsCache();
+        final Object key = params == null ? null : params.getContentsCacheKey();
+        if (cache == null || key == null) {
+            return null;
+        }
+        // a lenient read may accept fields that a strict read rejects
+        TiffContents contents = cache.get(key, params.isStrict());
+        if (contents == null) {
+            contents = reader.readDirectories(byteSource, false, formatCompliance);
+            // a truncated source may lack some of the fields
+            if (!byteSource.isHeaderOnly()) {
+                cache.put(key, params.isStrict(), contents);
+            }
+        }
+        return contents;
+    }
+
     @Override
     public void writeImage(final BufferedImage src, final OutputStream os, TiffImagingParameters params)
             throws ImagingException, IOException {
@@ -15,6 +15,8 @@
 
 package org.apache.commons.imaging.formats.tiff;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.commons.imaging.common.XmpImagingParameters;
 import org.apache.commons.imaging.formats.tiff.photometricinterpreters.PhotometricInterpreter;
 import org.apache.commons.imaging.formats.tiff.write.TiffOutputSet;
@@ -100,6 +102,21 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
      */
     private Integer t6Options;
 
+    /**
+     * Executor used to decode strips and tiles concurrently when reading images and raster data; null to decode on the calling thread.
+     */
+    private ExecutorService decodeExecutor;
+
+    /**
+     * Cache of parsed directories consulted when reading; null to parse the file on every read.
+     */
+    private TiffContentsCache contentsCache;
+
+    /**
+     * Key of the file being read in the cache of parsed directories.
+     */
+    private Object contentsCacheKey;
+
     /**
      * Clears settings for sub-image. Subsequent read operations will retrieve the entire image.
      */
@@ -112,10 +129,39 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
         return compression;
     }
 
+    /**
+     * Gets the cache of parsed directories consulted when reading.
+     *
+     * @return if set, a valid instance; otherwise, a null reference.
+     * @since 1.0.0-alpha6
+     */
+    public TiffContentsCache getContentsCache() {
+        return contentsCache;
+    }
+
+    /**
+     * Gets the key of the file being read in the cache of parsed directories.
+     *
+     * @return if set, a valid instance; otherwise, a null reference.
+     * @since 1.0.0-alpha6
+     */
+    public Object getContentsCacheKey() {
+        return contentsCacheKey;
+    }
+
     public PhotometricInterpreter getCustomPhotometricInterpreter() {
         return customPhotometricInterpreter;
     }
 
+    /**
+     * Gets the executor used to decode strips and tiles concurrently.
+     *
+     * @return if set, a valid instance; otherwise, a null reference.
+     */
+    public ExecutorService getDecodeExecutor() {
+        return decodeExecutor;
+    }
+
     public Integer getLzwCompressionBlockSize() {
         return lzwCompressionBlockSize;
     }
@@ -191,11 +237,50 @@ public class TiffImagingParameters extends XmpImagingParameters<TiffImagingParam
         return asThis();
     }
 
+    /**
+     * Sets a cache of parsed directories, so that repeated reads of the same file do not parse its directories again. The cache is only consulted when a key
+     * is also set with {@link #setContentsCacheKey(Object)}.
+     *
+     * @param contentsCache the cache, or null to parse the file on every read (the default).
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public TiffImagingParameters setContentsCache(final TiffContentsCache contentsCache) {
+        this.contentsCache = contentsCache;
+        return asThis();
+    }
+
+    /**
+     * Sets the key of the file being read in the cache of parsed directories, for example one built by {@link TiffContentsCache#fileKey(java.nio.file.Path)}.
+     * Reads with equal keys must be of the same file content.
+     *
+     * @param contentsCacheKey the key, or null to bypass the cache.
+     * @return {@code this} instance.
+     * @since 1.0.0-alpha6
+     */
+    public TiffImagingParameters setContentsCacheKey(final Object contentsCacheKey) {
+        this.contentsCacheKey = contentsCacheKey;
+        return asThis();
+    }
+
     public TiffImagingParameters setCustomPhotometricInterpreter(final PhotometricInterpreter customPhotometricInterpreter) {
         this.customPhotometricInterpreter = customPhotometricInterpreter;
         return asThis();
     }
 
+    /**
+     * Sets an executor used to decode strips and tiles concurrently when reading images and raster data. Decompression runs on the executor while pixels are
+     * still interpreted in order on the calling thread, so custom photometric interpreters need not be thread-safe. A {@link java.util.concurrent.ForkJoinPool}
+     * is a good choice for large compressed images. The executor is not shut down by the parser.
+     *
+     * @param decodeExecutor the executor, or null to decode on the calling thread (the default).
+     * @return {@code this} instance.
+     */
+    public TiffImagingParameters setDecodeExecutor(final ExecutorService decodeExecutor) {
+        this.decodeExecutor = decodeExecutor;
+        return asThis();
+    }
+
     public TiffImagingParameters setLzwCompressionBlockSize(final Integer lzwCompressionBlockSize) {
         this.lzwCompressionBlockSize = lzwCompressionBlockSize;
         return asThis();
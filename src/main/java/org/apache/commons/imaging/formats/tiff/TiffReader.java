@@ -36,6 +36,7 @@ import org.apache.commons.imaging.common.ByteConversions;
 import org.apache.commons.imaging.formats.jpeg.JpegConstants;
 import org.apache.commons.imaging.formats.tiff.TiffDirectory.ImageDataElement;
 import org.apache.commons.imaging.formats.tiff.constants.ExifTagConstants;
+import org.apache.commons.imaging.formats.tiff.constants.TiffConstants;
 import org.apache.commons.imaging.formats.tiff.constants.TiffDirectoryConstants;
 import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
 import org.apache.commons.imaging.formats.tiff.fieldtypes.AbstractFieldType;
@@ -162,10 +163,11 @@ public class TiffReader extends BinaryFileParser {
         final List<ImageDataElement> elements = directory.getTiffRawImageDataElements();
         final AbstractTiffImageData.Data[] data = new AbstractTiffImageData.Data[elements.size()];
 
+        // Strips and tiles are only read when a data reader asks for them,
+        // so reading a sub-image touches just the blocks that intersect it.
         for (int i = 0; i < elements.size(); i++) {
             final TiffDirectory.ImageDataElement element = elements.get(i);
-            final byte[] bytes = byteSource.getByteArray(element.offset, element.length);
-            data[i] = new AbstractTiffImageData.Data(element.offset, element.length, bytes);
+            data[i] = new AbstractTiffImageData.Data(element.offset, element.length, byteSource);
         }
 
         if (directory.imageDataInStrips()) {
@@ -207,6 +209,28 @@ public class TiffReader extends BinaryFileParser {
         return new AbstractTiffImageData.Tiles(data, tileWidth, tileLength);
     }
 
+    /**
+     * Tests whether a range of bytes lies within a byte source. The size of a header-only byte source is not asked for, since that would read it up to its
+     * limit; the end of the range is read instead, and a range the source does not hold is treated as lying outside the file.
+     */
+    private static boolean isInside(final ByteSource byteSource, final long offset, final long length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length < 0) {
+            return false;
+        }
+        if (!byteSource.isHeaderOnly()) {
+            return offset + length <= byteSource.size();
+        }
+        if (length == 0) {
+            return true;
+        }
+        try {
+            byteSource.getByteArray(offset + length - 1, 1);
+            return true;
+        } catch (final ImagingException e) {
+            return false;
+        }
+    }
+
     public void read(final ByteSource byteSource, final FormatCompliance formatCompliance, final Listener listener) throws ImagingException, IOException {
         readDirectories(byteSource, formatCompliance, listener);
     }
@@ -275,7 +299,7 @@ public class TiffReader extends BinaryFileParser {
         visited.add(directoryOffset);
 
         try (InputStream is = byteSource.getInputStream()) {
-            if (directoryOffset >= byteSource.size()) {
+            if (!isInside(byteSource, directoryOffset, 1)) {
                 return true;
             }
 
@@ -297,6 +321,13 @@ public class TiffReader extends BinaryFileParser {
                 return true;
             }
 
+            // a header-only source may end within the directory; BigTIFF entries are 20 bytes long
+            final long entriesOffset = directoryOffset + (standardTiff ? TiffConstants.DIRECTORY_HEADER_LENGTH : 8);
+            final long entriesLength = entryCount * (standardTiff ? TiffConstants.ENTRY_LENGTH : 20) + TiffConstants.DIRECTORY_FOOTER_LENGTH;
+            if (byteSource.isHeaderOnly() && !isInside(byteSource, entriesOffset, entriesLength)) {
+                return true;
+            }
+
             for (int i = 0; i < entryCount; i++) {
                 final int tag = BinaryFunctions.read2Bytes("Tag", is, "Not a Valid TIFF File", getByteOrder());
                 final int type = BinaryFunctions.read2Bytes("Type", is, "Not a Valid TIFF File", getByteOrder());
@@ -333,10 +364,12 @@ public class TiffReader extends BinaryFileParser {
                 final long valueLength = count * abstractFieldType.getSize();
                 final byte[] value;
                 if (valueLength > entryMaxValueLength) {
-                    if (offset < 0 || offset + valueLength > byteSource.size()) {
+                    if (!isInside(byteSource, offset, valueLength)) {
                         if (strict) {
+                            // the size of a header-only source is unknown without reading it up to its limit
                             throw new IOException("Attempt to read byte range starting from " + offset + " " + "of length " + valueLength + " "
-                                    + "which is outside the file's size of " + byteSource.size());
+                                    + (byteSource.isHeaderOnly() ? "which is outside the header read from the file"
+                                            : "which is outside the file's size of " + byteSource.size()));
                         }
                         // corrupt field, ignore it
                         continue;
@@ -359,7 +392,8 @@ public class TiffReader extends BinaryFileParser {
 
             final TiffDirectory directory = new TiffDirectory(dirType, fields, directoryOffset, nextDirectoryOffset, getByteOrder());
 
-            if (listener.readImageData()) {
+            // header-only byte sources hold no image data, not even thumbnails
+            if (listener.readImageData() && !byteSource.isHeaderOnly()) {
                 if (directory.hasTiffImageData()) {
                     final AbstractTiffImageData rawImageData = getTiffRawImageData(byteSource, directory);
                     directory.setTiffImageData(rawImageData);
@@ -429,6 +463,33 @@ public class TiffReader extends BinaryFileParser {
         return contents;
     }
 
+    /**
+     * Attaches the image data of a directory read without it, leaving the directory itself untouched so that it can be shared, for example by
+     * {@link TiffContentsCache}.
+     *
+     * @param byteSource the byte source the directory was read from.
+     * @param directory  a directory read without image data.
+     * @return a copy of the directory with its image data, or the directory itself if it has none.
+     * @throws ImagingException if the image data is invalid.
+     * @throws IOException      if an I/O error occurs.
+     */
+    TiffDirectory readImageData(final ByteSource byteSource, final TiffDirectory directory) throws ImagingException, IOException {
+        final boolean hasTiffImageData = directory.hasTiffImageData();
+        final boolean hasJpegImageData = directory.hasJpegImageData();
+        if (!hasTiffImageData && !hasJpegImageData || byteSource.isHeaderOnly()) {
+            return directory;
+        }
+        final TiffDirectory result = new TiffDirectory(directory.type, directory.getDirectoryEntries(), directory.offset,
+                directory.getNextDirectoryOffset(), directory.getByteOrder());
+        if (hasTiffImageData) {
+            result.setTiffImageData(getTiffRawImageData(byteSource, result));
+        }
+        if (hasJpegImageData) {
+            result.setJpegImageData(getJpegRawImageData(byteSource, result));
+        }
+        return result;
+    }
+
     private TiffHeader readTiffHeader(final ByteSource byteSource) throws ImagingException, IOException {
         try (InputStream is = byteSource.getInputStream()) {
             return readTiffHeader(is);
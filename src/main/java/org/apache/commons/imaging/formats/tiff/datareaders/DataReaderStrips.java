@@ -66,6 +66,12 @@ public final class DataReaderStrips extends ImageDataReader {
         this.byteOrder = byteOrder;
     }
 
+    private long getRowsInStrip(final int strip) {
+        final long rowsPerStripLong = 0xFFFFffffL & rowsPerStrip;
+        final long rowsRemaining = height - strip * rowsPerStripLong;
+        return Math.min(rowsRemaining, rowsPerStripLong);
+    }
+
     private void interpretStrip(final ImageBuilder imageBuilder, final byte[] bytes, final int pixelsPerStrip, final int yLimit)
             throws ImagingException, IOException {
         if (y >= yLimit) {
@@ -273,27 +279,34 @@ public final class DataReaderStrips extends ImageDataReader {
             // Pixel definitions are organized in an interleaved format
             // For example, red-green-blue values for each pixel
             // would appear contiguous in input sequence.
-            for (int strip = strip0; strip <= strip1; strip++) {
-                final long rowsPerStripLong = 0xFFFFffffL & rowsPerStrip;
-                final long rowsRemaining = height - strip * rowsPerStripLong;
-                final long rowsInThisStrip = Math.min(rowsRemaining, rowsPerStripLong);
+            // Strips are decompressed (possibly concurrently) and then
+            // interpreted in order on this thread, since interpretStrip
+            // advances the x and y members.
+            decodeBlocks(strip1 - strip0 + 1, k -> {
+                final int strip = strip0 + k;
+                final long rowsInThisStrip = getRowsInStrip(strip);
                 final long bytesPerRow = (bitsPerPixel * width + 7) / 8;
                 final long bytesPerStrip = rowsInThisStrip * bytesPerRow;
-                final long pixelsPerStrip = rowsInThisStrip * width;
 
-                final byte[] compressed = imageData.getImageData(strip).getData();
+                final byte[] compressed = imageData.getImageData(strip).readData();
+                // JPEG strips are decoded by the interpreter
+                if (compression == COMPRESSION_JPEG) {
+                    return compressed;
+                }
+                return decompress(compressed, compression, (int) bytesPerStrip, width, (int) rowsInThisStrip);
+            }, (k, bytes) -> {
+                final int strip = strip0 + k;
+                final long rowsInThisStrip = getRowsInStrip(strip);
+                final long pixelsPerStrip = rowsInThisStrip * width;
 
                 if (compression == COMPRESSION_JPEG) {
                     final int yBlock = strip * rowsPerStrip;
                     final int yWork = yBlock - y0;
-                    DataInterpreterJpeg.intepretBlock(directory, workingBuilder, 0, yWork, width, (int) rowsInThisStrip, compressed);
-                    continue;
+                    DataInterpreterJpeg.intepretBlock(directory, workingBuilder, 0, yWork, width, (int) rowsInThisStrip, bytes);
+                } else {
+                    interpretStrip(workingBuilder, bytes, (int) pixelsPerStrip, yLimit);
                 }
-
-                final byte[] decompressed = decompress(compressed, compression, (int) bytesPerStrip, width, (int) rowsInThisStrip);
-
-                interpretStrip(workingBuilder, decompressed, (int) pixelsPerStrip, yLimit);
-            }
+            });
         } else {
             // pixel definitions are organized in a 3 separate sections of input
             // sequence. For example, red-green-blue values would be given as
@@ -303,18 +316,16 @@ public final class DataReaderStrips extends ImageDataReader {
                 throw new ImagingException("TIFF file in non-supported configuration: JPEG compression used in planar configuration.");
             }
             final int nStripsInPlane = imageData.getImageDataLength() / 3;
-            for (int strip = strip0; strip <= strip1; strip++) {
-                final long rowsPerStripLong = 0xFFFFffffL & rowsPerStrip;
-                final long rowsRemaining = height - strip * rowsPerStripLong;
-                final long rowsInThisStrip = Math.min(rowsRemaining, rowsPerStripLong);
+            decodeBlocks(strip1 - strip0 + 1, k -> {
+                final int strip = strip0 + k;
+                final long rowsInThisStrip = getRowsInStrip(strip);
                 final long bytesPerRow = (bitsPerPixel * width + 7) / 8;
                 final long bytesPerStrip = rowsInThisStrip * bytesPerRow;
-                final long pixelsPerStrip = rowsInThisStrip * width;
 
                 final byte[] b = Allocator.byteArray((int) bytesPerStrip);
                 for (int iPlane = 0; iPlane < 3; iPlane++) {
                     final int planeStrip = iPlane * nStripsInPlane + strip;
-                    final byte[] compressed = imageData.getImageData(planeStrip).getData();
+                    final byte[] compressed = imageData.getImageData(planeStrip).readData();
                     final byte[] decompressed = decompress(compressed, compression, (int) bytesPerStrip, width, (int) rowsInThisStrip);
                     int index = iPlane;
                     for (final byte element : decompressed) {
@@ -322,8 +333,11 @@ public final class DataReaderStrips extends ImageDataReader {
                         index += 3;
                     }
                 }
+                return b;
+            }, (k, b) -> {
+                final long pixelsPerStrip = getRowsInStrip(strip0 + k) * width;
                 interpretStrip(workingBuilder, b, (int) pixelsPerStrip, height);
-            }
+            });
         }
 
         if (subImage.x == 0 && subImage.y == y0 && subImage.width == width && subImage.height == workingHeight) {
@@ -375,19 +389,23 @@ public final class DataReaderStrips extends ImageDataReader {
         final int strip0 = yRaster / rowsPerStrip;
         final int strip1 = (yRaster + rasterHeight - 1) / rowsPerStrip;
 
-        for (int strip = strip0; strip <= strip1; strip++) {
+        decodeBlocks(strip1 - strip0 + 1, k -> {
+            final int strip = strip0 + k;
             final int yStrip = strip * rowsPerStrip;
             final int rowsRemaining = height - yStrip;
             final int rowsInThisStrip = Math.min(rowsRemaining, rowsPerStrip);
             final int bytesPerRow = (bitsPerPixel * width + 7) / 8;
             final int bytesPerStrip = rowsInThisStrip * bytesPerRow;
 
-            final byte[] compressed = imageData.getImageData(strip).getData();
+            final byte[] compressed = imageData.getImageData(strip).readData();
             final byte[] decompressed = decompress(compressed, compression, bytesPerStrip, width, rowsInThisStrip);
 
-            final int[] blockData = unpackFloatingPointSamples(width, rowsInThisStrip, width, decompressed, bitsPerPixel, byteOrder);
+            return unpackFloatingPointSamples(width, rowsInThisStrip, width, decompressed, bitsPerPixel, byteOrder);
+        }, (k, blockData) -> {
+            final int yStrip = (strip0 + k) * rowsPerStrip;
+            final int rowsInThisStrip = Math.min(height - yStrip, rowsPerStrip);
             transferBlockToRaster(0, yStrip, width, rowsInThisStrip, blockData, xRaster, yRaster, rasterWidth, rasterHeight, samplesPerPixel, rasterDataFloat);
-        }
+        });
         return new TiffRasterDataFloat(rasterWidth, rasterHeight, samplesPerPixel, rasterDataFloat);
     }
 
@@ -420,18 +438,22 @@ public final class DataReaderStrips extends ImageDataReader {
         final int strip0 = yRaster / rowsPerStrip;
         final int strip1 = (yRaster + rasterHeight - 1) / rowsPerStrip;
 
-        for (int strip = strip0; strip <= strip1; strip++) {
+        decodeBlocks(strip1 - strip0 + 1, k -> {
+            final int strip = strip0 + k;
             final int yStrip = strip * rowsPerStrip;
             final int rowsRemaining = height - yStrip;
             final int rowsInThisStrip = Math.min(rowsRemaining, rowsPerStrip);
             final int bytesPerRow = (bitsPerPixel * width + 7) / 8;
             final int bytesPerStrip = rowsInThisStrip * bytesPerRow;
 
-            final byte[] compressed = imageData.getImageData(strip).getData();
+            final byte[] compressed = imageData.getImageData(strip).readData();
             final byte[] decompressed = decompress(compressed, compression, bytesPerStrip, width, rowsInThisStrip);
-            final int[] blockData = unpackIntSamples(width, rowsInThisStrip, width, decompressed, predictor, bitsPerPixel, byteOrder);
+            return unpackIntSamples(width, rowsInThisStrip, width, decompressed, predictor, bitsPerPixel, byteOrder);
+        }, (k, blockData) -> {
+            final int yStrip = (strip0 + k) * rowsPerStrip;
+            final int rowsInThisStrip = Math.min(height - yStrip, rowsPerStrip);
             transferBlockToRaster(0, yStrip, width, rowsInThisStrip, blockData, xRaster, yRaster, rasterWidth, rasterHeight, rasterDataInt);
-        }
+        });
         return new TiffRasterDataInt(rasterWidth, rasterHeight, rasterDataInt);
     }
 }
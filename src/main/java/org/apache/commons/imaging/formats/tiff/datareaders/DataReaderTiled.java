@@ -242,26 +242,29 @@ public final class DataReaderTiled extends ImageDataReader {
         // interpretTile method to implement bounds checking for a subimage.
         final ImageBuilder workingBuilder = new ImageBuilder(workingWidth, workingHeight, hasAlpha, isAlphaPreMultiplied);
 
-        for (int iRow = row0; iRow <= row1; iRow++) {
-            for (int iCol = col0; iCol <= col1; iCol++) {
-                final int tile = iRow * nColumnsOfTiles + iCol;
-                final byte[] compressed = imageData.tiles[tile].getData();
-                final int x = iCol * tileWidth - x0;
-                final int y = iRow * tileLength - y0;
-                // Handle JPEG based compression
-                if (compression == COMPRESSION_JPEG) {
-                    if (planarConfiguration == TiffPlanarConfiguration.PLANAR) {
-                        throw new ImagingException("TIFF file in non-supported configuration: JPEG compression used in planar configuration.");
-                    }
-                    DataInterpreterJpeg.intepretBlock(directory, workingBuilder, x, y, tileWidth, tileLength, compressed);
-                    continue;
-                }
-
-                final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
+        if (compression == COMPRESSION_JPEG && planarConfiguration == TiffPlanarConfiguration.PLANAR) {
+            throw new ImagingException("TIFF file in non-supported configuration: JPEG compression used in planar configuration.");
+        }
 
-                interpretTile(workingBuilder, decompressed, x, y, width, height);
+        // Tiles are decompressed (possibly concurrently) in row-major order
+        // and interpreted in that same order on this thread.
+        decodeBlocks(nRow * nCol, k -> {
+            final int tile = (row0 + k / nCol) * nColumnsOfTiles + col0 + k % nCol;
+            final byte[] compressed = imageData.tiles[tile].readData();
+            // JPEG tiles are decoded by the interpreter
+            if (compression == COMPRESSION_JPEG) {
+                return compressed;
             }
-        }
+            return decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
+        }, (k, bytes) -> {
+            final int x = (col0 + k % nCol) * tileWidth - x0;
+            final int y = (row0 + k / nCol) * tileLength - y0;
+            if (compression == COMPRESSION_JPEG) {
+                DataInterpreterJpeg.intepretBlock(directory, workingBuilder, x, y, tileWidth, tileLength, bytes);
+            } else {
+                interpretTile(workingBuilder, bytes, x, y, width, height);
+            }
+        });
 
         if (subImage.x == x0 && subImage.y == y0 && subImage.width == workingWidth && subImage.height == workingHeight) {
             return workingBuilder;
@@ -312,18 +315,18 @@ public final class DataReaderTiled extends ImageDataReader {
 
         final int nColumnsOfTiles = (width + tileWidth - 1) / tileWidth;
 
-        for (int iRow = row0; iRow <= row1; iRow++) {
-            for (int iCol = col0; iCol <= col1; iCol++) {
-                final int tile = iRow * nColumnsOfTiles + iCol;
-                final byte[] compressed = imageData.tiles[tile].getData();
-                final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
-                final int x = iCol * tileWidth;
-                final int y = iRow * tileLength;
-
-                final int[] blockData = unpackFloatingPointSamples(tileWidth, tileLength, tileWidth, decompressed, bitsPerPixel, byteOrder);
-                transferBlockToRaster(x, y, tileWidth, tileLength, blockData, xRaster, yRaster, rasterWidth, rasterHeight, samplesPerPixel, rasterDataFloat);
-            }
-        }
+        final int nCol = col1 - col0 + 1;
+        final int nRow = row1 - row0 + 1;
+        decodeBlocks(nRow * nCol, k -> {
+            final int tile = (row0 + k / nCol) * nColumnsOfTiles + col0 + k % nCol;
+            final byte[] compressed = imageData.tiles[tile].readData();
+            final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
+            return unpackFloatingPointSamples(tileWidth, tileLength, tileWidth, decompressed, bitsPerPixel, byteOrder);
+        }, (k, blockData) -> {
+            final int x = (col0 + k % nCol) * tileWidth;
+            final int y = (row0 + k / nCol) * tileLength;
+            transferBlockToRaster(x, y, tileWidth, tileLength, blockData, xRaster, yRaster, rasterWidth, rasterHeight, samplesPerPixel, rasterDataFloat);
+        });
 
         return new TiffRasterDataFloat(rasterWidth, rasterHeight, samplesPerPixel, rasterDataFloat);
     }
@@ -358,17 +361,18 @@ public final class DataReaderTiled extends ImageDataReader {
 
         final int nColumnsOfTiles = (width + tileWidth - 1) / tileWidth;
 
-        for (int iRow = row0; iRow <= row1; iRow++) {
-            for (int iCol = col0; iCol <= col1; iCol++) {
-                final int tile = iRow * nColumnsOfTiles + iCol;
-                final byte[] compressed = imageData.tiles[tile].getData();
-                final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
-                final int x = iCol * tileWidth;
-                final int y = iRow * tileLength;
-                final int[] blockData = unpackIntSamples(tileWidth, tileLength, tileWidth, decompressed, predictor, bitsPerPixel, byteOrder);
-                transferBlockToRaster(x, y, tileWidth, tileLength, blockData, xRaster, yRaster, rasterWidth, rasterHeight, rasterDataInt);
-            }
-        }
+        final int nCol = col1 - col0 + 1;
+        final int nRow = row1 - row0 + 1;
+        decodeBlocks(nRow * nCol, k -> {
+            final int tile = (row0 + k / nCol) * nColumnsOfTiles + col0 + k % nCol;
+            final byte[] compressed = imageData.tiles[tile].readData();
+            final byte[] decompressed = decompress(compressed, compression, bytesPerTile, tileWidth, tileLength);
+            return unpackIntSamples(tileWidth, tileLength, tileWidth, decompressed, predictor, bitsPerPixel, byteOrder);
+        }, (k, blockData) -> {
+            final int x = (col0 + k % nCol) * tileWidth;
+            final int y = (row0 + k / nCol) * tileLength;
+            transferBlockToRaster(x, y, tileWidth, tileLength, blockData, xRaster, yRaster, rasterWidth, rasterHeight, rasterDataInt);
+        });
         return new TiffRasterDataInt(rasterWidth, rasterHeight, rasterDataInt);
     }
 }
@@ -21,12 +21,17 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteOrder;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.common.ImageBuilder;
 import org.apache.commons.imaging.common.PackBits;
+import org.apache.commons.imaging.common.ParallelTasks;
 import org.apache.commons.imaging.common.ZlibDeflate;
 import org.apache.commons.imaging.formats.tiff.TiffDirectory;
 import org.apache.commons.imaging.formats.tiff.TiffField;
@@ -131,6 +136,26 @@ import org.apache.commons.imaging.mylzw.MyLzwDecompressor;
  */
 public abstract class ImageDataReader {
 
+    /**
+     * Consumes a decoded strip or tile.
+     *
+     * @param <T> the type of the decoded block.
+     */
+    @FunctionalInterface
+    protected interface BlockConsumer<T> {
+        void accept(int index, T block) throws ImagingException, IOException;
+    }
+
+    /**
+     * Decodes a strip or tile. Implementations may be called concurrently and so must not modify the state of the data reader.
+     *
+     * @param <T> the type of the decoded block.
+     */
+    @FunctionalInterface
+    protected interface BlockDecoder<T> {
+        T decode(int index) throws ImagingException, IOException;
+    }
+
     protected final TiffDirectory directory;
     protected final PhotometricInterpreter photometricInterpreter;
     private final int[] bitsPerSample;
@@ -145,6 +170,8 @@ public abstract class ImageDataReader {
 
     protected final TiffPlanarConfiguration planarConfiguration;
 
+    private ExecutorService decodeExecutor;
+
     public ImageDataReader(final TiffDirectory directory, final PhotometricInterpreter photometricInterpreter, final int[] bitsPerSample, final int predictor,
             final int samplesPerPixel, final int sampleFormat, final int width, final int height, final TiffPlanarConfiguration planarConfiguration) {
         this.directory = directory;
@@ -184,6 +211,42 @@ public abstract class ImageDataReader {
         }
     }
 
+    /**
+     * Decodes a sequence of strips or tiles and passes each one to the consumer in sequence order. If a decode executor is set, blocks are decoded
+     * concurrently on it while the consumer still runs on the calling thread, so photometric interpreters and image builders are never shared between
+     * threads.
+     *
+     * @param <T>      the type of the decoded blocks.
+     * @param count    the number of blocks.
+     * @param decoder  decodes the block with a given index; must be thread-safe.
+     * @param consumer receives the decoded blocks in index order.
+     * @throws ImagingException in the event of an invalid or unsupported block.
+     * @throws IOException      in the event of an I/O error.
+     */
+    protected <T> void decodeBlocks(final int count, final BlockDecoder<T> decoder, final BlockConsumer<T> consumer) throws ImagingException, IOException {
+        if (decodeExecutor == null || count < 2) {
+            for (int i = 0; i < count; i++) {
+                consumer.accept(i, decoder.decode(i));
+            }
+            return;
+        }
+        final Deque<Future<T>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                while (submitted < count && submitted - i < ParallelTasks.MAX_PENDING) {
+                    final int index = submitted++;
+                    pending.add(decodeExecutor.submit(() -> decoder.decode(index)));
+                }
+                consumer.accept(i, ParallelTasks.await(pending.remove(), "decoding TIFF image data"));
+            }
+        } finally {
+            for (final Future<T> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
     protected byte[] decompress(final byte[] compressedInput, final int compression, final int expectedSize, final int tileWidth, final int tileHeight)
             throws ImagingException, IOException {
         final TiffField fillOrderField = directory.findField(TiffTagConstants.TIFF_TAG_FILL_ORDER);
@@ -329,6 +392,16 @@ public abstract class ImageDataReader {
         Arrays.fill(last, 0);
     }
 
+    /**
+     * Sets the executor used to decode strips and tiles concurrently. Decompression and sample unpacking run on the executor; photometric interpretation
+     * stays on the calling thread.
+     *
+     * @param decodeExecutor the executor, or null to decode on the calling thread.
+     */
+    public void setDecodeExecutor(final ExecutorService decodeExecutor) {
+        this.decodeExecutor = decodeExecutor;
+    }
+
     /**
      * Transfer samples obtained from the TIFF file to a floating-point raster.
      *
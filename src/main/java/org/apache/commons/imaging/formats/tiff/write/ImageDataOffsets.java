@@ -16,7 +16,7 @@
  */
 package org.apache.commons.imaging.formats.tiff.write;
 
-import java.util.Arrays;
+import java.io.IOException;
 
 import org.apache.commons.imaging.common.Allocator;
 import org.apache.commons.imaging.formats.tiff.AbstractTiffElement;
@@ -26,12 +26,16 @@ final class ImageDataOffsets {
     final TiffOutputField imageDataOffsetsField;
     final AbstractTiffOutputItem[] outputItems;
 
-    ImageDataOffsets(final AbstractTiffElement.DataElement[] imageData, final int[] imageDataOffsets, final TiffOutputField imageDataOffsetsField) {
+    ImageDataOffsets(final AbstractTiffElement.DataElement[] imageData, final int[] imageDataOffsets, final TiffOutputField imageDataOffsetsField)
+            throws IOException {
         this.imageDataOffsets = imageDataOffsets;
         this.imageDataOffsetsField = imageDataOffsetsField;
 
         outputItems = Allocator.array(imageData.length, AbstractTiffOutputItem[]::new, AbstractTiffOutputItem.Value.SHALLOW_SIZE);
-        Arrays.setAll(outputItems, i -> new AbstractTiffOutputItem.Value("TIFF image data", imageData[i].getData()));
+        // strips and tiles read from a file are only read from it now
+        for (int i = 0; i < imageData.length; i++) {
+            outputItems[i] = new AbstractTiffOutputItem.Value("TIFF image data", imageData[i].readData());
+        }
 
     }
 
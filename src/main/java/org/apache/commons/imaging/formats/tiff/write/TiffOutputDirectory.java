@@ -453,7 +453,7 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
         return ENTRY_LENGTH * fields.size() + DIRECTORY_HEADER_LENGTH + DIRECTORY_FOOTER_LENGTH;
     }
 
-    protected List<AbstractTiffOutputItem> getOutputItems(final TiffOutputSummary outputSummary) throws ImagingException {
+    protected List<AbstractTiffOutputItem> getOutputItems(final TiffOutputSummary outputSummary) throws ImagingException, IOException {
         // first validate directory fields.
 
         removeFieldIfPresent(TiffTagConstants.TIFF_TAG_JPEG_INTERCHANGE_FORMAT);
@@ -534,7 +534,7 @@ public final class TiffOutputDirectory extends AbstractTiffOutputItem implements
         }
 
         if (null != jpegImageData) {
-            final AbstractTiffOutputItem item = new AbstractTiffOutputItem.Value("JPEG image data", jpegImageData.getData());
+            final AbstractTiffOutputItem item = new AbstractTiffOutputItem.Value("JPEG image data", jpegImageData.readData());
             result.add(item);
             outputSummary.add(item, jpegOffsetField);
         }
@@ -18,6 +18,7 @@ package org.apache.commons.imaging.formats.tiff.write;
 
 import static org.apache.commons.imaging.formats.tiff.constants.TiffConstants.DEFAULT_TIFF_BYTE_ORDER;
 
+import java.io.IOException;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -150,7 +151,7 @@ public final class TiffOutputSet implements Iterable<TiffOutputDirectory> {
         return addRootDirectory();
     }
 
-    protected List<AbstractTiffOutputItem> getOutputItems(final TiffOutputSummary outputSummary) throws ImagingException {
+    protected List<AbstractTiffOutputItem> getOutputItems(final TiffOutputSummary outputSummary) throws ImagingException, IOException {
         final List<AbstractTiffOutputItem> result = new ArrayList<>();
 
         for (final TiffOutputDirectory directory : directories) {
@@ -54,10 +54,15 @@ import org.apache.commons.imaging.internal.SafeOperations;
 public class WebPImageParser extends AbstractImageParser<WebPImagingParameters> implements XmpEmbeddable<WebPImagingParameters> {
 
     private static final class ChunksReader implements Closeable {
+        // enough of a VP8, VP8L or ANMF chunk for its frame header
+        private static final int IMAGE_HEADER_LENGTH = 30;
+
         private final InputStream is;
         private final WebPChunkType[] chunkTypes;
+        private final boolean headerOnly;
         private int sizeCount = 4;
         private boolean firstChunk = true;
+        private boolean reachedImageData;
 
         final int fileSize;
 
@@ -68,6 +73,7 @@ public class WebPImageParser extends AbstractImageParser<WebPImagingParameters>
         ChunksReader(final ByteSource byteSource, final WebPChunkType... chunkTypes) throws ImagingException, IOException {
             this.is = byteSource.getInputStream();
             this.chunkTypes = chunkTypes;
+            this.headerOnly = byteSource.isHeaderOnly();
             this.fileSize = readFileHeader(is);
         }
 
@@ -80,7 +86,19 @@ public class WebPImageParser extends AbstractImageParser<WebPImagingParameters>
             return SafeOperations.add(sizeCount, 8); // File Header
         }
 
+        /**
+         * Reads the next chunk of the requested types.
+         * <p>
+         * Header-only byte sources are read up to the first chunk holding image data: if that chunk is requested, it is returned holding just the first
+         * bytes of its payload, and no chunk is read after it.
+         * </p>
+         *
+         * @return the chunk, or null after the last one.
+         */
         WebPChunk readChunk() throws ImagingException, IOException {
+            if (reachedImageData) {
+                return null;
+            }
             while (sizeCount < fileSize) {
                 final int type = read4Bytes("Chunk Type", is, "Not a valid WebP file", ByteOrder.LITTLE_ENDIAN);
                 final int payloadSize = read4Bytes("Chunk Size", is, "Not a valid WebP file", ByteOrder.LITTLE_ENDIAN);
@@ -97,6 +115,12 @@ public class WebPImageParser extends AbstractImageParser<WebPImagingParameters>
                     }
                 }
 
+                final boolean imageData = type == WebPChunkType.VP8.value || type == WebPChunkType.VP8L.value || type == WebPChunkType.ALPH.value
+                        || type == WebPChunkType.ANMF.value;
+                if (headerOnly && imageData) {
+                    reachedImageData = true;
+                }
+
                 if (chunkTypes != null) {
                     boolean skip = true;
                     for (final WebPChunkType t : chunkTypes) {
@@ -105,6 +129,9 @@ public class WebPImageParser extends AbstractImageParser<WebPImagingParameters>
                             break;
                         }
                     }
+                    if (skip && reachedImageData) {
+                        return null;
+                    }
                     if (skip) {
                         skipBytes(is, payloadSize + (padding ? 1 : 0));
                         sizeCount = SafeOperations.add(sizeCount, chunkSize);
@@ -112,6 +139,11 @@ public class WebPImageParser extends AbstractImageParser<WebPImagingParameters>
                     }
                 }
 
+                if (reachedImageData) {
+                    final int length = Math.min(payloadSize, IMAGE_HEADER_LENGTH);
+                    return WebPChunkType.makeChunk(type, length, readBytes("Chunk Payload", is, length));
+                }
+
                 final byte[] bytes = readBytes("Chunk Payload", is, payloadSize);
                 final WebPChunk chunk = WebPChunkType.makeChunk(type, payloadSize, bytes);
                 if (padding) {
@@ -215,7 +247,8 @@ public class WebPImageParser extends AbstractImageParser<WebPImagingParameters>
 
     @Override
     public ImageInfo getImageInfo(final ByteSource byteSource, final WebPImagingParameters params) throws ImagingException, IOException {
-        try (ChunksReader reader = new ChunksReader(byteSource, WebPChunkType.VP8, WebPChunkType.VP8L, WebPChunkType.VP8X, WebPChunkType.ANMF)) {
+        try (ChunksReader reader = new ChunksReader(byteSource, WebPChunkType.VP8, WebPChunkType.VP8L, WebPChunkType.VP8X, WebPChunkType.ANMF,
+                WebPChunkType.ALPH)) {
             final String formatDetails;
             final int width;
             final int height;
@@ -248,16 +281,28 @@ public class WebPImageParser extends AbstractImageParser<WebPImagingParameters>
                 if (vp8x.hasAnimation()) {
                     formatDetails = "WebP/Animation";
 
-                    numberOfImages = 0;
-                    while ((chunk = reader.readChunk()) != null) {
-                        if (chunk.getType() == WebPChunkType.ANMF.value) {
-                            numberOfImages++;
+                    if (byteSource.isHeaderOnly()) {
+                        // header-only byte sources are not read past the first frame
+                        numberOfImages = -1;
+                    } else {
+                        numberOfImages = 0;
+                        while ((chunk = reader.readChunk()) != null) {
+                            if (chunk.getType() == WebPChunkType.ANMF.value) {
+                                numberOfImages++;
+                            }
                         }
                     }
 
                 } else {
                     numberOfImages = 1;
                     chunk = reader.readChunk();
+                    // the alpha of lossy images precedes their VP8 chunk, past which header-only byte sources are not read
+                    if (chunk != null && chunk.getType() == WebPChunkType.ALPH.value) {
+                        final WebPChunk next = reader.readChunk();
+                        if (next != null) {
+                            chunk = next;
+                        }
+                    }
 
                     if (chunk == null) {
                         throw new ImagingException("Image has no content");
@@ -267,7 +312,7 @@ public class WebPImageParser extends AbstractImageParser<WebPImagingParameters>
                         throw new ImagingException("Non animated image should not contain ANMF chunks");
                     }
 
-                    if (chunk.getType() == WebPChunkType.VP8.value) {
+                    if (chunk.getType() == WebPChunkType.VP8.value || chunk.getType() == WebPChunkType.ALPH.value) {
                         formatDetails = "WebP/Lossy (Extended)";
                         colorType = ImageInfo.ColorType.YCbCr;
                     } else if (chunk.getType() == WebPChunkType.VP8L.value) {
@@ -19,62 +19,12 @@ package org.apache.commons.imaging.mylzw;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteOrder;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.Allocator;
 
 public class MyLzwCompressor {
-    private static final class ByteArray {
-        private final byte[] bytes;
-        private final int start;
-        private final int length;
-        private final int hash;
-
-        ByteArray(final byte[] bytes, final int start, final int length) {
-            this.bytes = bytes;
-            this.start = start;
-            this.length = length;
-
-            int tempHash = length;
-
-            for (int i = 0; i < length; i++) {
-                final int b = 0xff & bytes[i + start];
-                tempHash = tempHash + (tempHash << 8) ^ b ^ i;
-            }
-
-            hash = tempHash;
-        }
-
-        @Override
-        public boolean equals(final Object o) {
-            if (o instanceof ByteArray) {
-                final ByteArray other = (ByteArray) o;
-                if (other.hash != hash) {
-                    return false;
-                }
-                if (other.length != length) {
-                    return false;
-                }
-
-                for (int i = 0; i < length; i++) {
-                    if (other.bytes[i + other.start] != bytes[i + start]) {
-                        return false;
-                    }
-                }
-
-                return true;
-            }
-            return false;
-        }
-
-        @Override
-        public int hashCode() {
-            return hash;
-        }
-    }
-
     public interface Listener {
         void clearCode(int code);
 
@@ -85,6 +35,10 @@ public class MyLzwCompressor {
         void init(int clearCode, int eoiCode);
     }
 
+    // open addressing table of the strings added to the initial entries, twice as large as the most entries it holds
+    private static final int HASH_BITS = 13;
+    private static final int HASH_TABLE_SIZE = 1 << HASH_BITS;
+
     private int codeSize;
 
     private final int initialCodeSize;
@@ -96,7 +50,11 @@ public class MyLzwCompressor {
 
     private final Listener listener;
 
-    private final Map<ByteArray, Integer> map = new HashMap<>();
+    // the code of each single byte string, -1 if it has none
+    private final int[] byteCodes = new int[256];
+    // each entry is keyed by the code of its string without the last byte and that byte, prefixCode << 8 | byte; -1 when free
+    private final int[] hashKeys = new int[HASH_TABLE_SIZE];
+    private final int[] hashCodes = new int[HASH_TABLE_SIZE];
 
     public MyLzwCompressor(final int initialCodeSize, final ByteOrder byteOrder, final boolean earlyLimit) {
         this(initialCodeSize, byteOrder, earlyLimit, null);
@@ -116,15 +74,16 @@ public class MyLzwCompressor {
             listener.init(clearCode, eoiCode);
         }
 
-        initializeStringTable();
-    }
+        Arrays.fill(byteCodes, -1);
+        for (int code = 0; code < clearCode; code++) {
+            // with more than 8 bits, the last code of a byte value wins
+            byteCodes[code & 0xff] = code;
+        }
 
-    private boolean addTableEntry(final MyBitOutputStream bos, final byte[] bytes, final int start, final int length) throws IOException {
-        final ByteArray key = arrayToKey(bytes, start, length);
-        return addTableEntry(bos, key);
+        initializeStringTable();
     }
 
-    private boolean addTableEntry(final MyBitOutputStream bos, final ByteArray key) throws IOException {
+    private boolean addTableEntry(final MyBitOutputStream bos, final int prefixCode, final byte b) throws IOException {
         boolean cleared = false;
 
         int limit = 1 << codeSize;
@@ -143,35 +102,52 @@ public class MyLzwCompressor {
         }
 
         if (!cleared) {
-            map.put(key, codes);
+            final int key = prefixCode << 8 | 0xff & b;
+            int slot = hashSlot(key);
+            while (hashKeys[slot] != -1) {
+                slot = slot + 1 & HASH_TABLE_SIZE - 1;
+            }
+            hashKeys[slot] = key;
+            hashCodes[slot] = codes;
             codes++;
         }
 
         return cleared;
     }
 
-    private ByteArray arrayToKey(final byte b) {
-        return arrayToKey(new byte[] { b, }, 0, 1);
-    }
-
-    private ByteArray arrayToKey(final byte[] bytes, final int start, final int length) {
-        return new ByteArray(bytes, start, length);
-    }
-
     private void clearTable() {
         initializeStringTable();
         incrementCodeSize();
     }
 
-    private int codeFromString(final byte[] bytes, final int start, final int length) throws ImagingException {
-        final ByteArray key = arrayToKey(bytes, start, length);
-        final Integer code = map.get(key);
-        if (code == null) {
+    private int codeFromByte(final byte b) throws ImagingException {
+        final int code = byteCodes[0xff & b];
+        if (code < 0) {
             throw new ImagingException("CodeFromString");
         }
         return code;
     }
 
+    /**
+     * Gets the code of a string in the table.
+     *
+     * @param prefixCode the code of the string without its last byte.
+     * @param b          the last byte of the string.
+     * @return the code, or -1 if the string is not in the table.
+     */
+    private int codeFromString(final int prefixCode, final byte b) {
+        final int key = prefixCode << 8 | 0xff & b;
+        int slot = hashSlot(key);
+        int found;
+        while ((found = hashKeys[slot]) != -1) {
+            if (found == key) {
+                return hashCodes[slot];
+            }
+            slot = slot + 1 & HASH_TABLE_SIZE - 1;
+        }
+        return -1;
+    }
+
     public byte[] compress(final byte[] bytes) throws IOException {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream(Allocator.checkByteArray(bytes.length));
                 MyBitOutputStream bos = new MyBitOutputStream(baos, byteOrder)) {
@@ -180,30 +156,37 @@ public class MyLzwCompressor {
             clearTable();
             writeClearCode(bos);
 
-            int wStart = 0;
-            int wLength = 0;
+            if (bytes.length == 0) {
+                throw new ImagingException("CodeFromString");
+            }
+
+            // the code of the longest string in the table that the bytes read so far end with
+            int prefixCode = codeFromByte(bytes[0]);
 
-            for (int i = 0; i < bytes.length; i++) {
-                if (isInTable(bytes, wStart, wLength + 1)) {
-                    wLength++;
+            for (int i = 1; i < bytes.length; i++) {
+                final byte b = bytes[i];
+                final int code = codeFromString(prefixCode, b);
+                if (code >= 0) {
+                    prefixCode = code;
                 } else {
-                    final int code = codeFromString(bytes, wStart, wLength);
-                    writeDataCode(bos, code);
-                    addTableEntry(bos, bytes, wStart, wLength + 1);
+                    writeDataCode(bos, prefixCode);
+                    addTableEntry(bos, prefixCode, b);
 
-                    wStart = i;
-                    wLength = 1;
+                    prefixCode = codeFromByte(b);
                 }
             }
 
-            final int code = codeFromString(bytes, wStart, wLength);
-            writeDataCode(bos, code);
+            writeDataCode(bos, prefixCode);
             writeEoiCode(bos);
             bos.flushCache();
             return baos.toByteArray();
         }
     }
 
+    private int hashSlot(final int key) {
+        return key * 0x9E3779B1 >>> 32 - HASH_BITS;
+    }
+
     private void incrementCodeSize() {
         if (codeSize != 12) {
             codeSize++;
@@ -212,23 +195,8 @@ public class MyLzwCompressor {
 
     private void initializeStringTable() {
         codeSize = initialCodeSize;
-
-        final int initialEntriesCount = (1 << codeSize) + 2;
-
-        map.clear();
-        for (codes = 0; codes < initialEntriesCount; codes++) {
-            if (codes != clearCode && codes != eoiCode) {
-                final ByteArray key = arrayToKey((byte) codes);
-
-                map.put(key, codes);
-            }
-        }
-    }
-
-    private boolean isInTable(final byte[] bytes, final int start, final int length) {
-        final ByteArray key = arrayToKey(bytes, start, length);
-
-        return map.containsKey(key);
+        codes = (1 << codeSize) + 2;
+        Arrays.fill(hashKeys, -1);
     }
 
     private void writeClearCode(final MyBitOutputStream bos) throws IOException {
@@ -16,10 +16,8 @@
  */
 package org.apache.commons.imaging.mylzw;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 
@@ -36,7 +34,11 @@ public final class MyLzwDecompressor {
     }
 
     private static final int MAX_TABLE_SIZE = 1 << 12;
-    private final byte[][] table;
+    // the table of strings: each code is the string of its prefix code followed by its suffix byte
+    private final int[] prefixes;
+    private final byte[] suffixes;
+    private final byte[] firstBytes;
+    private final int[] lengths;
     private int codeSize;
     private final int initialCodeSize;
     private int codes = -1;
@@ -44,7 +46,6 @@ public final class MyLzwDecompressor {
     private final Listener listener;
     private final int clearCode;
     private final int eoiCode;
-    private int written;
     private final boolean tiffLZWMode;
 
     public MyLzwDecompressor(final int initialCodeSize, final ByteOrder byteOrder, final boolean tiffLZWMode) throws ImagingException {
@@ -57,7 +58,10 @@ public final class MyLzwDecompressor {
         this.tiffLZWMode = tiffLZWMode;
         this.initialCodeSize = initialCodeSize;
 
-        table = new byte[MAX_TABLE_SIZE][];
+        prefixes = new int[MAX_TABLE_SIZE];
+        suffixes = new byte[MAX_TABLE_SIZE];
+        firstBytes = new byte[MAX_TABLE_SIZE];
+        lengths = new int[MAX_TABLE_SIZE];
         clearCode = 1 << initialCodeSize;
         eoiCode = clearCode + 1;
 
@@ -68,9 +72,12 @@ public final class MyLzwDecompressor {
         initializeTable();
     }
 
-    private void addStringToTable(final byte[] bytes) {
+    private void addStringToTable(final int prefixCode, final byte suffix) {
         if (codes < 1 << codeSize) {
-            table[codes] = bytes;
+            prefixes[codes] = prefixCode;
+            suffixes[codes] = suffix;
+            firstBytes[codes] = firstBytes[prefixCode];
+            lengths[codes] = lengths[prefixCode] + 1;
             codes++;
         }
         // If the table already full, then we simply ignore these bytes
@@ -79,10 +86,10 @@ public final class MyLzwDecompressor {
         checkCodeSize();
     }
 
-    private byte[] appendBytes(final byte[] bytes, final byte b) {
-        final byte[] result = Arrays.copyOf(bytes, bytes.length + 1);
-        result[result.length - 1] = b;
-        return result;
+    private void checkCode(final int code) throws ImagingException {
+        if (code >= codes || code < 0) {
+            throw new ImagingException("Bad Code: " + code + " codes: " + codes + " code_size: " + codeSize + ", table: " + MAX_TABLE_SIZE);
+        }
     }
 
     private void checkCodeSize() {
@@ -102,11 +109,34 @@ public final class MyLzwDecompressor {
         incrementCodeSize();
     }
 
+    /**
+     * Decompresses LZW data into a new array.
+     *
+     * @param is             the compressed data.
+     * @param expectedLength the length of the decompressed data.
+     * @return the decompressed data, shorter than the expected length if the compressed data ends early.
+     * @throws IOException in the event of an I/O error or of invalid compressed data.
+     */
     public byte[] decompress(final InputStream is, final int expectedLength) throws IOException {
+        final byte[] output = Allocator.byteArray(expectedLength);
+        final int length = decompress(is, output);
+        return length == output.length ? output : Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Decompresses LZW data into an array, until the array is full or the end of the data.
+     *
+     * @param is     the compressed data.
+     * @param output receives the decompressed data.
+     * @return the number of bytes written to the array.
+     * @throws IOException in the event of an I/O error or of invalid compressed data.
+     */
+    public int decompress(final InputStream is, final byte[] output) throws IOException {
+        final int expectedLength = output.length;
+        int written = 0;
         int code;
         int oldCode = -1;
-        try (MyBitInputStream mbis = new MyBitInputStream(is, byteOrder, tiffLZWMode);
-                ByteArrayOutputStream baos = new ByteArrayOutputStream(Allocator.checkByteArray(expectedLength))) {
+        try (MyBitInputStream mbis = new MyBitInputStream(is, byteOrder, tiffLZWMode)) {
 
             clearTable();
 
@@ -122,15 +152,24 @@ public final class MyLzwDecompressor {
                     if (code == eoiCode) {
                         break;
                     }
-                    writeToResult(baos, stringFromCode(code));
+                    checkCode(code);
+                    written = writeString(output, written, code);
                 } else if (isInTable(code)) {
-                    writeToResult(baos, stringFromCode(code));
+                    checkCode(code);
+                    written = writeString(output, written, code);
 
-                    addStringToTable(appendBytes(stringFromCode(oldCode), firstChar(stringFromCode(code))));
+                    checkCode(oldCode);
+                    addStringToTable(oldCode, firstBytes[code]);
                 } else {
-                    final byte[] outString = appendBytes(stringFromCode(oldCode), firstChar(stringFromCode(oldCode)));
-                    writeToResult(baos, outString);
-                    addStringToTable(outString);
+                    // the code being defined: the previous string followed by its own first byte
+                    checkCode(oldCode);
+                    final byte firstByte = firstBytes[oldCode];
+                    written = writeString(output, written, oldCode);
+                    if (written < expectedLength) {
+                        output[written] = firstByte;
+                    }
+                    written++;
+                    addStringToTable(oldCode, firstByte);
                 }
                 oldCode = code;
 
@@ -139,14 +178,10 @@ public final class MyLzwDecompressor {
                 }
             }
 
-            return baos.toByteArray();
+            return Math.min(written, expectedLength);
         }
     }
 
-    private byte firstChar(final byte[] bytes) {
-        return bytes[0];
-    }
-
     private int getNextCode(final MyBitInputStream is) throws IOException {
         final int code = is.readBits(codeSize);
 
@@ -167,12 +202,15 @@ public final class MyLzwDecompressor {
 
         final int initialEntriesCount = 1 << codeSize + 2;
 
-        if (initialEntriesCount > table.length) {
-            throw new ImagingException(String.format("Invalid Lzw table length [%d]; entries count is [%d]", table.length, initialEntriesCount));
+        if (initialEntriesCount > MAX_TABLE_SIZE) {
+            throw new ImagingException(String.format("Invalid Lzw table length [%d]; entries count is [%d]", MAX_TABLE_SIZE, initialEntriesCount));
         }
 
         for (int i = 0; i < initialEntriesCount; i++) {
-            table[i] = new byte[] { (byte) i, };
+            prefixes[i] = -1;
+            suffixes[i] = (byte) i;
+            firstBytes[i] = (byte) i;
+            lengths[i] = 1;
         }
     }
 
@@ -180,15 +218,22 @@ public final class MyLzwDecompressor {
         return code < codes;
     }
 
-    private byte[] stringFromCode(final int code) throws ImagingException {
-        if (code >= codes || code < 0) {
-            throw new ImagingException("Bad Code: " + code + " codes: " + codes + " code_size: " + codeSize + ", table: " + table.length);
+    /**
+     * Writes the string of a code, from its last byte back to its first. Bytes past the end of the output are dropped.
+     *
+     * @return the position after the string.
+     */
+    private int writeString(final byte[] output, final int position, final int code) {
+        final int end = position + lengths[code];
+        int c = code;
+        int i = end - 1;
+        for (; i >= output.length; i--) {
+            c = prefixes[c];
         }
-        return table[code];
-    }
-
-    private void writeToResult(final OutputStream os, final byte[] bytes) throws IOException {
-        os.write(bytes);
-        written += bytes.length;
+        for (; i >= position; i--) {
+            output[i] = suffixes[c];
+            c = prefixes[c];
+        }
+        return end;
     }
 }
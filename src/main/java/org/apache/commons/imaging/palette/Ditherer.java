@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.palette;
+
+import java.util.Arrays;
+
+import org.apache.commons.imaging.ImagingException;
+
+/**
+ * Maps the rows of an image to the indices of a palette, dithering them one row after the other.
+ * <p>
+ * The error diffusion methods keep the errors of the rows ahead in a few rolling rows of integer components, so that the image itself is never written
+ * to; memory use depends on the width of the image only. Serpentine scanning processes every other row from right to left, which avoids the diagonal
+ * artifacts of always spreading the error in the same direction.
+ * </p>
+ * <p>
+ * The palette must map every color to the index of a near color, as {@link PaletteFactory#makeQuantizedRgbPalette(java.awt.image.BufferedImage, int)}
+ * and {@link PaletteFactory#makeQuantizedRgbaPalette(java.awt.image.BufferedImage, boolean, int)} palettes do: a dithered color is usually not exactly in
+ * the palette. All four ARGB components are dithered; ensure that the alpha values of the image and of the palette are consistent.
+ * </p>
+ *
+ * @see Dithering
+ * @since 1.0.0-alpha6
+ */
+public final class Ditherer {
+
+    // the error diffusion kernels reach at most two pixels to each side
+    private static final int MARGIN = 2;
+
+    // the 8x8 Bayer threshold matrix, thresholds from 0 to 63
+    private static final int[] BAYER_MATRIX = {
+            0, 32, 8, 40, 2, 34, 10, 42,
+            48, 16, 56, 24, 50, 18, 58, 26,
+            12, 44, 4, 36, 14, 46, 6, 38,
+            60, 28, 52, 20, 62, 30, 54, 22,
+            3, 35, 11, 43, 1, 33, 9, 41,
+            51, 19, 59, 27, 49, 17, 57, 25,
+            15, 47, 7, 39, 13, 45, 5, 37,
+            63, 31, 55, 23, 61, 29, 53, 21 };
+
+    private static int clamp(final int value) {
+        return value < 0 ? 0 : value > 0xff ? 0xff : value;
+    }
+
+    private final Palette palette;
+    private final DitheringMethod method;
+    private final int width;
+    private final boolean serpentine;
+    // the errors still to add to the current row and the rows below it, four components per pixel, in the weight unit of the kernel
+    private final int[][] errors;
+    // the amplitude of the Bayer thresholds, in component values
+    private final int orderedSpread;
+    private int y;
+
+    /**
+     * Constructs a ditherer for an image.
+     *
+     * @param palette    the palette to map the colors to.
+     * @param method     the dithering method.
+     * @param width      the width of the image.
+     * @param serpentine whether every other row is processed from right to left, for the error diffusion methods.
+     */
+    public Ditherer(final Palette palette, final DitheringMethod method, final int width, final boolean serpentine) {
+        this.palette = palette;
+        this.method = method;
+        this.width = width;
+        this.serpentine = serpentine;
+        int rowsBelow = 0;
+        for (int i = 1; i < method.kernel.length; i += 3) {
+            rowsBelow = Math.max(rowsBelow, method.kernel[i]);
+        }
+        errors = method == DitheringMethod.BAYER ? new int[0][] : new int[rowsBelow + 1][(width + 2 * MARGIN) * 4];
+        // roughly the distance between neighboring colors of a palette spread evenly over the color cube
+        orderedSpread = Math.max(1, (int) (256 / Math.cbrt(Math.max(2, palette.length()))));
+    }
+
+    /**
+     * Maps the next row of the image to palette indices. Rows must be given in order, from the top.
+     *
+     * @param argb    the ARGB colors of the row.
+     * @param indices receives the palette index of each pixel; may be the same array as {@code argb}.
+     * @throws ImagingException if the palette has no index for a color.
+     */
+    public void ditherRow(final int[] argb, final int[] indices) throws ImagingException {
+        if (method == DitheringMethod.BAYER) {
+            ditherRowOrdered(argb, indices);
+        } else {
+            ditherRowErrorDiffusion(argb, indices);
+        }
+        y++;
+    }
+
+    private void ditherRowErrorDiffusion(final int[] argb, final int[] indices) throws ImagingException {
+        final int[] kernel = method.kernel;
+        final int bits = method.weightBits;
+        final int half = 1 << bits - 1;
+        final int[] current = errors[y % errors.length];
+        final boolean reverse = serpentine && (y & 1) != 0;
+        final int step = reverse ? -1 : 1;
+        for (int i = 0, x = reverse ? width - 1 : 0; i < width; i++, x += step) {
+            final int pixel = argb[x];
+            final int e = (x + MARGIN) * 4;
+            final int a = clamp((pixel >>> 24) + (current[e] + half >> bits));
+            final int r = clamp((pixel >> 16 & 0xff) + (current[e + 1] + half >> bits));
+            final int g = clamp((pixel >> 8 & 0xff) + (current[e + 2] + half >> bits));
+            final int b = clamp((pixel & 0xff) + (current[e + 3] + half >> bits));
+            final int index = lookup(a << 24 | r << 16 | g << 8 | b);
+            indices[x] = index;
+
+            final int entry = palette.getEntry(index);
+            final int errA = a - (entry >>> 24);
+            final int errR = r - (entry >> 16 & 0xff);
+            final int errG = g - (entry >> 8 & 0xff);
+            final int errB = b - (entry & 0xff);
+            if ((errA | errR | errG | errB) == 0) {
+                continue;
+            }
+            for (int k = 0; k < kernel.length; k += 3) {
+                final int[] row = errors[(y + kernel[k + 1]) % errors.length];
+                final int n = (x + kernel[k] * step + MARGIN) * 4;
+                final int weight = kernel[k + 2];
+                row[n] += errA * weight;
+                row[n + 1] += errR * weight;
+                row[n + 2] += errG * weight;
+                row[n + 3] += errB * weight;
+            }
+        }
+        // the row is reused for the errors of the row below the last one that reaches it
+        Arrays.fill(current, 0);
+    }
+
+    private void ditherRowOrdered(final int[] argb, final int[] indices) throws ImagingException {
+        final int matrixRow = (y & 7) * 8;
+        for (int x = 0; x < width; x++) {
+            final int pixel = argb[x];
+            // a threshold centered on zero, from about -spread / 2 to spread / 2
+            final int offset = ((BAYER_MATRIX[matrixRow + (x & 7)] << 1) - 63) * orderedSpread >> 7;
+            final int r = clamp((pixel >> 16 & 0xff) + offset);
+            final int g = clamp((pixel >> 8 & 0xff) + offset);
+            final int b = clamp((pixel & 0xff) + offset);
+            indices[x] = lookup(pixel & 0xff000000 | r << 16 | g << 8 | b);
+        }
+    }
+
+    private int lookup(final int argb) throws ImagingException {
+        final int index = palette.getPaletteIndex(argb);
+        if (index < 0) {
+            throw new ImagingException("Color 0x" + Integer.toHexString(argb) + " is not in the palette");
+        }
+        return index;
+    }
+}
@@ -17,46 +17,74 @@
 package org.apache.commons.imaging.palette;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 
 import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.common.Allocator;
 
 /**
  * Dithering algorithms to use when quantizing an image to palette form.
  */
 public final class Dithering {
-    private static int adjustPixel(final int argb, final int errA, final int errR, final int errG, final int errB, final int mul) {
-        int a = argb >> 24 & 0xff;
-        int r = argb >> 16 & 0xff;
-        int g = argb >> 8 & 0xff;
-        int b = argb & 0xff;
 
-        a += errA * mul / 16;
-        r += errR * mul / 16;
-        g += errG * mul / 16;
-        b += errB * mul / 16;
+    /**
+     * Changes the given image to only use colors from the given palette, applying the given dithering method in the process. Ensure that your alpha values
+     * in the image and in the palette are consistent.
+     * <p>
+     * The rows of {@link BufferedImage#TYPE_INT_ARGB} and {@link BufferedImage#TYPE_INT_RGB} images are read from and written to their data buffer
+     * directly; other images are read and written a row at a time through their color model.
+     * </p>
+     *
+     * @param image      the image to change
+     * @param palette    the palette to use
+     * @param method     the dithering method
+     * @param serpentine whether every other row is processed from right to left, for the error diffusion methods
+     * @throws ImagingException if it fails to read the palette index
+     * @since 1.0.0-alpha6
+     */
+    public static void applyDithering(final BufferedImage image, final Palette palette, final DitheringMethod method, final boolean serpentine)
+            throws ImagingException {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final Ditherer ditherer = new Ditherer(palette, method, width, serpentine);
+        final int[] row = Allocator.intArray(width);
+        final int[] indices = Allocator.intArray(width);
 
-        if (a < 0) {
-            a = 0;
-        } else if (a > 0xff) {
-            a = 0xff;
-        }
-        if (r < 0) {
-            r = 0;
-        } else if (r > 0xff) {
-            r = 0xff;
-        }
-        if (g < 0) {
-            g = 0;
-        } else if (g > 0xff) {
-            g = 0xff;
-        }
-        if (b < 0) {
-            b = 0;
-        } else if (b > 0xff) {
-            b = 0xff;
+        final int type = image.getType();
+        final WritableRaster raster = image.getRaster();
+        if ((type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB) && raster.getDataBuffer() instanceof DataBufferInt
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel && raster.getParent() == null) {
+            final int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            final int offset = raster.getDataBuffer().getOffset();
+            final int scanlineStride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            final boolean opaque = type == BufferedImage.TYPE_INT_RGB;
+            for (int y = 0; y < height; y++) {
+                final int start = offset + y * scanlineStride;
+                System.arraycopy(data, start, row, 0, width);
+                if (opaque) {
+                    for (int x = 0; x < width; x++) {
+                        row[x] |= 0xff000000;
+                    }
+                }
+                ditherer.ditherRow(row, indices);
+                for (int x = 0; x < width; x++) {
+                    final int argb = palette.getEntry(indices[x]);
+                    data[start + x] = opaque ? 0xffffff & argb : argb;
+                }
+            }
+            return;
         }
 
-        return a << 24 | r << 16 | g << 8 | b;
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            ditherer.ditherRow(row, indices);
+            for (int x = 0; x < width; x++) {
+                row[x] = palette.getEntry(indices[x]);
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
     }
 
     /**
@@ -66,49 +94,10 @@ public final class Dithering {
      * @param image   the image to change
      * @param palette the palette to use
      * @throws ImagingException if it fails to read the palette index
+     * @see #applyDithering(BufferedImage, Palette, DitheringMethod, boolean)
      */
     public static void applyFloydSteinbergDithering(final BufferedImage image, final Palette palette) throws ImagingException {
-        for (int y = 0; y < image.getHeight(); y++) {
-            for (int x = 0; x < image.getWidth(); x++) {
-                final int argb = image.getRGB(x, y);
-                final int index = palette.getPaletteIndex(argb);
-                final int nextArgb = palette.getEntry(index);
-                image.setRGB(x, y, nextArgb);
-
-                final int a = argb >> 24 & 0xff;
-                final int r = argb >> 16 & 0xff;
-                final int g = argb >> 8 & 0xff;
-                final int b = argb & 0xff;
-
-                final int na = nextArgb >> 24 & 0xff;
-                final int nr = nextArgb >> 16 & 0xff;
-                final int ng = nextArgb >> 8 & 0xff;
-                final int nb = nextArgb & 0xff;
-
-                final int errA = a - na;
-                final int errR = r - nr;
-                final int errG = g - ng;
-                final int errB = b - nb;
-
-                if (x + 1 < image.getWidth()) {
-                    int update = adjustPixel(image.getRGB(x + 1, y), errA, errR, errG, errB, 7);
-                    image.setRGB(x + 1, y, update);
-                    if (y + 1 < image.getHeight()) {
-                        update = adjustPixel(image.getRGB(x + 1, y + 1), errA, errR, errG, errB, 1);
-                        image.setRGB(x + 1, y + 1, update);
-                    }
-                }
-                if (y + 1 < image.getHeight()) {
-                    int update = adjustPixel(image.getRGB(x, y + 1), errA, errR, errG, errB, 5);
-                    image.setRGB(x, y + 1, update);
-                    if (x - 1 >= 0) {
-                        update = adjustPixel(image.getRGB(x - 1, y + 1), errA, errR, errG, errB, 3);
-                        image.setRGB(x - 1, y + 1, update);
-                    }
-
-                }
-            }
-        }
+        applyDithering(image, palette, DitheringMethod.FLOYD_STEINBERG, false);
     }
 
     private Dithering() {
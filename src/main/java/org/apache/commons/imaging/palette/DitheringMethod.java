@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.palette;
+
+/**
+ * How colors missing from a palette are approximated when an image is reduced to it.
+ * <p>
+ * The error diffusion methods spread the difference between each pixel and the palette color chosen for it over the neighbors that are not processed
+ * yet, each neighbor receiving a weight out of a power of two. The ordered method instead perturbs each pixel by a fixed threshold pattern, so that every
+ * pixel can be mapped on its own.
+ * </p>
+ *
+ * @see Ditherer
+ * @since 1.0.0-alpha6
+ */
+public enum DitheringMethod {
+
+    /**
+     * Floyd-Steinberg error diffusion, over the next pixel and three pixels of the next row, in sixteenths.
+     */
+    FLOYD_STEINBERG(4, new int[] { 1, 0, 7, -1, 1, 3, 0, 1, 5, 1, 1, 1 }),
+
+    /**
+     * Sierra (three-row) error diffusion, over two pixels of the current row and ten pixels of the next two rows, in thirty-seconds. Smoother than
+     * Floyd-Steinberg, and slower.
+     */
+    SIERRA(5, new int[] { 1, 0, 5, 2, 0, 3, -2, 1, 2, -1, 1, 4, 0, 1, 5, 1, 1, 4, 2, 1, 2, -1, 2, 2, 0, 2, 3, 1, 2, 2 }),
+
+    /**
+     * Sierra Lite error diffusion, over the next pixel and two pixels of the next row, in quarters. The fastest error diffusion.
+     */
+    SIERRA_LITE(2, new int[] { 1, 0, 2, -1, 1, 1, 0, 1, 1 }),
+
+    /**
+     * Atkinson error diffusion, over six neighbors up to two rows down, in eighths. Only three quarters of the error is spread, which keeps more contrast
+     * and less noise in flat areas at the cost of detail in highlights and shadows.
+     */
+    ATKINSON(3, new int[] { 1, 0, 1, 2, 0, 1, -1, 1, 1, 0, 1, 1, 1, 1, 1, 0, 2, 1 }),
+
+    /**
+     * Ordered dithering with an 8x8 Bayer threshold matrix, whose amplitude depends on the number of colors of the palette. It shows a regular crosshatch
+     * pattern rather than noise, and does not vary from one frame to the next of an animation.
+     */
+    BAYER(0, new int[0]);
+
+    // the weights are out of 2 to the power of weightBits
+    final int weightBits;
+    // x offset, y offset and weight of each neighbor the error is spread over
+    final int[] kernel;
+
+    DitheringMethod(final int weightBits, final int[] kernel) {
+        this.weightBits = weightBits;
+        this.kernel = kernel;
+    }
+}
@@ -22,6 +22,11 @@ public class SimplePalette implements Palette {
 
     private final int[] palette;
 
+    // open addressing table from each color to its first index in the palette; a slot holds the index plus one, so that zero is an empty slot
+    private final int[] hashColors;
+    private final int[] hashIndices;
+    private final int hashShift;
+
     /**
      * Constructs a new instance.
      *
@@ -29,6 +34,23 @@ public class SimplePalette implements Palette {
      */
     public SimplePalette(final int[] palette) {
         this.palette = Objects.requireNonNull(palette, "palette").clone();
+
+        // at most half full, so that probe sequences stay short
+        final int hashBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, this.palette.length)) + 1;
+        hashColors = new int[1 << hashBits];
+        hashIndices = new int[1 << hashBits];
+        hashShift = 32 - hashBits;
+        for (int i = 0; i < this.palette.length; i++) {
+            final int rgb = this.palette[i];
+            int slot = hash(rgb);
+            while (hashIndices[slot] != 0 && hashColors[slot] != rgb) {
+                slot = slot + 1 & hashIndices.length - 1;
+            }
+            if (hashIndices[slot] == 0) {
+                hashColors[slot] = rgb;
+                hashIndices[slot] = i + 1;
+            }
+        }
     }
 
     @Override
@@ -38,14 +60,21 @@ public class SimplePalette implements Palette {
 
     @Override
     public int getPaletteIndex(final int rgb) {
-        for (int i = 0; i < palette.length; i++) {
-            if (palette[i] == rgb) {
-                return i;
+        int slot = hash(rgb);
+        while (hashIndices[slot] != 0) {
+            if (hashColors[slot] == rgb) {
+                return hashIndices[slot] - 1;
             }
+            slot = slot + 1 & hashIndices.length - 1;
         }
         return -1;
     }
 
+    private int hash(final int rgb) {
+        // Fibonacci hashing spreads nearby colors over the table
+        return rgb * 0x9E3779B9 >>> hashShift;
+    }
+
     @Override
     public int length() {
         return palette.length;
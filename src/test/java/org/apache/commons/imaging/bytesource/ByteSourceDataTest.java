@@ -19,6 +19,7 @@ package org.apache.commons.imaging.bytesource;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
@@ -26,12 +27,19 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -41,6 +49,18 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
         ByteSource getByteSource(byte[] src) throws IOException;
     }
 
+    private final class ByteSourceChannelFactory implements ByteSourceFactory {
+
+        @Override
+        public ByteSource getByteSource(final byte[] src) throws IOException {
+            final Path file = createTempFile(src).toPath();
+            final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            // the byte source does not own the channel
+            channels.add(channel);
+            return ByteSource.channel(channel, file.getFileName().toString());
+        }
+    }
+
     private final class ByteSourceFileFactory implements ByteSourceFactory {
 
         @Override
@@ -72,6 +92,26 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
 
     }
 
+    private static final class ByteSourceInputStreamSpillFactory implements ByteSourceFactory {
+
+        @Override
+        public ByteSource getByteSource(final byte[] src) throws IOException {
+            final ByteArrayInputStream is = new ByteArrayInputStream(src);
+            // keeps the first block on the heap and spills the rest
+            return ByteSource.inputStream(is, null, IOUtils.DEFAULT_BUFFER_SIZE + 1);
+        }
+
+    }
+
+    private final class ByteSourceMappedFactory implements ByteSourceFactory {
+
+        @Override
+        public ByteSource getByteSource(final byte[] src) throws IOException {
+            final Path file = createTempFile(src).toPath();
+            return ByteSource.mapped(file);
+        }
+    }
+
     private final class ByteSourcePathFactory implements ByteSourceFactory {
 
         @Override
@@ -83,10 +123,26 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
         }
     }
 
+    private final List<FileChannel> channels = new ArrayList<>();
+
     public static Stream<byte[]> data() {
         return Arrays.asList(getTestByteArrays()).stream();
     }
 
+    @AfterEach
+    public void closeChannels() throws IOException {
+        for (final FileChannel channel : channels) {
+            channel.close();
+        }
+        channels.clear();
+    }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testByteSourceChannelFactory(final byte[] testByteArray) throws Exception {
+        writeAndReadBytes(new ByteSourceChannelFactory(), testByteArray);
+    }
+
     @ParameterizedTest
     @MethodSource("data")
     public void testByteSourceFileFactory(final byte[] testByteArray) throws Exception {
@@ -105,6 +161,30 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
         writeAndReadBytes(new ByteSourceInputStreamRawFactory(), testByteArray);
     }
 
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testByteSourceInputStreamSpillFactory(final byte[] testByteArray) throws Exception {
+        writeAndReadBytes(new ByteSourceInputStreamSpillFactory(), testByteArray);
+    }
+
+    @Test
+    public void testByteSourceMappedClose() throws IOException {
+        final byte[] src = { 1, 2, 3 };
+        final ByteSource byteSource = ByteSource.mapped(createTempFile(src).toPath());
+        final ByteBuffer slice = byteSource.slice(0, src.length);
+        byteSource.close();
+        assertThrows(IOException.class, () -> byteSource.getByteArray(0, 1));
+        assertThrows(IOException.class, () -> byteSource.getInputStream().read());
+        // slices taken before closing keep the mapping alive
+        assertEquals(src[2], slice.get(2));
+    }
+
+    @ParameterizedTest
+    @MethodSource("data")
+    public void testByteSourceMappedFactory(final byte[] testByteArray) throws Exception {
+        writeAndReadBytes(new ByteSourceMappedFactory(), testByteArray);
+    }
+
     @ParameterizedTest
     @MethodSource("data")
     public void testByteSourcePathFactory(final byte[] testByteArray) throws Exception {
@@ -142,6 +222,16 @@ public class ByteSourceDataTest extends AbstractByteSourceTest {
                     assertEquals(dst[i], src[i + start]);
                 }
             }
+            // test positional reads and slices
+            final int length = src.length - start - 1;
+            final byte[] expected = Arrays.copyOfRange(src, start, start + length);
+            assertArrayEquals(expected, byteSource.getByteArray(start, length));
+            final ByteBuffer slice = byteSource.slice(start, length);
+            assertTrue(slice.isReadOnly());
+            assertEquals(length, slice.remaining());
+            final byte[] sliced = new byte[length];
+            slice.get(sliced);
+            assertArrayEquals(expected, sliced);
         }
 
     }
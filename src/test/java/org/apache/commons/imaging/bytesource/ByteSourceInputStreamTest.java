@@ -17,17 +17,28 @@
 package org.apache.commons.imaging.bytesource;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
 
+import org.apache.commons.imaging.ImageFormats;
+import org.apache.commons.imaging.ImageInfo;
 import org.apache.commons.imaging.Imaging;
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.ImagingTestConstants;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 
 final class ByteSourceInputStreamTest {
@@ -36,6 +47,45 @@ final class ByteSourceInputStreamTest {
     public static final int ICO_IMAGE_WIDTH = 300;
     public static final int ICO_IMAGE_HEIGHT = 225;
 
+    @Test
+    public void testHeader() throws IOException {
+        final BufferedImage image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB);
+        final Random random = new Random(3);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        final byte[] bytes = Imaging.writeImageToBytes(image, ImageFormats.PNG);
+
+        final int[] read = { 0 };
+        final InputStream is = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int n = super.read(b, off, len);
+                read[0] += Math.max(n, 0);
+                return n;
+            }
+        };
+        final ByteSource byteSource = ByteSource.header(is, "image.png", 1024);
+        assertTrue(byteSource.isHeaderOnly());
+        assertFalse(ByteSource.array(bytes).isHeaderOnly());
+        assertEquals(new Dimension(300, 200), Imaging.getImageSize(byteSource));
+        final ImageInfo imageInfo = Imaging.getImageInfo(byteSource);
+        assertEquals(300, imageInfo.getWidth());
+        assertEquals(ImageInfo.ColorType.RGB, imageInfo.getColorType());
+        Imaging.getMetadata(byteSource);
+        // the image data was never read
+        assertTrue(read[0] <= 1024, () -> read[0] + " bytes read");
+
+        // the byte source ends at the limit
+        final ByteSource truncated = ByteSource.header(new ByteArrayInputStream(bytes), null, 100);
+        assertEquals(100, truncated.size());
+        try (InputStream in = truncated.getInputStream()) {
+            assertEquals(100, IOUtils.toByteArray(in).length);
+        }
+    }
+
     @Test
     public void testReadFromStream() throws IOException, ImagingException {
 
@@ -50,4 +100,24 @@ final class ByteSourceInputStreamTest {
         }
     }
 
+    @Test
+    public void testSpill() throws IOException {
+        final byte[] bytes = new byte[5 * IOUtils.DEFAULT_BUFFER_SIZE + 17];
+        new Random(5).nextBytes(bytes);
+        final ByteSource byteSource = ByteSource.inputStream(new ByteArrayInputStream(bytes), null, 2 * IOUtils.DEFAULT_BUFFER_SIZE);
+        try (InputStream is = byteSource.getInputStream()) {
+            for (final byte b : bytes) {
+                assertEquals(0xff & b, is.read());
+            }
+            assertEquals(-1, is.read());
+        }
+        assertEquals(bytes.length, byteSource.size());
+        assertEquals(bytes[bytes.length - 1], byteSource.getByteArray(bytes.length - 1, 1)[0]);
+
+        // closing deletes the spill file, so the spilled part can no longer be read
+        byteSource.close();
+        assertEquals(bytes[0], byteSource.getByteArray(0, 1)[0]);
+        assertThrows(IOException.class, () -> byteSource.getByteArray(bytes.length - 1, 1));
+    }
+
 }
@@ -17,15 +17,22 @@
 
 package org.apache.commons.imaging.formats.gif;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -53,6 +60,32 @@ public class GifReadTest extends AbstractGifTest {
         return getGifImagesWithSingleImage().stream();
     }
 
+    private static int[] getPixels(final BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    private static BufferedImage newFrame(final int width, final int height, final int colors) {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, 0xff000000 | (y * width + x) % colors * 0x010203);
+            }
+        }
+        return image;
+    }
+
+    private static void assertAnimation(final byte[] bytes, final List<BufferedImage> expectedFrames, final int[] expectedDelays) throws IOException {
+        try (GifAnimationReader reader = new GifImageParser().getAnimationReader(ByteSource.array(bytes))) {
+            for (int i = 0; i < expectedFrames.size(); i++) {
+                final BufferedImage frame = reader.readNextFrame();
+                assertNotNull(frame);
+                assertArrayEquals(getPixels(expectedFrames.get(i)), getPixels(frame), "frame " + i);
+                assertEquals(expectedDelays[i], reader.getFrameMetadata().getDelay());
+            }
+            assertNull(reader.readNextFrame());
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("data")
     public void testBufferedImage(final File imageFile) throws Exception {
@@ -61,6 +94,60 @@ public class GifReadTest extends AbstractGifTest {
         // TODO assert more
     }
 
+    @ParameterizedTest
+    @MethodSource("animatedImageData")
+    public void testAnimationReader(final File imageFile) throws Exception {
+        final GifImageParser parser = new GifImageParser();
+        final List<BufferedImage> images = parser.getAllBufferedImages(ByteSource.file(imageFile));
+        final GifImageMetadata metadata = (GifImageMetadata) parser.getMetadata(ByteSource.file(imageFile));
+        final int width = metadata.getWidth();
+        final int height = metadata.getHeight();
+
+        // composite the frames as they are stored, one pixel at a time
+        final int[] expected = new int[width * height];
+        try (GifAnimationReader reader = parser.getAnimationReader(ByteSource.file(imageFile))) {
+            assertEquals(width, reader.getWidth());
+            assertEquals(height, reader.getHeight());
+            for (int i = 0; i < images.size(); i++) {
+                final BufferedImage image = images.get(i);
+                final GifImageMetadataItem item = metadata.getItems().get(i);
+                final int[] previous = expected.clone();
+                for (int y = 0; y < image.getHeight(); y++) {
+                    for (int x = 0; x < image.getWidth(); x++) {
+                        final int argb = image.getRGB(x, y);
+                        final int canvasX = item.getLeftPosition() + x;
+                        final int canvasY = item.getTopPosition() + y;
+                        if (argb >>> 24 != 0 && canvasX < width && canvasY < height) {
+                            expected[canvasY * width + canvasX] = argb;
+                        }
+                    }
+                }
+
+                final BufferedImage frame = reader.readNextFrame();
+                assertNotNull(frame);
+                assertEquals(i + 1, reader.getFrameCount());
+                assertEquals(item.getDelay(), reader.getFrameMetadata().getDelay());
+                assertEquals(item.getDisposalMethod(), reader.getFrameMetadata().getDisposalMethod());
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        assertEquals(expected[y * width + x], frame.getRGB(x, y), "frame " + i + " at " + x + "," + y);
+                    }
+                }
+
+                if (item.getDisposalMethod() == DisposalMethod.RESTORE_TO_BACKGROUND) {
+                    for (int y = item.getTopPosition(); y < Math.min(item.getTopPosition() + image.getHeight(), height); y++) {
+                        for (int x = item.getLeftPosition(); x < Math.min(item.getLeftPosition() + image.getWidth(), width); x++) {
+                            expected[y * width + x] = 0;
+                        }
+                    }
+                } else if (item.getDisposalMethod() == DisposalMethod.RESTORE_TO_PREVIOUS) {
+                    System.arraycopy(previous, 0, expected, 0, expected.length);
+                }
+            }
+            assertNull(reader.readNextFrame());
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("animatedImageData")
     public void testBufferedImagesForAnimatedImageGif(final File imageFile) throws Exception {
@@ -108,6 +195,76 @@ public class GifReadTest extends AbstractGifTest {
         }
     }
 
+    @Test
+    public void testWriteAnimationDeltaFrames() throws IOException {
+        final BufferedImage background = newFrame(40, 30, 16);
+        final BufferedImage moved = newFrame(40, 30, 16);
+        for (int y = 5; y < 10; y++) {
+            for (int x = 20; x < 26; x++) {
+                moved.setRGB(x, y, 0xffff0000);
+            }
+        }
+        final BufferedImage cleared = newFrame(40, 30, 16);
+        for (int y = 0; y < 30; y++) {
+            cleared.setRGB(3, y, 0);
+        }
+        final List<BufferedImage> frames = Arrays.asList(background, moved, moved, cleared, background);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new GifImageParser().writeAnimation(frames, new int[] { 10, 20, 30, 40, 50 }, baos, new GifImagingParameters());
+        final byte[] bytes = baos.toByteArray();
+
+        // the identical frames are written as one
+        assertAnimation(bytes, Arrays.asList(background, moved, cleared, background), new int[] { 10, 50, 40, 50 });
+        final GifImageMetadata metadata = (GifImageMetadata) new GifImageParser().getMetadata(ByteSource.array(bytes));
+        // grown from the red box to the column the next frame clears
+        final GifImageMetadataItem movedItem = metadata.getItems().get(1);
+        assertEquals(3, movedItem.getLeftPosition());
+        assertEquals(0, movedItem.getTopPosition());
+        assertEquals(DisposalMethod.RESTORE_TO_BACKGROUND, movedItem.getDisposalMethod());
+        assertTrue(new String(bytes, StandardCharsets.ISO_8859_1).contains("NETSCAPE2.0"));
+    }
+
+    @Test
+    public void testHeaderOnly() throws IOException {
+        final List<BufferedImage> frames = Arrays.asList(newFrame(300, 200, 200), newFrame(300, 200, 199), newFrame(300, 200, 198));
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new GifImageParser().writeAnimation(frames, new int[] { 10, 20, 30 }, baos, new GifImagingParameters());
+        final byte[] bytes = baos.toByteArray();
+        final byte[] header = Arrays.copyOf(bytes, 2048);
+        assertThrows(IOException.class, () -> new GifImageParser().getImageInfo(ByteSource.array(header)));
+
+        // reading stops before the image data of the first frame
+        final ImageInfo imageInfo = Imaging.getImageInfo(ByteSource.header(new ByteArrayInputStream(bytes), "animated.gif", header.length));
+        assertEquals(300, imageInfo.getWidth());
+        assertEquals(-1, imageInfo.getNumberOfImages());
+        assertEquals(3, Imaging.getImageInfo(bytes).getNumberOfImages());
+        final GifImageMetadata metadata = (GifImageMetadata) Imaging.getMetadata(ByteSource.header(new ByteArrayInputStream(bytes), null, header.length));
+        assertEquals(1, metadata.getItems().size());
+        assertEquals(10, metadata.getItems().get(0).getDelay());
+    }
+
+    @Test
+    public void testWriteAnimationLocalColorTables() throws IOException {
+        // 300 colors between them, so that each frame has its own exact color table
+        final BufferedImage first = newFrame(20, 10, 200);
+        final BufferedImage second = newFrame(20, 10, 200);
+        for (int i = 0; i < 100; i++) {
+            second.setRGB(i % 20, i / 20, 0xff000000 | 0x800000 + i);
+        }
+        final List<BufferedImage> frames = Arrays.asList(first, second);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new GifImageParser().writeAnimation(frames, null, baos, new GifImagingParameters().setLoopCount(-1));
+        final byte[] bytes = baos.toByteArray();
+
+        assertAnimation(bytes, frames, new int[] { 0, 0 });
+        assertFalse(new String(bytes, StandardCharsets.ISO_8859_1).contains("NETSCAPE2.0"));
+        assertThrows(ImagingException.class,
+                () -> new GifImageParser().writeAnimation(Arrays.asList(first, newFrame(10, 10, 2)), null, new ByteArrayOutputStream(), null));
+        assertThrows(IllegalArgumentException.class, () -> new GifImageParser().writeAnimation(frames, new int[1], new ByteArrayOutputStream(), null));
+    }
+
     @ParameterizedTest
     @MethodSource("data")
     public void testImageDimensions(final File imageFile) throws Exception {
@@ -17,12 +17,23 @@
 
 package org.apache.commons.imaging.formats.jpeg;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.stream.Stream;
 
 import org.apache.commons.imaging.ImageInfo;
@@ -39,6 +50,106 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 public class JpegReadTest extends JpegBaseTest {
 
+    /**
+     * A channel that counts the reads from the start of the file, each of which begins a traversal of the file.
+     */
+    private static final class CountingChannel extends FileChannel {
+        private final FileChannel channel;
+        int traversals;
+
+        CountingChannel(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void force(final boolean metaData) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+
+        @Override
+        public FileLock lock(final long position, final long size, final boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(final MapMode mode, final long position, final long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileChannel position(final long newPosition) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(final ByteBuffer dst, final long position) throws IOException {
+            if (position == 0) {
+                traversals++;
+            }
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public long read(final ByteBuffer[] dsts, final int offset, final int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public long transferFrom(final ReadableByteChannel src, final long position, final long count) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long transferTo(final long position, final long count, final WritableByteChannel target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileChannel truncate(final long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(final long position, final long size, final boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int write(final ByteBuffer src) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int write(final ByteBuffer src, final long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long write(final ByteBuffer[] srcs, final int offset, final int length) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     public static Stream<File> data() throws Exception {
         return getJpegImages().stream();
     }
@@ -61,7 +172,39 @@ public class JpegReadTest extends JpegBaseTest {
             final BufferedImage image = Imaging.getBufferedImage(imageFile);
             assertNotNull(image);
         } catch (final ImagingException imageReadException) {
-            assertEquals("Only sequential, baseline JPEGs are supported at the moment", imageReadException.getMessage());
+            assertEquals("Only sequential and progressive Huffman-coded JPEGs are supported at the moment", imageReadException.getMessage());
+        }
+    }
+
+    @Test
+    public void testSegmentIndex() throws Exception {
+        for (final File imageFile : getJpegImages()) {
+            final byte[] bytes = Files.readAllBytes(imageFile.toPath());
+            final JpegSegmentIndex index;
+            try {
+                index = JpegSegmentIndex.read(ByteSource.array(bytes));
+            } catch (final ImagingException e) {
+                continue;
+            }
+            for (int i = 0; i < index.size(); i++) {
+                final int offset = (int) index.getOffset(i);
+                final String message = imageFile + " segment " + i;
+                assertEquals(index.getMarker(i), (0xff & bytes[offset]) << 8 | 0xff & bytes[offset + 1], message);
+                assertEquals(index.getLength(i), (0xff & bytes[offset + 2]) << 8 | 0xff & bytes[offset + 3], message);
+                assertArrayEquals(Arrays.copyOfRange(bytes, offset + 4, offset + 2 + index.getLength(i)), index.getSegmentData(i), message);
+            }
+            assertEquals(0, new JpegImageParser().readSegments(ByteSource.array(new byte[] { (byte) 0xff, (byte) 0xd8, (byte) 0xff, (byte) 0xd9 }), null, false)
+                    .size());
+
+            // the image info, which may include the EXIF metadata, is read in a single traversal of the file
+            try (CountingChannel channel = new CountingChannel(FileChannel.open(imageFile.toPath(), StandardOpenOption.READ))) {
+                try {
+                    new JpegImageParser().getImageInfo(ByteSource.channel(channel, imageFile.getName()), null);
+                } catch (final ImagingException e) {
+                    continue;
+                }
+                assertEquals(1, channel.traversals, imageFile.toString());
+            }
         }
     }
 
@@ -18,6 +18,9 @@
 package org.apache.commons.imaging.formats.jpeg.decoder;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -85,6 +88,35 @@ public class DctTest {
         return ret;
     }
 
+    @Test
+    public void testIntegerInverseDct() {
+        final Random random = new Random(0x1DC7);
+        for (int n = 0; n < 10000; n++) {
+            final int[] coefficients = new int[64];
+            coefficients[0] = random.nextInt(2048) - 1024;
+            // sparse, decaying high frequencies as in quantized images, and some blocks with only a DC term
+            final int count = n % 10 == 0 ? 0 : random.nextInt(64);
+            for (int i = 0; i < count; i++) {
+                final int index = 1 + random.nextInt(63);
+                final int range = 1 + 1024 / (1 + index / 4);
+                coefficients[index] = random.nextInt(2 * range) - range;
+            }
+
+            final float[] expected = new float[64];
+            for (int i = 0; i < 64; i++) {
+                expected[i] = coefficients[i];
+            }
+            Dct.scaleDequantizationMatrix(expected);
+            Dct.inverseDct8x8(expected);
+            final int[] actual = coefficients.clone();
+            Dct.inverseDct8x8(actual);
+            for (int i = 0; i < 64; i++) {
+                final int rounded = (int) Math.floor(expected[i] + 0.5f);
+                assertTrue(Math.abs(rounded - actual[i]) <= 1, "block " + n + ", sample " + i + ": " + expected[i] + " vs " + actual[i]);
+            }
+        }
+    }
+
     @Test
     public void testMatrices() {
         final float[] originalData = new float[8 * 8];
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.imaging.formats.jpeg.decoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.formats.jpeg.JpegConstants;
+import org.apache.commons.imaging.formats.jpeg.segments.DhtSegment;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for class {@link HuffmanDecoder}.
+ */
+public class HuffmanDecoderTest {
+
+    private static HuffmanDecoder createDecoder() throws Exception {
+        // two codes of length 2, one of length 3 and two of length 12, which is beyond the lookahead
+        final byte[] segmentData = new byte[1 + 16 + 5];
+        segmentData[1 + 1] = 2;
+        segmentData[1 + 2] = 1;
+        segmentData[1 + 11] = 2;
+        segmentData[17] = 0x11;
+        segmentData[18] = 0x22;
+        segmentData[19] = 0x33;
+        segmentData[20] = 0x44;
+        segmentData[21] = 0x55;
+        return new HuffmanDecoder(new DhtSegment(JpegConstants.DHT_MARKER, segmentData).huffmanTables.get(0));
+    }
+
+    @Test
+    public void testDecode() throws Exception {
+        final HuffmanDecoder decoder = createDecoder();
+        // 01 100 101000000001 00 101000000000 and a padding bit
+        final JpegInputStream is = new JpegInputStream(new byte[] { 0x65, 0x00, (byte) 0x94, 0x01 }, 0, 4);
+
+        assertEquals(0x22, decoder.decode(is));
+        assertEquals(0x33, decoder.decode(is));
+        assertEquals(0x55, decoder.decode(is));
+        assertEquals(0x11, decoder.decode(is));
+        assertEquals(0x44, decoder.decode(is));
+        assertEquals(1, is.nextBit());
+    }
+
+    @Test
+    public void testDecodeInvalidCode() throws Exception {
+        final HuffmanDecoder decoder = createDecoder();
+        final JpegInputStream is = new JpegInputStream(new byte[] { (byte) 0xFF, 0x00, (byte) 0xFF, 0x00 }, 0, 4);
+
+        assertThrows(ImagingException.class, () -> decoder.decode(is));
+    }
+}
@@ -17,12 +17,30 @@
 
 package org.apache.commons.imaging.formats.jpeg.decoder;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.formats.jpeg.JpegConstants;
+import org.apache.commons.imaging.formats.jpeg.JpegImageParser;
+import org.apache.commons.imaging.formats.jpeg.JpegImagingParameters;
 import org.apache.commons.imaging.test.TestResources;
 import org.junit.jupiter.api.Test;
 
@@ -31,6 +49,232 @@ import org.junit.jupiter.api.Test;
  */
 public class JpegDecoderTest {
 
+    private static BufferedImage createTestImage(final int width, final int height) {
+        final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int r = x * 255 / width;
+                final int g = y * 255 / height;
+                final int b = (x / 5 + y / 7) % 2 == 0 ? 40 : 220;
+                image.setRGB(x, y, r << 16 | g << 8 | b);
+            }
+        }
+        return image;
+    }
+
+    private static int[] decodeRgb(final byte[] bytes) throws ImagingException, IOException {
+        final BufferedImage image = new JpegDecoder().decode(ByteSource.array(bytes));
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    private static int findSegment(final byte[] bytes, final int marker) {
+        int pos = 2;
+        while (((0xff & bytes[pos]) << 8 | 0xff & bytes[pos + 1]) != marker) {
+            assertTrue(bytes[pos + 1] != (byte) JpegConstants.SOS_MARKER, "no segment " + Integer.toHexString(marker));
+            pos += 2 + ((0xff & bytes[pos + 2]) << 8 | 0xff & bytes[pos + 3]);
+        }
+        return pos;
+    }
+
+    private static byte[] writeJpeg(final BufferedImage image, final boolean progressive) throws IOException {
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
+            writer.setOutput(ios);
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            if (progressive) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testDecodeExtendedSequential() throws Exception {
+        final byte[] baseline = writeJpeg(createTestImage(45, 30), false);
+        final byte[] extended = baseline.clone();
+        extended[findSegment(extended, JpegConstants.SOF0_MARKER) + 1] = (byte) JpegConstants.SOF1_MARKER;
+
+        assertArrayEquals(decodeRgb(baseline), decodeRgb(extended));
+    }
+
+    @Test
+    public void testDecodeIntegerIdct() throws Exception {
+        final BufferedImage image = createTestImage(101, 67);
+        final BufferedImage gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        gray.getGraphics().drawImage(image, 0, 0, null);
+        for (final BufferedImage source : new BufferedImage[] { image, gray }) {
+            final byte[] bytes = writeJpeg(source, false);
+            final int[] expected = decodeRgb(bytes);
+            final JpegDecoder decoder = new JpegDecoder();
+            decoder.setIntegerIdct(true);
+            final BufferedImage decoded = decoder.decode(ByteSource.array(bytes));
+            final int[] actual = decoded.getRGB(0, 0, decoded.getWidth(), decoded.getHeight(), null, 0, decoded.getWidth());
+            // samples are within one, which the color conversion may spread to three when luma and chroma
+            // are both off, as blue is luma plus 1.772 times the blue difference
+            final int tolerance = source == gray ? 1 : 3;
+            for (int i = 0; i < expected.length; i++) {
+                for (int shift = 0; shift < 24; shift += 8) {
+                    final int difference = Math.abs((expected[i] >> shift & 0xff) - (actual[i] >> shift & 0xff));
+                    assertTrue(difference <= tolerance, "pixel " + i + ": " + Integer.toHexString(expected[i]) + " vs " + Integer.toHexString(actual[i]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDecodeScaled() throws Exception {
+        final BufferedImage image = createTestImage(101, 67);
+        final byte[] baseline = writeJpeg(image, false);
+        final byte[] progressive = writeJpeg(image, true);
+        final BufferedImage full = new JpegDecoder().decode(ByteSource.array(baseline));
+        for (final int scale : new int[] { 2, 4, 8 }) {
+            final JpegDecoder decoder = new JpegDecoder();
+            decoder.setScaleDenominator(scale);
+            final BufferedImage scaled = decoder.decode(ByteSource.array(baseline));
+            assertEquals((image.getWidth() + scale - 1) / scale, scaled.getWidth());
+            assertEquals((image.getHeight() + scale - 1) / scale, scaled.getHeight());
+
+            // each pixel approximates the average of the pixels it covers in the full-size image
+            long error = 0;
+            int count = 0;
+            for (int y = 0; y < image.getHeight() / scale; y++) {
+                for (int x = 0; x < image.getWidth() / scale; x++) {
+                    for (int shift = 0; shift < 24; shift += 8) {
+                        int sum = 0;
+                        for (int v = 0; v < scale; v++) {
+                            for (int u = 0; u < scale; u++) {
+                                sum += full.getRGB(x * scale + u, y * scale + v) >> shift & 0xff;
+                            }
+                        }
+                        error += Math.abs(sum / (scale * scale) - (scaled.getRGB(x, y) >> shift & 0xff));
+                        count++;
+                    }
+                }
+            }
+            assertTrue(error < 4 * count, "scale 1/" + scale + ", mean error " + (double) error / count);
+
+            final JpegDecoder progressiveDecoder = new JpegDecoder();
+            progressiveDecoder.setScaleDenominator(scale);
+            final BufferedImage progressiveScaled = progressiveDecoder.decode(ByteSource.array(progressive));
+            assertArrayEquals(scaled.getRGB(0, 0, scaled.getWidth(), scaled.getHeight(), null, 0, scaled.getWidth()),
+                    progressiveScaled.getRGB(0, 0, scaled.getWidth(), scaled.getHeight(), null, 0, scaled.getWidth()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new JpegDecoder().setScaleDenominator(3));
+    }
+
+    private static void assertSubImage(final BufferedImage full, final Rectangle region, final BufferedImage actual) {
+        assertEquals(region.width, actual.getWidth());
+        assertEquals(region.height, actual.getHeight());
+        assertArrayEquals(full.getRGB(region.x, region.y, region.width, region.height, null, 0, region.width),
+                actual.getRGB(0, 0, region.width, region.height, null, 0, region.width), region.toString());
+    }
+
+    @Test
+    public void testDecodeSubImage() throws Exception {
+        final BufferedImage image = createTestImage(101, 67);
+        final Rectangle[] regions = { new Rectangle(0, 0, 101, 67), new Rectangle(0, 0, 1, 1), new Rectangle(100, 66, 1, 1), new Rectangle(17, 9, 40, 30),
+                new Rectangle(50, 0, 51, 67), new Rectangle(0, 40, 101, 3) };
+        for (final byte[] bytes : new byte[][] { writeJpeg(image, false), writeJpeg(image, true) }) {
+            final BufferedImage full = new JpegDecoder().decode(ByteSource.array(bytes));
+            for (final Rectangle region : regions) {
+                final JpegDecoder decoder = new JpegDecoder();
+                decoder.setSubImage(region);
+                assertSubImage(full, region, decoder.decode(ByteSource.array(bytes)));
+            }
+            // the region is in the coordinates of the scaled image
+            final JpegDecoder scaledDecoder = new JpegDecoder();
+            scaledDecoder.setScaleDenominator(4);
+            final BufferedImage scaled = scaledDecoder.decode(ByteSource.array(bytes));
+            final Rectangle region = new Rectangle(3, 2, 20, 10);
+            scaledDecoder.setSubImage(region);
+            assertSubImage(scaled, region, scaledDecoder.decode(ByteSource.array(bytes)));
+        }
+
+        final JpegDecoder decoder = new JpegDecoder();
+        decoder.setSubImage(new Rectangle(90, 0, 12, 10));
+        assertThrows(ImagingException.class, () -> decoder.decode(ByteSource.array(writeJpeg(image, false))));
+        decoder.setSubImage(new Rectangle(0, 67, 10, 1));
+        assertThrows(ImagingException.class, () -> decoder.decode(ByteSource.array(writeJpeg(image, false))));
+    }
+
+    @Test
+    public void testDecodeSubImageRestartIntervals() throws Exception {
+        // intervals that miss the region are skipped, with or without an executor
+        final File inputFile = TestResources.resourceToFile("/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg");
+        final JpegImageParser parser = new JpegImageParser();
+        final BufferedImage full = parser.getBufferedImage(ByteSource.file(inputFile), null);
+        final Rectangle[] regions = { new Rectangle(full.getWidth() / 3, full.getHeight() / 2, full.getWidth() / 4, 37),
+                new Rectangle(full.getWidth() - 20, full.getHeight() - 20, 20, 20), new Rectangle(5, 3, 1, full.getHeight() - 3) };
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (final Rectangle region : regions) {
+                final JpegImagingParameters params = new JpegImagingParameters().setSubImage(region.x, region.y, region.width, region.height);
+                assertSubImage(full, region, parser.getBufferedImage(ByteSource.file(inputFile), params));
+                assertSubImage(full, region, parser.getBufferedImage(ByteSource.file(inputFile), params.setDecodeExecutor(executor)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new JpegImagingParameters().setSubImage(-1, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new JpegImagingParameters().setSubImage(0, 0, 0, 1));
+    }
+
+    @Test
+    public void testDecodeProgressive() throws Exception {
+        // both encodings carry the same quantized coefficients, the progressive
+        // one spread over spectral selection and successive approximation scans
+        final BufferedImage image = createTestImage(101, 67);
+        final byte[] baseline = writeJpeg(image, false);
+        final byte[] progressive = writeJpeg(image, true);
+        findSegment(progressive, JpegConstants.SOF2_MARKER);
+
+        assertArrayEquals(decodeRgb(baseline), decodeRgb(progressive));
+    }
+
+    @Test
+    public void testDecodeRestartIntervalsConcurrently() throws Exception {
+        final File inputFile = TestResources.resourceToFile("/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg");
+        final JpegImageParser parser = new JpegImageParser();
+        final BufferedImage expected = parser.getBufferedImage(ByteSource.file(inputFile), null);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final BufferedImage actual = parser.getBufferedImage(ByteSource.file(inputFile), new JpegImagingParameters().setDecodeExecutor(executor));
+            assertEquals(expected.getWidth(), actual.getWidth());
+            assertEquals(expected.getHeight(), actual.getHeight());
+            assertArrayEquals(expected.getRGB(0, 0, expected.getWidth(), expected.getHeight(), null, 0, expected.getWidth()),
+                    actual.getRGB(0, 0, actual.getWidth(), actual.getHeight(), null, 0, actual.getWidth()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that the DC predictions start over with each restart interval.
+     */
+    @Test
+    public void testDecodeRestartIntervals() throws Exception {
+        final File inputFile = TestResources.resourceToFile("/images/jpeg/photoshop/IMAGING-246/FallHarvestKitKat_07610.jpg");
+        final BufferedImage image = new JpegDecoder().decode(ByteSource.file(inputFile));
+        final BufferedImage reference = ImageIO.read(inputFile);
+        assertEquals(reference.getWidth(), image.getWidth());
+        assertEquals(reference.getHeight(), image.getHeight());
+        long error = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                final int p = image.getRGB(x, y);
+                final int q = reference.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    error += Math.abs((p >> shift & 0xff) - (q >> shift & 0xff));
+                }
+            }
+        }
+        assertTrue(error < image.getWidth() * image.getHeight(), "mean error " + (double) error / (3 * image.getWidth() * image.getHeight()));
+    }
+
     /**
      * Test that a bad file does not hang or take too long to be processed.
      */
@@ -16,9 +16,17 @@
  */
 package org.apache.commons.imaging.formats.jpeg.decoder;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
 import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.formats.jpeg.JpegConstants;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -30,10 +38,10 @@ public class JpegInputStreamTest {
 
     @Test
     public void testNextBitThrowsImageReadExceptionOne() {
-        final int[] byteArray = new int[6];
+        final byte[] byteArray = new byte[6];
         byteArray[0] = (byte) -1;
         byteArray[1] = (byte) 74;
-        final JpegInputStream jpegInputStream = new JpegInputStream(byteArray);
+        final JpegInputStream jpegInputStream = new JpegInputStream(byteArray, 0, byteArray.length);
 
         assertThrows(ImagingException.class, jpegInputStream::nextBit);
 
@@ -41,11 +49,69 @@ public class JpegInputStreamTest {
 
     @Test
     public void testNextBitThrowsImageReadExceptionTwo() {
-        final int[] byteArray = {};
-        final JpegInputStream jpegInputStream = new JpegInputStream(byteArray);
+        final byte[] byteArray = {};
+        final JpegInputStream jpegInputStream = new JpegInputStream(byteArray, 0, byteArray.length);
 
         assertThrows(IllegalStateException.class, jpegInputStream::nextBit);
 
     }
 
+    @Test
+    public void testPeekAndReadBits() throws Exception {
+        // 0xFF 0x00 is a stuffed 0xFF, the data ends at the EOI marker
+        final byte[] bytes = { (byte) 0xA5, (byte) 0xFF, 0x00, 0x3C, (byte) 0xFF, (byte) 0xD9 };
+        final JpegInputStream jpegInputStream = new JpegInputStream(bytes, 0, bytes.length);
+
+        assertEquals(0xA5F, jpegInputStream.peekBits(12));
+        assertEquals(0x5, jpegInputStream.readBits(3));
+        assertEquals(0xBF, jpegInputStream.readBits(10));
+        assertEquals(0, jpegInputStream.readBits(0));
+        assertEquals(0x7, jpegInputStream.readBits(3));
+        // bits past the end of the data can be looked at, but not consumed
+        assertEquals(0x3C00, jpegInputStream.peekBits(16));
+        assertEquals(0x3C, jpegInputStream.readBits(8));
+        assertEquals(0, jpegInputStream.peekBits(9));
+        assertThrows(ImagingException.class, jpegInputStream::nextBit);
+    }
+
+    @Test
+    public void testStreamIntervals() throws Exception {
+        // one byte of data, a restart marker, a stuffed 0xFF, a fill byte and the EOI marker
+        final byte[] bytes = { (byte) 0xA0, (byte) 0xFF, (byte) 0xD0, (byte) 0xFF, 0x00, (byte) 0xFF, (byte) 0xFF, (byte) 0xD9, 0x12 };
+        final ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+        final JpegInputStream jpegInputStream = new JpegInputStream(stream);
+
+        assertTrue(jpegInputStream.hasNext());
+        assertEquals(1, jpegInputStream.nextBit());
+        assertEquals(0, jpegInputStream.nextBit());
+        assertFalse(jpegInputStream.hasNext());
+        assertTrue(jpegInputStream.nextInterval());
+
+        assertTrue(jpegInputStream.hasNext());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(1, jpegInputStream.nextBit());
+        }
+        assertFalse(jpegInputStream.hasNext());
+        assertFalse(jpegInputStream.nextInterval());
+        assertEquals(JpegConstants.EOI_MARKER, jpegInputStream.nextMarker());
+        assertEquals(0x12, jpegInputStream.read());
+    }
+
+    @Test
+    public void testStreamNextMarkerSkipsRestartMarkers() throws IOException {
+        final byte[] bytes = { 0x01, (byte) 0xFF, (byte) 0xD7, 0x02, (byte) 0xFF, 0x00, (byte) 0xFF, (byte) 0xC4, 0x00 };
+        final JpegInputStream jpegInputStream = new JpegInputStream(new ByteArrayInputStream(bytes));
+
+        assertEquals(JpegConstants.DHT_MARKER, jpegInputStream.nextMarker());
+        assertArrayEquals(new byte[] { 0x00 }, jpegInputStream.readBytes(1));
+        assertEquals(-1, jpegInputStream.nextMarker());
+    }
+
+    @Test
+    public void testStreamPrematureEnd() {
+        final JpegInputStream jpegInputStream = new JpegInputStream(new ByteArrayInputStream(new byte[0]));
+
+        assertThrows(ImagingException.class, jpegInputStream::nextBit);
+    }
+
 }
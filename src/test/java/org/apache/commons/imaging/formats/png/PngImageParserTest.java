@@ -17,15 +17,22 @@
 
 package org.apache.commons.imaging.formats.png;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
 
 import org.apache.commons.imaging.ImageInfo;
+import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.common.AllocationRequestException;
 import org.junit.jupiter.api.Test;
 
@@ -38,6 +45,49 @@ public class PngImageParserTest extends AbstractPngTest {
         }
     }
 
+    /**
+     * Rewrites a PNG file with its image data split into IDAT chunks of at most the given size.
+     */
+    private static byte[] splitImageData(final byte[] png, final int chunkSize) throws IOException {
+        final ByteArrayOutputStream imageData = new ByteArrayOutputStream();
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final DataOutputStream dos = new DataOutputStream(result);
+        dos.write(png, 0, PngConstants.PNG_SIGNATURE.size());
+        final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(png, PngConstants.PNG_SIGNATURE.size(), png.length));
+        while (dis.available() > 0) {
+            final byte[] data = new byte[dis.readInt()];
+            final byte[] type = new byte[4];
+            dis.readFully(type);
+            dis.readFully(data);
+            dis.readInt();
+            if (new String(type, StandardCharsets.US_ASCII).equals("IDAT")) {
+                imageData.write(data);
+                continue;
+            }
+            if (imageData.size() > 0) {
+                final byte[] bytes = imageData.toByteArray();
+                imageData.reset();
+                for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+                    final byte[] chunk = new byte[Math.min(chunkSize, bytes.length - offset)];
+                    System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+                    writeChunk(dos, "IDAT".getBytes(StandardCharsets.US_ASCII), chunk);
+                }
+            }
+            writeChunk(dos, type, data);
+        }
+        return result.toByteArray();
+    }
+
+    private static void writeChunk(final DataOutputStream dos, final byte[] type, final byte[] data) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(data);
+        dos.writeInt(data.length);
+        dos.write(type);
+        dos.write(data);
+        dos.writeInt((int) crc.getValue());
+    }
+
     @Test
     public void testGetImageSize() {
         final byte[] bytes = {
@@ -72,4 +122,31 @@ public class PngImageParserTest extends AbstractPngTest {
         final ImageInfo imageInfo = new PngImageParser().getImageInfo(bytes, null);
         assertTrue(imageInfo.usesPalette());
     }
+
+    @Test
+    public void testSplitImageData() throws IOException {
+        final BufferedImage image = new BufferedImage(61, 37, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x * 31 + y * 17) * 0x010203 | (x + y) % 3 * 0x7f000000);
+            }
+        }
+        final int[] expected = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        final byte[] bytes = getPngImageBytes(image, new PngImagingParameters());
+        for (final int chunkSize : new int[] { 1, 7, 100, Integer.MAX_VALUE }) {
+            final BufferedImage decoded = new PngImageParser().getBufferedImage(splitImageData(bytes, chunkSize), null);
+            assertArrayEquals(expected, decoded.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()), "chunk size " + chunkSize);
+        }
+
+        // the CRC of the image data is checked while it is inflated
+        final byte[] split = splitImageData(bytes, 100);
+        int pos = PngConstants.PNG_SIGNATURE.size();
+        while (split[pos + 4] != 'I' || split[pos + 5] != 'D') {
+            pos += 12 + ((split[pos] & 0xff) << 24 | (split[pos + 1] & 0xff) << 16 | (split[pos + 2] & 0xff) << 8 | split[pos + 3] & 0xff);
+        }
+        // the CRC of the first IDAT chunk
+        split[pos + 8 + 100] ^= 1;
+        final IOException e = assertThrows(IOException.class, () -> new PngImageParser().getBufferedImage(split, null));
+        assertTrue(e.getCause() instanceof ImagingException, e.toString());
+    }
 }
@@ -17,6 +17,7 @@
 
 package org.apache.commons.imaging.formats.png;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -24,14 +25,24 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Random;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 
 import org.apache.commons.imaging.ImageInfo;
 import org.apache.commons.imaging.Imaging;
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
+import org.apache.commons.imaging.common.BufferedImageFactory;
 import org.apache.commons.imaging.common.GenericImageMetadata;
 import org.apache.commons.imaging.common.ImageMetadata;
 import org.apache.commons.imaging.formats.tiff.TiffImageMetadata;
@@ -43,6 +54,19 @@ import org.junit.jupiter.api.Test;
 
 public class PngReadTest extends AbstractPngTest {
 
+    private static final class AbgrBufferedImageFactory implements BufferedImageFactory {
+
+        @Override
+        public BufferedImage getColorBufferedImage(final int width, final int height, final boolean hasAlpha) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
+        }
+
+        @Override
+        public BufferedImage getGrayscaleBufferedImage(final int width, final int height, final boolean hasAlpha) {
+            return getColorBufferedImage(width, height, hasAlpha);
+        }
+    }
+
     @Test
     public void test() throws Exception {
         Debug.debug("start");
@@ -152,4 +176,68 @@ public class PngReadTest extends AbstractPngTest {
                         .findDirectory(TiffDirectoryConstants.DIRECTORY_TYPE_ROOT)
                         .getFieldValue(TiffTagConstants.TIFF_TAG_IMAGE_DESCRIPTION));
     }
+
+    private static byte[] writeWithImageIo(final BufferedImage image, final boolean interlaced) throws IOException {
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(interlaced ? ImageWriteParam.MODE_DEFAULT : ImageWriteParam.MODE_DISABLED);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Tests that rows are stored in the image the same way for every color type, whether the image is interlaced or not, and whatever the type of the
+     * image built.
+     */
+    @Test
+    public void testReadRows() throws IOException {
+        final Random random = new Random(3);
+        final int width = 37;
+        final int height = 23;
+        final byte[] reds = new byte[4];
+        final byte[] greens = new byte[4];
+        final byte[] blues = new byte[4];
+        random.nextBytes(reds);
+        random.nextBytes(greens);
+        random.nextBytes(blues);
+        final BufferedImage[] images = { new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB),
+                new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY),
+                new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY, new IndexColorModel(2, 4, reds, greens, blues)) };
+        for (final BufferedImage image : images) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+            final int[] expected = image.getRGB(0, 0, width, height, null, 0, width);
+            if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+                // PNG stores the gray levels, not their sRGB values
+                for (int i = 0; i < expected.length; i++) {
+                    final int level = image.getRaster().getSample(i % width, i / width, 0);
+                    expected[i] = 0xff000000 | level << 16 | level << 8 | level;
+                }
+            }
+            for (final boolean interlaced : new boolean[] { false, true }) {
+                final byte[] bytes = writeWithImageIo(image, interlaced);
+                final String message = "type " + image.getType() + (interlaced ? ", interlaced" : "");
+
+                // written directly into the data buffer
+                final BufferedImage decoded = Imaging.getBufferedImage(bytes);
+                final BufferedImage reference = new BufferedImage(width, height, decoded.getType());
+                reference.setRGB(0, 0, width, height, expected, 0, width);
+                assertArrayEquals(reference.getRGB(0, 0, width, height, null, 0, width), decoded.getRGB(0, 0, width, height, null, 0, width), message);
+
+                // written through setRGB
+                final PngImagingParameters params = new PngImagingParameters().setBufferedImageFactory(new AbgrBufferedImageFactory());
+                final BufferedImage custom = new PngImageParser().getBufferedImage(bytes, params);
+                assertArrayEquals(expected, custom.getRGB(0, 0, width, height, null, 0, width), message);
+            }
+        }
+    }
 }
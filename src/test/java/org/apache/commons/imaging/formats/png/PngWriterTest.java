@@ -16,16 +16,24 @@
  */
 package org.apache.commons.imaging.formats.png;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
 
 import org.apache.commons.imaging.Imaging;
 import org.apache.commons.imaging.ImagingTestConstants;
+import org.apache.commons.imaging.palette.DitheringMethod;
 import org.apache.commons.imaging.palette.Palette;
 import org.apache.commons.imaging.palette.PaletteFactory;
 import org.apache.commons.imaging.palette.SimplePalette;
@@ -103,4 +111,117 @@ public class PngWriterTest extends AbstractPngTest {
             assertEquals(colorCount, countColors(palettedBytes), filePath);
         }
     }
+
+    @Test
+    public void testFilterSelection() throws IOException {
+        // a smooth image with noise, on which filtering pays off
+        final BufferedImage image = new BufferedImage(97, 61, BufferedImage.TYPE_INT_ARGB);
+        final Random random = new Random(7);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                final int r = x * 2 + random.nextInt(4);
+                final int g = y * 3 + random.nextInt(4);
+                final int b = (x + y) + random.nextInt(4);
+                image.setRGB(x, y, (0x80 + x) << 24 | r << 16 | g << 8 | b);
+            }
+        }
+        final int[] expected = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        final BufferedImage gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        gray.getGraphics().drawImage(image, 0, 0, null);
+        final int[] expectedGray = gray.getRGB(0, 0, gray.getWidth(), gray.getHeight(), null, 0, gray.getWidth());
+        // the palette may be quantized, so compare against the unfiltered indexed image
+        final BufferedImage indexed = Imaging.getBufferedImage(getImageBytes(gray, new PngImagingParameters().setForceIndexedColor(true), null));
+        final int[] expectedIndexed = indexed.getRGB(0, 0, gray.getWidth(), gray.getHeight(), null, 0, gray.getWidth());
+
+        final int unfiltered = getImageBytes(image, new PngImagingParameters(), null).length;
+        for (final FilterSelection filterSelection : FilterSelection.values()) {
+            final PngImagingParameters params = new PngImagingParameters().setFilterSelection(filterSelection);
+            final byte[] bytes = getImageBytes(image, params, null);
+            final BufferedImage decoded = Imaging.getBufferedImage(bytes);
+            assertArrayEquals(expected, decoded.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()), filterSelection.name());
+            if (filterSelection == FilterSelection.MINIMUM_SUM || filterSelection == FilterSelection.BRUTE_FORCE) {
+                assertTrue(bytes.length < unfiltered, filterSelection + ": " + bytes.length + " vs " + unfiltered);
+            }
+
+            final byte[] grayBytes = getImageBytes(gray, params, null);
+            final BufferedImage decodedGray = Imaging.getBufferedImage(grayBytes);
+            assertArrayEquals(expectedGray, decodedGray.getRGB(0, 0, gray.getWidth(), gray.getHeight(), null, 0, gray.getWidth()), filterSelection.name());
+
+            final byte[] indexedBytes = getImageBytes(gray, params.setForceIndexedColor(true), null);
+            final BufferedImage decodedIndexed = Imaging.getBufferedImage(indexedBytes);
+            assertArrayEquals(expectedIndexed, decodedIndexed.getRGB(0, 0, gray.getWidth(), gray.getHeight(), null, 0, gray.getWidth()), filterSelection.name());
+        }
+    }
+
+    @Test
+    public void testCompressionParameters() throws IOException {
+        final BufferedImage image = Imaging.getBufferedImage(getPngFile("3/testImage.png"));
+        final int[] expected = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        int previous = Integer.MAX_VALUE;
+        for (final int level : new int[] { Deflater.NO_COMPRESSION, Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION }) {
+            for (final int strategy : new int[] { Deflater.DEFAULT_STRATEGY, Deflater.FILTERED, Deflater.HUFFMAN_ONLY }) {
+                final PngImagingParameters params = new PngImagingParameters().setCompressionLevel(level).setCompressionStrategy(strategy);
+                final byte[] bytes = getImageBytes(image, params, null);
+                final BufferedImage decoded = Imaging.getBufferedImage(bytes);
+                assertArrayEquals(expected, decoded.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()));
+                if (strategy == Deflater.DEFAULT_STRATEGY) {
+                    assertTrue(bytes.length <= previous, "level " + level);
+                    previous = bytes.length;
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PngImagingParameters().setCompressionLevel(10));
+        assertThrows(IllegalArgumentException.class, () -> new PngImagingParameters().setCompressionStrategy(3));
+    }
+
+    @Test
+    public void testDitheringMethod() throws IOException {
+        final BufferedImage image = new BufferedImage(256, 64, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, x << 16 | y * 4 << 8 | (x + y) & 0xff);
+            }
+        }
+        for (final DitheringMethod method : DitheringMethod.values()) {
+            final PngImagingParameters params = new PngImagingParameters().setForceIndexedColor(true).setDitheringMethod(method);
+            final byte[] bytes = getImageBytes(image, params, null);
+            assertTrue(countColors(bytes) <= 256, method.name());
+            final BufferedImage decoded = Imaging.getBufferedImage(bytes);
+            assertEquals(image.getWidth(), decoded.getWidth());
+            assertEquals(image.getHeight(), decoded.getHeight());
+        }
+    }
+
+    @Test
+    public void testEncodeExecutor() throws IOException {
+        final BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB);
+        final Random random = new Random(11);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt(8) << 24 | (x & 0xff) << 16 | (y & 0xff) << 8 | random.nextInt(16));
+            }
+        }
+        final int[] expected = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (final FilterSelection filterSelection : new FilterSelection[] { FilterSelection.NONE, FilterSelection.MINIMUM_SUM }) {
+                final PngImagingParameters params = new PngImagingParameters().setFilterSelection(filterSelection).setEncodeExecutor(executor);
+                final byte[] bytes = getImageBytes(image, params, null);
+                final BufferedImage decoded = Imaging.getBufferedImage(bytes);
+                assertArrayEquals(expected, decoded.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()), filterSelection.name());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final byte[] data = new byte[1000];
+        random.nextBytes(data);
+        final Adler32 whole = new Adler32();
+        whole.update(data);
+        final Adler32 first = new Adler32();
+        first.update(data, 0, 300);
+        final Adler32 second = new Adler32();
+        second.update(data, 300, 700);
+        assertEquals(whole.getValue(), ParallelDeflater.combineAdler32(first.getValue(), second.getValue(), 700));
+    }
 }
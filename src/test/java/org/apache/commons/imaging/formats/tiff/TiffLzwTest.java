@@ -17,6 +17,7 @@
 
 package org.apache.commons.imaging.formats.tiff;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.ByteArrayInputStream;
@@ -25,6 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.imaging.ImagingException;
@@ -215,6 +217,29 @@ public class TiffLzwTest extends TiffBaseTest {
         }
     }
 
+    @Test
+    public void testDecompressIntoArray() throws Exception {
+        final byte[] src = new byte[10000];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = (byte) (i * i >> 7);
+        }
+        final byte[] compressed = new MyLzwCompressor(8, ByteOrder.BIG_ENDIAN, true).compress(src);
+
+        final byte[] output = new byte[src.length];
+        assertEquals(src.length, new MyLzwDecompressor(8, ByteOrder.BIG_ENDIAN, true).decompress(new ByteArrayInputStream(compressed), output));
+        assertArrayEquals(src, output);
+
+        // the output stops at the end of the array
+        final byte[] shorter = new byte[src.length - 3];
+        assertEquals(shorter.length, new MyLzwDecompressor(8, ByteOrder.BIG_ENDIAN, true).decompress(new ByteArrayInputStream(compressed), shorter));
+        assertArrayEquals(Arrays.copyOf(src, shorter.length), shorter);
+
+        // and at the end of the data
+        final byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        final byte[] partial = new MyLzwDecompressor(8, ByteOrder.BIG_ENDIAN, true).decompress(new ByteArrayInputStream(truncated), src.length);
+        assertArrayEquals(Arrays.copyOf(src, partial.length), partial);
+    }
+
     @Disabled // FIXME fails with java.io.IOException: Bad Code: -1 codes: 258 code_size: 9, table: 4096
     @Test
     public void testTiffImageData() throws IOException, ImagingException {
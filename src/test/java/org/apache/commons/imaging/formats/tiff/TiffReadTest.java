@@ -17,23 +17,64 @@
 
 package org.apache.commons.imaging.formats.tiff;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.imaging.FormatCompliance;
 import org.apache.commons.imaging.ImageInfo;
 import org.apache.commons.imaging.Imaging;
+import org.apache.commons.imaging.ImagingTestConstants;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.ImageMetadata;
+import org.apache.commons.imaging.formats.tiff.constants.TiffTagConstants;
 import org.apache.commons.imaging.internal.Debug;
 import org.junit.jupiter.api.Test;
 
 public class TiffReadTest extends TiffBaseTest {
 
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
     @Test
     public void test() throws Exception {
         final List<File> images = getTiffImages();
@@ -86,4 +127,59 @@ public class TiffReadTest extends TiffBaseTest {
             assertNotNull(contents);
         }
     }
+
+    @Test
+    public void testReadHeaderOnly() throws Exception {
+        // the first directory of this file is at offset 8, ahead of almost 4 MB of image data
+        final File imageFile = new File(ImagingTestConstants.TEST_IMAGE_FOLDER, "tiff/1/matthew2.tif");
+        final byte[] bytes = Files.readAllBytes(imageFile.toPath());
+        final TiffImageParser parser = new TiffImageParser();
+        final ImageInfo expected = parser.getImageInfo(ByteSource.array(bytes), null);
+        final CountingInputStream is = new CountingInputStream(new ByteArrayInputStream(bytes));
+        final ByteSource byteSource = ByteSource.header(is, imageFile.getName(), 1 << 20);
+        assertEquals(expected.toString(), parser.getImageInfo(byteSource, null).toString());
+        assertNotNull(parser.getMetadata(byteSource, null));
+        assertEquals(expected.getWidth(), Imaging.getImageSize(byteSource).width);
+        assertTrue(is.count <= 16384, () -> is.count + " bytes read");
+    }
+
+    @Test
+    public void testReadHeaderOnlyStrict() throws Exception {
+        // a directory whose only field points at a value past the read limit
+        final byte[] bytes = new byte[2 << 20];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt(8);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) TiffTagConstants.TIFF_TAG_IMAGE_DESCRIPTION.tag).putShort((short) 2).putInt(100).putInt(3 << 19);
+        buffer.putInt(0);
+        final CountingInputStream is = new CountingInputStream(new ByteArrayInputStream(bytes));
+        final ByteSource byteSource = ByteSource.header(is, "strict.tif", 1 << 20);
+
+        // the error is reported without reading the source up to its limit
+        final IOException e = assertThrows(IOException.class,
+                () -> new TiffReader(true).readDirectories(byteSource, false, FormatCompliance.getDefault()));
+        assertTrue(e.getMessage().contains("outside the header"), e::getMessage);
+        assertTrue(is.count <= 16384, () -> is.count + " bytes read");
+    }
+
+    @Test
+    public void testReadWithDecodeExecutor() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final TiffImageParser parser = new TiffImageParser();
+            for (final File imageFile : getTiffImages()) {
+                if (imageFile.getName().toLowerCase().contains("bad")) {
+                    continue;
+                }
+                final BufferedImage expected = parser.getBufferedImage(ByteSource.file(imageFile), new TiffImagingParameters());
+                final BufferedImage actual = parser.getBufferedImage(ByteSource.file(imageFile), new TiffImagingParameters().setDecodeExecutor(executor));
+                final int width = expected.getWidth();
+                final int height = expected.getHeight();
+                assertArrayEquals(expected.getRGB(0, 0, width, height, null, 0, width), actual.getRGB(0, 0, width, height, null, 0, width),
+                        imageFile.getName());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -18,10 +18,15 @@ package org.apache.commons.imaging.formats.tiff;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.apache.commons.imaging.FormatCompliance;
+import org.apache.commons.imaging.Imaging;
 import org.apache.commons.imaging.ImagingException;
 import org.apache.commons.imaging.bytesource.ByteSource;
 import org.apache.commons.imaging.common.RationalNumber;
@@ -37,6 +42,40 @@ import org.junit.jupiter.api.Test;
 
 public class TiffReadWriteTagsTest extends TiffBaseTest {
 
+    @Test
+    public void testRewriteInPlace() throws IOException {
+        final Path file = Files.createTempFile("image", ".tiff");
+        try {
+            final BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    image.setRGB(x, y, x << 16 | y << 8 | x ^ y);
+                }
+            }
+            try (OutputStream os = Files.newOutputStream(file)) {
+                new TiffImageParser().writeImage(image, os, new TiffImagingParameters());
+            }
+            final TiffImageMetadata metadata = (TiffImageMetadata) Imaging.getMetadata(file.toFile());
+            final TiffOutputSet outputSet = metadata.getOutputSet();
+            outputSet.getOrCreateRootDirectory().add(TiffTagConstants.TIFF_TAG_IMAGE_DESCRIPTION, "rewritten");
+
+            // the output set holds the image data, so it can be written over the file it was read from
+            try (OutputStream os = Files.newOutputStream(file)) {
+                new TiffImageWriterLossy().write(os, outputSet);
+            }
+            final BufferedImage rewritten = Imaging.getBufferedImage(file.toFile());
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    assertEquals(image.getRGB(x, y), rewritten.getRGB(x, y));
+                }
+            }
+            final TiffImageMetadata rewrittenMetadata = (TiffImageMetadata) Imaging.getMetadata(file.toFile());
+            assertEquals("rewritten", rewrittenMetadata.findField(TiffTagConstants.TIFF_TAG_IMAGE_DESCRIPTION).getStringValue());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
     @Test
     public void testReadWriteTags() throws ImagingException, ImagingException, IOException {
         final String description = "A pretty picture";
@@ -25,6 +25,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.imaging.FormatCompliance;
 import org.apache.commons.imaging.Imaging;
@@ -147,6 +148,11 @@ public class TiffRoundTripInt32Test extends TiffBaseTest {
             final TiffImagingParameters xparams = new TiffImagingParameters();
             xparams.setSubImage(2, 2, width, height);
             assertThrows(ImagingException.class, () -> directory.getRasterData(xparams), "Failed to catch bad subimage for test " + name);
+            final TiffImagingParameters pparams = new TiffImagingParameters().setDecodeExecutor(ForkJoinPool.commonPool());
+            final int[] parallel = directory.getRasterData(pparams).getIntData();
+            for (int j = 0; j < sample.length; j++) {
+                assertEquals(sample[j], parallel[j], "Concurrently decoded data does not match original, test " + name + ": " + i + ", index " + j);
+            }
         }
     }
 
@@ -16,22 +16,29 @@
  */
 package org.apache.commons.imaging.formats.tiff;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.util.List;
 
+import org.apache.commons.imaging.FormatCompliance;
 import org.apache.commons.imaging.Imaging;
 import org.apache.commons.imaging.ImagingException;
+import org.apache.commons.imaging.bytesource.ByteSource;
 import org.junit.jupiter.api.Test;
 
 import org.apache.commons.imaging.formats.tiff.TiffImageParser;
@@ -97,6 +104,105 @@ public class TiffSubImageTest extends TiffBaseTest {
         assertEquals(image.getHeight(), 3);
     }
 
+    @Test
+    public void testStripDataIsReadOnDemand() throws ImagingException, IOException {
+        final TiffImageParser tiffImageParser = new TiffImageParser();
+        final BufferedImage src = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                src.setRGB(x, y, x * 16 << 16 | y * 16);
+            }
+        }
+        final byte[] imageBytes;
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            tiffImageParser.writeImage(src, baos, new TiffImagingParameters());
+            imageBytes = baos.toByteArray();
+        }
+
+        final TiffContents contents = new TiffReader(true).readDirectories(ByteSource.array(imageBytes), true, FormatCompliance.getDefault());
+        final AbstractTiffElement.DataElement[] elements = contents.directories.get(0).getTiffImageData().getImageData();
+        for (final AbstractTiffElement.DataElement element : elements) {
+            assertFalse(element.isLoaded());
+            assertEquals(element.length, element.getDataLength());
+            final byte[] expected = new byte[element.length];
+            System.arraycopy(imageBytes, (int) element.offset, expected, 0, element.length);
+            assertArrayEquals(expected, element.readData());
+        }
+
+        final TiffImagingParameters params = new TiffImagingParameters();
+        params.setSubImage(4, 5, 6, 7);
+        final BufferedImage image = tiffImageParser.getBufferedImage(imageBytes, params);
+        for (int y = 0; y < 7; y++) {
+            for (int x = 0; x < 6; x++) {
+                assertEquals(src.getRGB(x + 4, y + 5), image.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testContentsCache() throws ImagingException, IOException {
+        final TiffImageParser tiffImageParser = new TiffImageParser();
+        final File target = imageFileList.get(0);
+        final BufferedImage referenceImage = Imaging.getBufferedImage(target);
+        final int width = referenceImage.getWidth();
+        final int height = referenceImage.getHeight();
+        final TiffContentsCache cache = new TiffContentsCache(1 << 20);
+        final Object key = TiffContentsCache.fileKey(target.toPath());
+        assertEquals(key, TiffContentsCache.fileKey(target.toPath()));
+
+        for (int i = 0; i < 3; i++) {
+            final TiffImagingParameters params = new TiffImagingParameters().setContentsCache(cache).setContentsCacheKey(key);
+            params.setSubImage(i, i, width - 2 * i, height - 2 * i);
+            final BufferedImage image = tiffImageParser.getBufferedImage(ByteSource.file(target), params);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    assertEquals(referenceImage.getRGB(x + i, y + i), image.getRGB(x, y));
+                }
+            }
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.size());
+        assertTrue(cache.getWeight() > 0);
+
+        // the cached directories carry no image data, so they can serve any byte source of the file
+        final TiffImagingParameters params = new TiffImagingParameters().setContentsCache(cache).setContentsCacheKey(key);
+        final TiffImageMetadata metadata = (TiffImageMetadata) tiffImageParser.getMetadata(ByteSource.array(Files.readAllBytes(target.toPath())), params);
+        final TiffImageMetadata expected = (TiffImageMetadata) tiffImageParser.getMetadata(target);
+        assertEquals(expected.getAllFields().size(), metadata.getAllFields().size());
+        assertEquals(expected.toString(), metadata.toString());
+        assertEquals(new Dimension(width, height), tiffImageParser.getImageSize(target, params));
+        assertEquals(4, cache.getHitCount());
+
+        // lenient parses are not served to strict reads
+        final long entryWeight = cache.getWeight();
+        final TiffImagingParameters strict = new TiffImagingParameters().setContentsCache(cache).setContentsCacheKey(key).setStrict(true);
+        assertEquals(new Dimension(width, height), tiffImageParser.getImageSize(target, strict));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+        tiffImageParser.getImageSize(target, strict);
+        assertEquals(5, cache.getHitCount());
+        cache.invalidate(key);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+
+        // entries that no longer fit are evicted, least recently used first
+        final TiffContentsCache smallCache = new TiffContentsCache(entryWeight);
+        final TiffImagingParameters first = new TiffImagingParameters().setContentsCache(smallCache).setContentsCacheKey("first");
+        final TiffImagingParameters second = new TiffImagingParameters().setContentsCache(smallCache).setContentsCacheKey("second");
+        tiffImageParser.getImageSize(target, first);
+        tiffImageParser.getImageSize(target, second);
+        assertEquals(1, smallCache.size());
+        assertEquals(1, smallCache.getEvictionCount());
+        tiffImageParser.getImageSize(target, second);
+        assertEquals(1, smallCache.getHitCount());
+        smallCache.invalidate("second");
+        assertEquals(0, smallCache.size());
+        assertEquals(0, smallCache.getWeight());
+
+        assertThrows(IllegalArgumentException.class, () -> new TiffContentsCache(0));
+    }
+
     @Test
     public void testSubImageCorrectness() throws ImagingException, IOException {
         final TiffImageParser tiffImageParser = new TiffImageParser();
@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 
 import org.apache.commons.imaging.ImageInfo;
@@ -56,6 +57,19 @@ public class WebPReadTest extends WebPBaseTest {
         assertTrue(exception.getMessage().contains("Reading WebP files is currently not supported"));
     }
 
+    @Test
+    public void testHeaderOnlyAnimation() throws IOException {
+        final File animation = new File(WebPReadTest.class.getResource("/images/webp/animation/example.webp").getFile());
+        final WebPImageParser parser = new WebPImageParser();
+        assertEquals(30, parser.getImageInfo(ByteSource.file(animation), null).getNumberOfImages());
+        try (FileInputStream is = new FileInputStream(animation)) {
+            final ImageInfo imageInfo = parser.getImageInfo(ByteSource.header(is, animation.getName(), 1 << 20), null);
+            assertEquals("WebP/Animation", imageInfo.getFormatDetails());
+            // the frames after the first are not read, so their number is unknown
+            assertEquals(-1, imageInfo.getNumberOfImages());
+        }
+    }
+
     /**
      * Basic features of the parser.
      */
@@ -16,7 +16,9 @@
  */
 package org.apache.commons.imaging.palette;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
 import java.util.LinkedList;
@@ -63,4 +65,68 @@ public class DitheringTest {
         assertEquals(-1, bufferedImage.getRGB(2, 2));
     }
 
+    private static BufferedImage newGradient(final int imageType) {
+        final BufferedImage image = new BufferedImage(64, 48, imageType);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, 0xff000000 | x * 4 * 0x010101);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Sums the differences of the average blue of bands 8 pixels wide.
+     */
+    private static long bandError(final BufferedImage expected, final BufferedImage actual) {
+        long error = 0;
+        for (int band = 0; band < expected.getWidth(); band += 8) {
+            long difference = 0;
+            for (int y = 0; y < expected.getHeight(); y++) {
+                for (int x = band; x < band + 8; x++) {
+                    difference += (expected.getRGB(x, y) & 0xff) - (actual.getRGB(x, y) & 0xff);
+                }
+            }
+            error += Math.abs(difference);
+        }
+        return error;
+    }
+
+    @Test
+    public void testApplyDithering() throws ImagingException {
+        for (final DitheringMethod method : DitheringMethod.values()) {
+            testApplyDithering(method);
+        }
+    }
+
+    private void testApplyDithering(final DitheringMethod method) throws ImagingException {
+        // four gray levels, far from most pixels of the gradient
+        final BufferedImage levels = new BufferedImage(4, 1, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < 4; i++) {
+            levels.setRGB(i, 0, i * 85 * 0x010101);
+        }
+        final Palette palette = new PaletteFactory().makeQuantizedRgbPalette(levels, 4);
+
+        final BufferedImage direct = newGradient(BufferedImage.TYPE_INT_RGB);
+        Dithering.applyDithering(direct, palette, method, true);
+        final BufferedImage converted = newGradient(BufferedImage.TYPE_3BYTE_BGR);
+        Dithering.applyDithering(converted, palette, method, true);
+        final BufferedImage mapped = newGradient(BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < mapped.getHeight(); y++) {
+            for (int x = 0; x < mapped.getWidth(); x++) {
+                mapped.setRGB(x, y, palette.getEntry(palette.getPaletteIndex(mapped.getRGB(x, y))));
+            }
+        }
+
+        // the data buffer and the color model give the same result
+        final int width = direct.getWidth();
+        final int height = direct.getHeight();
+        assertArrayEquals(direct.getRGB(0, 0, width, height, null, 0, width), converted.getRGB(0, 0, width, height, null, 0, width));
+        for (final int argb : direct.getRGB(0, 0, width, height, null, 0, width)) {
+            assertEquals(argb, 0xff000000 | palette.getEntry(palette.getPaletteIndex(argb)));
+        }
+        // dithering keeps the local average closer than mapping each pixel to its palette color
+        final BufferedImage source = newGradient(BufferedImage.TYPE_INT_RGB);
+        assertTrue(bandError(source, direct) < bandError(source, mapped), method.name());
+    }
 }
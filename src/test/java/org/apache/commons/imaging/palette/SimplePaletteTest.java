@@ -22,6 +22,24 @@ import org.junit.jupiter.api.Test;
 
 public class SimplePaletteTest {
 
+    @Test
+    public void testGetPaletteIndex() {
+        final int[] intArray = new int[300];
+        for (int i = 0; i < intArray.length; i++) {
+            // colors that differ only in alpha, and repeated colors
+            intArray[i] = i % 100 * 0x01000001;
+        }
+        final SimplePalette simplePalette = new SimplePalette(intArray);
+
+        for (int i = 0; i < intArray.length; i++) {
+            // the first index of a repeated color
+            assertEquals(i % 100, simplePalette.getPaletteIndex(intArray[i]));
+        }
+        assertEquals(-1, simplePalette.getPaletteIndex(0x00000001));
+        assertEquals(-1, simplePalette.getPaletteIndex(0x01000000));
+        assertEquals(300, simplePalette.length());
+    }
+
     @Test
     public void testGetPaletteIndexReturningNegative() {
 